@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+#
+# Reproducible comparison of request handling on the default Tomcat platform-thread pool against virtual threads.
+#
+# Starts the packaged application twice against the same MongoDB, once with the default pool and once with the
+# virtual-threads profile, seeds a price and drives the same price lookup against each one with wrk at 1k to 10k
+# concurrent connections, printing requests per second, latency percentiles and socket errors. The lookup cache
+# is disabled so every request reaches MongoDB.
+#
+# Requires Java 21, the jar built with "./mvnw -Pjava21 -DskipTests package", a running MongoDB, wrk on the PATH
+# and enough file descriptors for the connections (e.g. "ulimit -n 65536").
+#
+# Usage: scripts/compare-thread-models.sh [duration] [connection counts...]
+#   e.g. scripts/compare-thread-models.sh 60s 1000 2500 5000 10000
+
+set -euo pipefail
+
+DURATION="${1:-60s}"
+shift || true
+CONNECTIONS=("${@:-1000 2500 5000 10000}")
+CONNECTIONS=(${CONNECTIONS[*]})
+THREADS="${THREADS:-8}"
+JAR="${JAR:-$(ls target/testapp-*.jar | grep -v original | head -n 1)}"
+PLATFORM_PORT=8083
+VIRTUAL_PORT=8084
+LOOKUP="/prices?brandId=1&productId=35455&date=2020-06-14T16:00:00"
+COMMON_ARGS=(--prices.lookup.cache.enabled=false --prices.lookup.known-products.enabled=false
+  --server.tomcat.max-connections=20000 --server.tomcat.accept-count=1000)
+PIDS=()
+
+cleanup() {
+  for pid in "${PIDS[@]}"; do
+    kill "$pid" 2>/dev/null || true
+  done
+}
+trap cleanup EXIT
+
+start() {
+  local port="$1"
+  shift
+  java -jar "$JAR" --server.port="$port" "${COMMON_ARGS[@]}" "$@" > "target/compare-$port.log" 2>&1 &
+  PIDS+=("$!")
+  for _ in $(seq 1 60); do
+    if curl -s -o /dev/null "http://localhost:$port/prices"; then
+      return
+    fi
+    sleep 1
+  done
+  echo "Application on port $port did not start, see target/compare-$port.log" >&2
+  exit 1
+}
+
+seed() {
+  curl -s -o /dev/null -X POST -H 'Content-Type: application/json' "http://localhost:$PLATFORM_PORT/prices" -d '[
+    {"brand_id": 1, "start_date": "2020-06-14T00:00:00", "end_date": "2020-12-31T23:59:59", "price_list": 1,
+     "product_id": 35455, "priority": 0, "price": 35.50, "curr": "EUR"}
+  ]'
+}
+
+run() {
+  local name="$1" port="$2" connections="$3"
+  local output
+  output=$(wrk -t"$THREADS" -c"$connections" -d"$DURATION" --timeout 10s --latency "http://localhost:$port$LOOKUP")
+  printf '%-9s %6s  %12s  %9s  %9s  %9s  %s\n' "$name" "$connections" \
+    "$(echo "$output" | awk '/Requests\/sec/ {print $2}')" \
+    "$(echo "$output" | awk '$1 == "50%" {print $2}')" \
+    "$(echo "$output" | awk '$1 == "99%" {print $2}')" \
+    "$(echo "$output" | awk '/Non-2xx/ {print $NF}')" \
+    "$(echo "$output" | awk '/Socket errors/ {$1 = $2 = ""; print}')"
+}
+
+start "$PLATFORM_PORT"
+start "$VIRTUAL_PORT" --spring.profiles.active=virtual-threads
+seed
+
+printf '%-9s %6s  %12s  %9s  %9s  %9s  %s\n' threads conns 'req/s' p50 p99 non-2xx 'socket errors'
+for connections in "${CONNECTIONS[@]}"; do
+  run platform "$PLATFORM_PORT" "$connections"
+  run virtual "$VIRTUAL_PORT" "$connections"
+done
@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+#
+# Side-by-side throughput and latency comparison of the servlet (default) and reactive (WebFlux) price APIs.
+#
+# Starts the packaged application twice against the same MongoDB, once per stack, seeds a price and drives the
+# same price lookup against each one with wrk at increasing concurrency, printing requests per second and latency
+# percentiles. Requires the jar built with "./mvnw -DskipTests package", a running MongoDB and wrk on the PATH.
+#
+# Usage: scripts/compare-web-stacks.sh [duration] [connection counts...]
+#   e.g. scripts/compare-web-stacks.sh 30s 64 256 1024
+
+set -euo pipefail
+
+DURATION="${1:-30s}"
+shift || true
+CONNECTIONS=("${@:-64 256 1024}")
+CONNECTIONS=(${CONNECTIONS[*]})
+THREADS="${THREADS:-4}"
+JAR="${JAR:-$(ls target/testapp-*.jar | grep -v original | head -n 1)}"
+SERVLET_PORT=8081
+REACTIVE_PORT=8082
+LOOKUP="/prices?brandId=1&productId=35455&date=2020-06-14T16:00:00"
+PIDS=()
+
+cleanup() {
+  for pid in "${PIDS[@]}"; do
+    kill "$pid" 2>/dev/null || true
+  done
+}
+trap cleanup EXIT
+
+start() {
+  local port="$1"
+  shift
+  java -jar "$JAR" --server.port="$port" --prices.lookup.cache.enabled=false "$@" > "target/compare-$port.log" 2>&1 &
+  PIDS+=("$!")
+  for _ in $(seq 1 60); do
+    if curl -s -o /dev/null "http://localhost:$port/prices"; then
+      return
+    fi
+    sleep 1
+  done
+  echo "Application on port $port did not start, see target/compare-$port.log" >&2
+  exit 1
+}
+
+seed() {
+  curl -s -o /dev/null -X POST -H 'Content-Type: application/json' "http://localhost:$SERVLET_PORT/prices" -d '[
+    {"brand_id": 1, "start_date": "2020-06-14T00:00:00", "end_date": "2020-12-31T23:59:59", "price_list": 1,
+     "product_id": 35455, "priority": 0, "price": 35.50, "curr": "EUR"}
+  ]'
+}
+
+run() {
+  local name="$1" port="$2" connections="$3"
+  local output
+  output=$(wrk -t"$THREADS" -c"$connections" -d"$DURATION" --latency "http://localhost:$port$LOOKUP")
+  printf '%-9s %6s  %12s  %9s  %9s  %9s\n' "$name" "$connections" \
+    "$(echo "$output" | awk '/Requests\/sec/ {print $2}')" \
+    "$(echo "$output" | awk '$1 == "50%" {print $2}')" \
+    "$(echo "$output" | awk '$1 == "90%" {print $2}')" \
+    "$(echo "$output" | awk '$1 == "99%" {print $2}')"
+}
+
+start "$SERVLET_PORT"
+start "$REACTIVE_PORT" --spring.profiles.active=reactive
+seed
+
+printf '%-9s %6s  %12s  %9s  %9s  %9s\n' stack conns 'req/s' p50 p90 p99
+for connections in "${CONNECTIONS[@]}"; do
+  run servlet "$SERVLET_PORT" "$connections"
+  run reactive "$REACTIVE_PORT" "$connections"
+done
@@ -0,0 +1,70 @@
+package com.example.testapp.benchmarks;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.lookup.EffectivePrice;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fixtures shared by the benchmarks: the prices of the reference test catalog, and a repository stub answering
+ * lookups from memory so benchmarks measure the application code rather than MongoDB.
+ */
+final class BenchmarkPrices {
+
+    static final long BRAND_ID = 1L;
+    static final long PRODUCT_ID = 35455L;
+    static final LocalDateTime DATE = LocalDateTime.of(2020, 6, 14, 16, 0);
+
+    private BenchmarkPrices() {
+    }
+
+    static Price price() {
+        return catalog().get(1);
+    }
+
+    static List<Price> catalog() {
+        return List.of(
+                price("66c26f01f1fc951335aa8d01", 0, "2020-06-14T00:00:00", "2020-12-31T23:59:59", 1, "35.50"),
+                price("66c26f01f1fc951335aa8d02", 1, "2020-06-14T15:00:00", "2020-06-14T18:30:00", 2, "25.45"),
+                price("66c26f01f1fc951335aa8d03", 1, "2020-06-15T00:00:00", "2020-06-15T11:00:00", 3, "30.50"),
+                price("66c26f01f1fc951335aa8d04", 1, "2020-06-15T16:00:00", "2020-12-31T23:59:59", 4, "38.95"));
+    }
+
+    /**
+     * Stub of {@link PricesRepository} whose effective price lookup always answers with {@link #price()}, and whose
+     * bulk reads return the whole catalog. Other methods are not supported.
+     */
+    static PricesRepository repository() {
+        Optional<Price> effectivePrice = Optional.of(price());
+        List<Price> catalog = catalog();
+        return (PricesRepository) Proxy.newProxyInstance(PricesRepository.class.getClassLoader(), new Class<?>[]{PricesRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findEffectivePrice" -> effectivePrice;
+                    case "findAll", "findPricesApplyingWithin" -> catalog;
+                    case "findNextStartDates" -> Map.of();
+                    case "findEffectivePriceAndNextStart" -> new EffectivePrice(effectivePrice.get(), null);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Price price(String id, int priority, String start, String end, int priceList, String amount) {
+        return Price.builder()
+                ._id(id)
+                .brandId(BRAND_ID)
+                .productId(PRODUCT_ID)
+                .startDate(LocalDateTime.parse(start))
+                .endDate(LocalDateTime.parse(end))
+                .priceList(priceList)
+                .priority(priority)
+                .price(new BigDecimal(amount))
+                .currency(Currency.getInstance("EUR"))
+                .build();
+    }
+}
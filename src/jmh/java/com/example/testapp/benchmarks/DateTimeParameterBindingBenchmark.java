@@ -0,0 +1,47 @@
+package com.example.testapp.benchmarks;
+
+import com.example.testapp.controllers.PriceApi;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.format.support.DefaultFormattingConversionService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of binding the {@code date} request parameter of {@link PriceApi#getPriceByDate(LocalDateTime, Long, Long, String)}
+ * through its {@code @DateTimeFormat(iso = DATE_TIME)} annotation, the way Spring MVC converts it, against parsing
+ * the same value directly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateTimeParameterBindingBenchmark {
+
+    private static final String DATE = "2020-06-14T16:00:00";
+    private static final TypeDescriptor STRING = TypeDescriptor.valueOf(String.class);
+
+    private DefaultFormattingConversionService conversionService;
+    private TypeDescriptor dateParameter;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        conversionService = new DefaultFormattingConversionService();
+        dateParameter = new TypeDescriptor(new MethodParameter(
+                PriceApi.class.getMethod("getPriceByDate", LocalDateTime.class, Long.class, Long.class, String.class), 0));
+    }
+
+    @Benchmark
+    public Object annotatedBinding() {
+        return conversionService.convert(DATE, STRING, dateParameter);
+    }
+
+    @Benchmark
+    public LocalDateTime directParse() {
+        return LocalDateTime.parse(DATE);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.testapp.benchmarks;
+
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.services.converters.PriceDtoEncoder;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.PriceToPriceDtoMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing a {@link PriceDto} in every {@link PriceEncoding}, with an object mapper configured like the
+ * application's. The encoded size, the bytes on the wire of every response, is reported as the {@code encodedBytes}
+ * secondary result of every encoding.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceDtoSerializationBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE", "PROTOBUF"})
+    private PriceEncoding encoding;
+
+    private PriceDtoEncoder encoder;
+    private PriceDto priceDto;
+
+    @Setup
+    public void setUp() {
+        encoder = new PriceDtoEncoder(Jackson2ObjectMapperBuilder.json().build());
+        priceDto = PriceToPriceDtoMapper.toDto(BenchmarkPrices.price());
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize encodedSize) {
+        byte[] encoded = encoder.encode(priceDto, encoding);
+        encodedSize.encodedBytes = encoded.length;
+        return encoded;
+    }
+
+    /**
+     * Size of the last encoded price, reported as is rather than summed over the invocations.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+    }
+}
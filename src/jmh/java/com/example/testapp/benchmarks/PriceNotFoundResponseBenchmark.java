@@ -0,0 +1,88 @@
+package com.example.testapp.benchmarks;
+
+import com.example.testapp.exceptions.ErrorResponse;
+import com.example.testapp.exceptions.ErrorResponseWriter;
+import com.example.testapp.exceptions.GlobalExceptionHandler;
+import com.example.testapp.exceptions.PriceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION;
+import static com.example.testapp.constants.InditexConstants.PRICES_URL;
+
+/**
+ * Cost of answering a lookup without price with a 404, from raising the exception to the serialized body.
+ * {@code legacy} reproduces the former pipeline: a {@link NoSuchElementException} with an eagerly formatted
+ * message and a stack trace, and an {@link ErrorResponse} serialized by Jackson with the path taken from the
+ * request description. {@code formatted} formats the message of a {@link PriceNotFoundException} and writes it
+ * with {@link ErrorResponseWriter#write}, quoting and encoding the whole message on every 404. {@code current}
+ * goes through {@link GlobalExceptionHandler}, which fills the arguments into a template encoded once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceNotFoundResponseBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+    private ObjectWriter errorResponseWriter;
+    private ErrorResponseWriter writer;
+    private WebRequest request;
+
+    @Setup
+    public void setUp() {
+        globalExceptionHandler = new GlobalExceptionHandler();
+        errorResponseWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(ErrorResponse.class);
+        writer = new ErrorResponseWriter();
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", PRICES_URL);
+        servletRequest.setQueryString("brandId=1&productId=35455&date=2020-06-14T16:00:00");
+        request = new ServletWebRequest(servletRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> current() {
+        try {
+            throw new PriceNotFoundException(BenchmarkPrices.DATE, BenchmarkPrices.BRAND_ID, BenchmarkPrices.PRODUCT_ID);
+        } catch (PriceNotFoundException e) {
+            return globalExceptionHandler.handlePriceNotFoundException(e, request);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> formatted() {
+        try {
+            throw new PriceNotFoundException(BenchmarkPrices.DATE, BenchmarkPrices.BRAND_ID, BenchmarkPrices.PRODUCT_ID);
+        } catch (PriceNotFoundException e) {
+            return new ResponseEntity<>(writer.write(HttpStatus.NOT_FOUND, e.getMessage(), PRICES_URL), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> legacy() throws JsonProcessingException {
+        try {
+            throw new NoSuchElementException(String.format(ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION,
+                    BenchmarkPrices.DATE, BenchmarkPrices.BRAND_ID, BenchmarkPrices.PRODUCT_ID));
+        } catch (NoSuchElementException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .message(e.getMessage())
+                    .path(request.getDescription(false).substring(4))
+                    .build();
+            return new ResponseEntity<>(errorResponseWriter.writeValueAsBytes(errorResponse), HttpStatus.NOT_FOUND);
+        }
+    }
+}
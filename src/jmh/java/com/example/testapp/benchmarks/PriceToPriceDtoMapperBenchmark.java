@@ -0,0 +1,38 @@
+package com.example.testapp.benchmarks;
+
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.model.Price;
+import com.example.testapp.services.converters.PriceToPriceDtoMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a {@link Price} to a {@link PriceDto}: the builder allocation and the final price string built
+ * from the {@code BigDecimal} amount and the currency symbol.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceToPriceDtoMapperBenchmark {
+
+    private Price price;
+
+    @Setup
+    public void setUp() {
+        price = BenchmarkPrices.price();
+    }
+
+    @Benchmark
+    public PriceDto toDto() {
+        return PriceToPriceDtoMapper.toDto(price);
+    }
+
+    @Benchmark
+    public String finalPrice() {
+        return price.getPrice() + price.getCurrency().getSymbol();
+    }
+}
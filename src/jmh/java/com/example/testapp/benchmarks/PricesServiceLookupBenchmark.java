@@ -0,0 +1,69 @@
+package com.example.testapp.benchmarks;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.PricesServiceImpl;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.PriceJsonRenderer;
+import com.example.testapp.services.converters.RenderedPrice;
+import com.example.testapp.services.lookup.CachingPriceLookupEngine;
+import com.example.testapp.services.lookup.InMemoryPriceLookupEngine;
+import com.example.testapp.services.lookup.PriceLookupEngine;
+import com.example.testapp.services.lookup.PriceChangeStreamPosition;
+import com.example.testapp.services.lookup.RepositoryPriceLookupEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a price lookup through {@link PricesServiceImpl} over a stubbed repository, with each lookup engine:
+ * {@code repository} answers from the stub, {@code in-memory} from its interval index and {@code cached} from the
+ * cache in front of the repository engine. The time spent in MongoDB is left out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricesServiceLookupBenchmark {
+
+    @Param({"repository", "in-memory", "cached"})
+    private String engine;
+
+    private PricesServiceImpl pricesService;
+
+    @Setup
+    public void setUp() {
+        PricesRepository pricesRepository = BenchmarkPrices.repository();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PriceLookupEngine priceLookupEngine = switch (engine) {
+            case "repository" -> new RepositoryPriceLookupEngine(pricesRepository, meterRegistry);
+            case "in-memory" -> {
+                InMemoryPriceLookupEngine inMemory = new InMemoryPriceLookupEngine(pricesRepository, new PricesProperties(), BrandPartitioner.SINGLE_NODE, new PriceChangeStreamPosition(), meterRegistry);
+                inMemory.afterPropertiesSet();
+                yield inMemory;
+            }
+            case "cached" -> new CachingPriceLookupEngine(new RepositoryPriceLookupEngine(pricesRepository, meterRegistry),
+                    1_000, Duration.ofMinutes(10), Duration.ofMinutes(10));
+            default -> throw new IllegalArgumentException(engine);
+        };
+        pricesService = new PricesServiceImpl(pricesRepository, priceLookupEngine,
+                new PriceJsonRenderer(Jackson2ObjectMapperBuilder.json().build(), new PricesProperties(), meterRegistry), new PricesProperties(), meterRegistry);
+    }
+
+    @Benchmark
+    public PriceDto getPriceByBrandIdAndProductIdAndDate() {
+        return pricesService.getPriceByBrandIdAndProductIdAndDate(BenchmarkPrices.DATE, BenchmarkPrices.BRAND_ID, BenchmarkPrices.PRODUCT_ID);
+    }
+
+    @Benchmark
+    public RenderedPrice getPriceJsonByBrandIdAndProductIdAndDate() {
+        return pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(BenchmarkPrices.DATE, BenchmarkPrices.BRAND_ID, BenchmarkPrices.PRODUCT_ID, PriceEncoding.JSON);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.testapp.configuration;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caps the number of blocking MongoDB calls running at the same time to the size of the MongoDB connection
+ * pool. With request handling on virtual threads nothing else bounds concurrency, and the surplus would just
+ * queue inside the driver; here it waits on a fair semaphore instead, and fails fast when no connection frees
+ * up in time.
+ *
+ * <p>Both the blocking Spring Data repositories and the {@link MongoOperations} bean are limited, so queries built
+ * by hand and bulk writes take a permit as well; a repository call going through the template takes a single one.
+ * A call keeps its permit until it returns, or, for methods returning a {@link Stream}, until the stream is
+ * closed, since the cursor holds a connection meanwhile. Bulk writes take theirs when executed.</p>
+ *
+ * <p>Reactive repositories are left alone, and so is the driver's {@code MongoCollection} API used directly: the
+ * change stream listener holds a single cursor, on its own thread, for as long as the application runs, and would
+ * only pin a permit, while the index initializer runs once at startup, before any request is accepted.</p>
+ */
+public class MongoConcurrencyLimiter implements BeanPostProcessor {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final ThreadLocal<Boolean> holdingPermit = ThreadLocal.withInitial(() -> false);
+
+    public MongoConcurrencyLimiter(int maxConcurrency, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    /**
+     * Wraps blocking Spring Data repositories and the {@link MongoOperations} bean in a proxy acquiring a permit
+     * around every call.
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        boolean template = bean instanceof MongoOperations;
+        if (!template && (!(bean instanceof Repository<?, ?>) || bean instanceof ReactiveCrudRepository<?, ?>)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(template);
+        proxyFactory.addAdvice(new PermitInterceptor());
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Takes a permit around every call, except the calls made while the thread already holds one, and the template
+     * accessors and factories of bulk and index operations, which do not use a connection themselves.
+     */
+    private final class PermitInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String name = invocation.getMethod().getName();
+            if (invocation.getMethod().getDeclaringClass() == Object.class || holdingPermit.get()
+                    || invocation.getThis() instanceof MongoOperations && (name.startsWith("get") || name.endsWith("Ops"))) {
+                Object result = invocation.proceed();
+                return result instanceof BulkOperations bulkOperations ? limited(bulkOperations) : result;
+            }
+            return withPermit(invocation);
+        }
+    }
+
+    private BulkOperations limited(BulkOperations bulkOperations) {
+        ProxyFactory proxyFactory = new ProxyFactory(bulkOperations);
+        proxyFactory.addAdvice(new BulkExecuteInterceptor());
+        return (BulkOperations) proxyFactory.getProxy(bulkOperations.getClass().getClassLoader());
+    }
+
+    /**
+     * Takes a permit when the bulk write is executed, and keeps returning the proxy from the methods adding to it.
+     */
+    private final class BulkExecuteInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (invocation.getMethod().getName().equals("execute")) {
+                return withPermit(invocation);
+            }
+            Object result = invocation.proceed();
+            return result == invocation.getThis() ? ((ProxyMethodInvocation) invocation).getProxy() : result;
+        }
+    }
+
+    private Object withPermit(MethodInvocation invocation) throws Throwable {
+        acquire();
+        holdingPermit.set(true);
+        boolean release = true;
+        try {
+            Object result = invocation.proceed();
+            if (result instanceof Stream<?> stream) {
+                release = false;
+                return stream.onClose(permits::release);
+            }
+            return result;
+        } finally {
+            holdingPermit.set(false);
+            if (release) {
+                permits.release();
+            }
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DataAccessResourceFailureException("Timed out waiting for a MongoDB connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while waiting for a MongoDB connection", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.testapp.configuration;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConnectionPoolListener} timing how long operations wait to check a connection out of the MongoDB pool,
+ * tagged by whether they got one. Pool size and checked out connections are already published by Spring Boot;
+ * the wait shows when the pool, rather than the database, is the bottleneck.
+ */
+class MongoConnectionCheckoutMetrics implements ConnectionPoolListener {
+
+    private final Timer checkedOut;
+    private final Timer checkOutFailed;
+
+    MongoConnectionCheckoutMetrics(MeterRegistry meterRegistry) {
+        this.checkedOut = checkoutTimer(meterRegistry, "success");
+        this.checkOutFailed = checkoutTimer(meterRegistry, "failure");
+    }
+
+    private static Timer checkoutTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mongodb.driver.pool.checkout")
+                .description("Time spent waiting to check a connection out of the pool")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkOutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.testapp.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the MongoDB connection pool from {@code prices.mongo.max-pool-size} and {@code min-pool-size} and, when
+ * request handling runs on virtual threads, limits blocking MongoDB calls to the maximum at a time with a
+ * {@link MongoConcurrencyLimiter}.
+ * The time spent waiting for a pooled connection is published by {@link MongoConnectionCheckoutMetrics}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MongoConnectionPoolConfiguration {
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer connectionPoolSizeCustomizer(PricesProperties pricesProperties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(pricesProperties.getMongo().getMaxPoolSize())
+                .minSize(pricesProperties.getMongo().getMinPoolSize()));
+    }
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer connectionCheckoutMetricsCustomizer(MeterRegistry meterRegistry) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(new MongoConnectionCheckoutMetrics(meterRegistry)));
+    }
+
+    /**
+     * Declared static, as bean post-processors are created before regular beans; the settings are bound
+     * straight from the environment for the same reason.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    static MongoConcurrencyLimiter mongoConcurrencyLimiter(Environment environment) {
+        PricesProperties.Mongo mongo = Binder.get(environment)
+                .bind("prices.mongo", PricesProperties.Mongo.class)
+                .orElseGet(PricesProperties.Mongo::new);
+        return new MongoConcurrencyLimiter(mongo.getMaxPoolSize(), mongo.getAcquireTimeout());
+    }
+}
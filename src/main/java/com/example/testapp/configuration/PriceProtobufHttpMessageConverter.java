@@ -0,0 +1,78 @@
+package com.example.testapp.configuration;
+
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.services.converters.PriceDtoToProtobufMapper;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.google.protobuf.Message;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes the response DTOs as the Protocol Buffers messages of {@code prices.proto}: a {@link PriceDto}, or the
+ * {@link PriceQueryResultDto} results of a batch of lookups. Request bodies are never read in this encoding.
+ */
+public class PriceProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public PriceProtobufHttpMessageConverter() {
+        super(PriceEncoding.PROTOBUF.mediaType());
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PriceDto.class.isAssignableFrom(clazz) || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(@Nullable MediaType mediaType) {
+        return false;
+    }
+
+    /**
+     * Writes a {@link PriceDto}, or a list whose declared element type is {@link PriceQueryResultDto}.
+     */
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (PriceDto.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        return type != null && List.class.isAssignableFrom(clazz)
+                && PriceQueryResultDto.class.equals(ResolvableType.forType(type).asCollection().resolveGeneric(0));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        Message message = value instanceof PriceDto priceDto
+                ? PriceDtoToProtobufMapper.toMessage(priceDto)
+                : PriceDtoToProtobufMapper.toMessage((List<PriceQueryResultDto>) value);
+        message.writeTo(outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protocol Buffers request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protocol Buffers request bodies are not supported", inputMessage);
+    }
+}
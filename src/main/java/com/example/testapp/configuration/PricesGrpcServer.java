@@ -0,0 +1,97 @@
+package com.example.testapp.configuration;
+
+import com.example.testapp.controllers.PriceGrpcService;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the {@link PriceGrpcService} on the gRPC port when enabled, and in process under the configured name,
+ * next to the web server of the REST API. Both are started with the application and, when it stops, given the
+ * configured grace period to complete the calls in progress before these are cancelled.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PricesGrpcServer implements SmartLifecycle {
+
+    private final PriceGrpcService priceGrpcService;
+    private final PricesProperties.Grpc settings;
+    private final List<Server> servers = new ArrayList<>();
+
+    public PricesGrpcServer(PriceGrpcService priceGrpcService, PricesProperties pricesProperties) {
+        this.priceGrpcService = priceGrpcService;
+        this.settings = pricesProperties.getGrpc();
+    }
+
+    /**
+     * Starts the servers configured.
+     */
+    @Override
+    public synchronized void start() {
+        if (!servers.isEmpty()) {
+            return;
+        }
+        if (settings.isEnabled()) {
+            start(NettyServerBuilder.forPort(settings.getPort())
+                    .flowControlWindow(settings.getFlowControlWindow())
+                    .addService(priceGrpcService)
+                    .build());
+            log.info("gRPC server listening on port {}", settings.getPort());
+        }
+        if (StringUtils.hasText(settings.getInProcessName())) {
+            start(InProcessServerBuilder.forName(settings.getInProcessName())
+                    .addService(priceGrpcService)
+                    .build());
+            log.info("In-process gRPC server started as {}", settings.getInProcessName());
+        }
+    }
+
+    /**
+     * Stops accepting calls, waits up to the grace period for those in progress and cancels the rest.
+     */
+    @Override
+    public synchronized void stop() {
+        servers.forEach(Server::shutdown);
+        long deadline = System.nanoTime() + settings.getShutdownGracePeriod().toNanos();
+        for (Server server : servers) {
+            try {
+                if (!server.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    log.warn("gRPC calls still in progress after {}, cancelling them", settings.getShutdownGracePeriod());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            server.shutdownNow();
+        }
+        servers.clear();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized boolean isRunning() {
+        return !servers.isEmpty();
+    }
+
+    private void start(Server server) {
+        try {
+            servers.add(server.start());
+        } catch (IOException ex) {
+            stop();
+            throw new UncheckedIOException("Could not start the gRPC server", ex);
+        }
+    }
+}
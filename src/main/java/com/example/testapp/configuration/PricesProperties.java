@@ -0,0 +1,456 @@
+package com.example.testapp.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Externalized configuration for the prices service, bound from the {@code prices.*} properties.
+ */
+@ConfigurationProperties(prefix = "prices")
+@Getter
+@Setter
+public class PricesProperties {
+
+    private Lookup lookup = new Lookup();
+
+    private Mongo mongo = new Mongo();
+
+    private Batch batch = new Batch();
+
+    private Rendering rendering = new Rendering();
+
+    private Ingestion ingestion = new Ingestion();
+
+    private Export export = new Export();
+
+    private HttpCache httpCache = new HttpCache();
+
+    private ChangeStream changeStream = new ChangeStream();
+
+    private WarmUp warmUp = new WarmUp();
+
+    private Cluster cluster = new Cluster();
+
+    private Grpc grpc = new Grpc();
+
+    /**
+     * Settings of the engine in charge of resolving point lookups.
+     */
+    @Getter
+    @Setter
+    public static class Lookup {
+
+        /**
+         * Engine used to resolve lookups: {@code repository} queries MongoDB on every call, {@code in-memory}
+         * serves them from an interval index loaded at startup, and {@code timeline} reads the effective price
+         * timeline materialized when prices are written.
+         */
+        private String engine = "repository";
+
+        private Cache cache = new Cache();
+
+        private Coalescing coalescing = new Coalescing();
+
+        private KnownProducts knownProducts = new KnownProducts();
+
+        private Snapshot snapshot = new Snapshot();
+    }
+
+    /**
+     * Settings of the read-through cache placed in front of the lookup engine.
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Whether resolved prices are cached together with their validity window.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of products whose resolved price is kept.
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * Time after which a cached price is evicted, bounding how long changes written by other instances
+         * can go unnoticed.
+         */
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        /**
+         * Time after which a cached lookup that found no price is evicted.
+         */
+        private Duration negativeTimeToLive = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings of the layer sharing a single resolution among concurrent lookups of the same product.
+     */
+    @Getter
+    @Setter
+    public static class Coalescing {
+
+        /**
+         * Whether concurrent lookups of the same product wait for the one in flight instead of reaching the
+         * engine themselves.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Longest time a lookup waits for the one in flight before failing.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Settings of the per-brand Bloom filters rejecting lookups of products without prices.
+     */
+    @Getter
+    @Setter
+    public static class KnownProducts {
+
+        /**
+         * Whether lookups of unknown products are rejected before reaching the cache or the engine. Only takes
+         * effect when the change stream is followed, which keeps the filters current with the prices saved by
+         * other instances.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of products per brand the filters are sized for.
+         */
+        private long expectedProductsPerBrand = 500_000;
+
+        /**
+         * False positive probability of the filters while they hold no more than the expected products.
+         */
+        private double falsePositiveProbability = 0.01;
+
+        /**
+         * Interval between two rebuilds of the filters from the stored prices.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings of the local snapshot of the {@code in-memory} lookup engine, loaded at startup instead of the
+     * whole {@code prices} collection.
+     */
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        /**
+         * Whether snapshots are written and loaded at startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * File the snapshot is written to and loaded from.
+         */
+        private Path path = Path.of("prices.snapshot");
+
+        /**
+         * Interval between two snapshots; one is also written on shutdown.
+         */
+        private Duration interval = Duration.ofMinutes(10);
+
+        /**
+         * Whether every stored price is reloaded in the background after starting from a snapshot, picking up
+         * the changes and deletes made meanwhile. Ignored when the change stream is followed: it resumes from the
+         * position recorded in the snapshot, and every price is reloaded only if the snapshot has none.
+         */
+        private boolean reconcile = true;
+    }
+
+    /**
+     * Settings of the MongoDB collection holding the prices.
+     */
+    @Getter
+    @Setter
+    public static class Mongo {
+
+        /**
+         * Whether the indexes declared on the price documents are created at startup.
+         */
+        private boolean ensureIndexes = true;
+
+        /**
+         * Whether the explain plan of the effective price lookup is logged at startup.
+         */
+        private boolean explainLookup = true;
+
+        /**
+         * Maximum number of connections of the MongoDB connection pool. On virtual threads, also the maximum
+         * number of repository calls running at the same time.
+         */
+        private int maxPoolSize = 100;
+
+        /**
+         * Minimum number of connections the MongoDB connection pool keeps open, opened in the background from
+         * startup so the first requests do not pay for them.
+         */
+        private int minPoolSize = 10;
+
+        /**
+         * Time a repository call waits for a free connection on virtual threads before failing.
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Settings of the batch lookup endpoint.
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Maximum number of lookups accepted in a single batch; larger batches are rejected.
+         */
+        private int maxSize = 500;
+
+        /**
+         * Maximum size of the body of a batch, checked while it is read, before its lookups are deserialized;
+         * larger bodies are rejected. It is to be raised along with the maximum number of lookups.
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+    }
+
+    /**
+     * Settings of the pre-rendered JSON responses of resolved prices.
+     */
+    @Getter
+    @Setter
+    public static class Rendering {
+
+        /**
+         * Maximum number of rendered responses kept; each is also released once its price is no longer in use.
+         */
+        private long maximumSize = 100_000;
+    }
+
+    /**
+     * Settings of the streaming bulk ingestion of prices.
+     */
+    @Getter
+    @Setter
+    public static class Ingestion {
+
+        /**
+         * Number of prices written by each bulk insert.
+         */
+        private int batchSize = 1_000;
+
+        /**
+         * Maximum number of bulk inserts running at the same time; parsing waits while that many are in flight.
+         */
+        private int maxInFlightBatches = 4;
+    }
+
+    /**
+     * Settings of the streaming export of the catalog.
+     */
+    @Getter
+    @Setter
+    public static class Export {
+
+        /**
+         * Number of prices fetched from the database per cursor round trip.
+         */
+        private int batchSize = 1_000;
+
+        /**
+         * Longest time the streamed responses of the export and the price history may take to be written, instead
+         * of the 30 seconds servlet containers give asynchronous requests by default. Zero for no limit.
+         */
+        private Duration timeout = Duration.ofHours(1);
+    }
+
+    /**
+     * Settings of the HTTP caching of resolved prices.
+     */
+    @Getter
+    @Setter
+    public static class HttpCache {
+
+        /**
+         * Longest time a resolved price may be cached by clients and proxies, even if it applies for longer, which
+         * bounds how long they may miss a price written afterwards.
+         */
+        private Duration maxAge = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings of the listener applying the changes of the {@code prices} collection to the lookup engine.
+     */
+    @Getter
+    @Setter
+    public static class ChangeStream {
+
+        /**
+         * Whether the change stream is followed. Requires MongoDB to run as a replica set.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Identifier under which this instance stores its change stream position; the host name when not set.
+         */
+        private String nodeId;
+
+        /**
+         * Whether pre-images are enabled on the collection, so deletes can be applied without a full reload.
+         */
+        private boolean preImages = true;
+
+        /**
+         * Minimum interval between two writes of the change stream position.
+         */
+        private Duration tokenSaveInterval = Duration.ofSeconds(1);
+
+        /**
+         * Maximum time the stream waits for changes before checking whether it has been stopped.
+         */
+        private Duration maxAwaitTime = Duration.ofSeconds(1);
+
+        /**
+         * Time to wait before reopening the stream after an error.
+         */
+        private Duration retryDelay = Duration.ofSeconds(5);
+
+        /**
+         * Time the instance maintaining the timelines of the {@code timeline} lookup engine keeps the role
+         * without renewing it, before another instance takes over.
+         */
+        private Duration writerLease = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Settings of the warm-up run once the application has started and before it is reported ready.
+     */
+    @Getter
+    @Setter
+    public static class WarmUp {
+
+        /**
+         * Whether lookups are replayed against the application before it accepts traffic.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of lookups replayed.
+         */
+        private int requests = 10_000;
+
+        /**
+         * Number of lookups sent at the same time.
+         */
+        private int concurrency = 8;
+
+        /**
+         * Maximum duration of the warm-up; the application is reported ready when it runs out.
+         */
+        private Duration timeBudget = Duration.ofSeconds(60);
+
+        /**
+         * File of recorded lookups to replay, one {@code brandId,productId,date} line each, cycled through if
+         * shorter than the number of lookups. When not set, lookups of the stored products at the current time
+         * are generated.
+         */
+        private Path lookupsFile;
+    }
+
+    /**
+     * Settings of the cluster mode, in which every instance owns the brands of some partitions and routes point
+     * lookups of the other brands to their owners.
+     */
+    @Getter
+    @Setter
+    public static class Cluster {
+
+        /**
+         * Whether the brands are partitioned among the members; otherwise this instance serves every brand.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Base URL of this instance, as it appears in the member list.
+         */
+        private String self;
+
+        /**
+         * Base URLs of every member, this instance included.
+         */
+        private List<String> members = new ArrayList<>();
+
+        /**
+         * File listing the base URLs of every member, one per line, read at startup instead of {@code members};
+         * blank lines and lines starting with {@code #} are skipped.
+         */
+        private Path membersFile;
+
+        /**
+         * Number of partitions the brands are hashed into. Every member must use the same value.
+         */
+        private int partitions = 256;
+
+        /**
+         * Points of every member on the hash ring; more points spread the partitions more evenly.
+         */
+        private int virtualNodes = 64;
+
+        /**
+         * How lookups of brands owned by another member are answered: {@code forward} proxies them to the owner,
+         * {@code redirect} answers 307 (Temporary Redirect) with the owner's URL.
+         */
+        private String routing = "forward";
+
+        /**
+         * Longest time to wait for the owner when forwarding a lookup.
+         */
+        private Duration forwardTimeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Settings of the gRPC interface.
+     */
+    @Getter
+    @Setter
+    public static class Grpc {
+
+        /**
+         * Whether the gRPC server listens on {@code port}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Port the gRPC server listens on.
+         */
+        private int port = 9090;
+
+        /**
+         * Name of an in-process gRPC server to start as well, reachable from the same JVM only, e.g. by tests.
+         * Not started when not set.
+         */
+        private String inProcessName;
+
+        /**
+         * HTTP/2 flow control window of every call, in bytes: how much a call may send before the peer reads it.
+         */
+        private int flowControlWindow = 1_048_576;
+
+        /**
+         * Longest time calls in progress are given to complete when the application stops.
+         */
+        private Duration shutdownGracePeriod = Duration.ofSeconds(10);
+    }
+}
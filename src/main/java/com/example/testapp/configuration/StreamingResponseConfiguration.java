@@ -0,0 +1,31 @@
+package com.example.testapp.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Timeout of the asynchronous requests on the servlet stack, the streamed responses of the catalog export and the
+ * price history being the only ones. They are given {@code prices.export.timeout} to be written, rather than the
+ * container default, which cuts exports of large catalogs short.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StreamingResponseConfiguration implements WebMvcConfigurer {
+
+    private final PricesProperties pricesProperties;
+
+    public StreamingResponseConfiguration(PricesProperties pricesProperties) {
+        this.pricesProperties = pricesProperties;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        long timeout = pricesProperties.getExport().getTimeout().toMillis();
+        configurer.setDefaultTimeout(timeout > 0 ? timeout : -1);
+    }
+}
@@ -5,5 +5,33 @@ public class InditexConstants {
 
     public static final String PRICES_URL = "/prices";
 
+    public static final String PRICES_QUERY_PATH = "/query";
+
+    public static final String PRICES_BULK_PATH = "/bulk";
+
+    public static final String PRICES_HISTORY_PATH = "/history";
+
+    public static final String PRICES_EXPORT_PATH = "/export";
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+
+    public static final String CLUSTER_FORWARDED_BY_HEADER = "X-Prices-Forwarded-By";
+
     public static final String ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION = "No price found for date: %s id: %d and productId: %d";
+
+    public static final String ERROR_MESSAGE_BATCH_TOO_LARGE_EXCEPTION = "Batch of %d queries exceeds the maximum of %d";
+
+    public static final String ERROR_MESSAGE_BATCH_BODY_TOO_LARGE_EXCEPTION = "Batch body exceeds the maximum of %d bytes";
+
+    public static final String ERROR_MESSAGE_INVALID_RANGE_EXCEPTION = "Range start %s is after its end %s";
+
+    public static final String ERROR_MESSAGE_LOOKUP_TIMEOUT_EXCEPTION = "Lookup of id: %d and productId: %d timed out after %d ms";
+
+    public static final String ERROR_MESSAGE_LOOKUP_INTERRUPTED_EXCEPTION = "Lookup of id: %d and productId: %d was interrupted";
+
+    public static final String ERROR_MESSAGE_OWNER_UNREACHABLE = "Owner %s of brand id: %d could not be reached";
+
+    public static final String ERROR_MESSAGE_MISDIRECTED_LOOKUP = "Brand id: %d forwarded by %s is owned by %s";
 }
@@ -0,0 +1,109 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.exceptions.PriceBatchBodyTooLargeException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Caps the size of the body of the batch lookups, {@code prices.batch.max-body-size}, before their queries are
+ * deserialized. Bodies declaring a larger {@code Content-Length} are rejected without being read; the others are
+ * read through a stream failing once it goes past the limit, which covers chunked bodies. Both fail with a
+ * {@link PriceBatchBodyTooLargeException}, answered with 413 (Payload Too Large) like batches holding too many
+ * queries.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchBodyLimitAdvice extends RequestBodyAdviceAdapter {
+
+    private final long maxBytes;
+
+    public BatchBodyLimitAdvice(PricesProperties pricesProperties) {
+        this.maxBytes = pricesProperties.getBatch().getMaxBodySize().toBytes();
+    }
+
+    /**
+     * Only the bodies holding batch lookups are capped.
+     */
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return ResolvableType.forType(targetType).asCollection().resolveGeneric(0) == PriceQueryDto.class;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        if (inputMessage.getHeaders().getContentLength() > maxBytes) {
+            throw new PriceBatchBodyTooLargeException(maxBytes);
+        }
+        InputStream body = new LimitedInputStream(inputMessage.getBody(), maxBytes);
+        return new HttpInputMessage() {
+
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return inputMessage.getHeaders();
+            }
+        };
+    }
+
+    /**
+     * Stream failing with a {@link PriceBatchBodyTooLargeException} once more than the given number of bytes are
+     * read from it.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+            this.remaining = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                consume(1);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        private void consume(int bytes) {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new PriceBatchBodyTooLargeException(maxBytes);
+            }
+        }
+    }
+}
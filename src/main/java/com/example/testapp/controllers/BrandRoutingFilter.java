@@ -0,0 +1,169 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.exceptions.ErrorResponseWriter;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import com.example.testapp.services.cluster.ClusterClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes the point lookups of {@code GET /prices} to the cluster member owning their brand, as told by the
+ * {@link BrandPartitioner}. Lookups of the brands owned by this instance go on to the controller; the others are
+ * forwarded to their owner through the {@link ClusterClient} and its response relayed, or redirected to it with 307 (Temporary Redirect), as set
+ * with {@code prices.cluster.routing}.
+ *
+ * <p>Forwarded lookups carry the {@value InditexConstants#CLUSTER_FORWARDED_BY_HEADER} header, and are never
+ * forwarded again: a member receiving one for a brand it does not own, because the members disagree on the member
+ * list, answers 503 (Service Unavailable) rather than a lookup of a brand it holds no prices of.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "prices.cluster", name = "enabled", havingValue = "true")
+public class BrandRoutingFilter extends OncePerRequestFilter {
+
+    static final String REDIRECT = "redirect";
+
+    private static final String BRAND_ID_PARAMETER = "brandId";
+
+    private static final List<String> FORWARDED_REQUEST_HEADERS =
+            List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.IF_NONE_MATCH);
+
+    private static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY);
+
+    private static final ErrorResponseWriter ERROR_RESPONSE_WRITER = new ErrorResponseWriter();
+
+    private final BrandPartitioner brandPartitioner;
+    private final ClusterClient clusterClient;
+    private final boolean redirect;
+    private final Counter redirected;
+    private final Counter forwarded;
+    private final Counter failed;
+    private final Counter misdirected;
+
+    public BrandRoutingFilter(BrandPartitioner brandPartitioner, ClusterClient clusterClient, PricesProperties pricesProperties,
+                              MeterRegistry meterRegistry) {
+        this.brandPartitioner = brandPartitioner;
+        this.clusterClient = clusterClient;
+        this.redirect = REDIRECT.equals(pricesProperties.getCluster().getRouting());
+        this.redirected = routedCounter(meterRegistry, "redirected");
+        this.forwarded = routedCounter(meterRegistry, "forwarded");
+        this.failed = routedCounter(meterRegistry, "failed");
+        this.misdirected = routedCounter(meterRegistry, "misdirected");
+    }
+
+    /**
+     * Only point lookups are routed; batch lookups, history, export and writes are served by any member.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !InditexConstants.PRICES_URL.equals(request.getServletPath());
+    }
+
+    /**
+     * Lets lookups of owned brands, and those without a valid brand, which the controller rejects, go on to the
+     * controller, and routes the others to their owner.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long brandId;
+        try {
+            brandId = Long.parseLong(request.getParameter(BRAND_ID_PARAMETER));
+        } catch (NumberFormatException ex) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (brandPartitioner.owns(brandId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String owner = brandPartitioner.ownerOf(brandId);
+        String forwardedBy = request.getHeader(InditexConstants.CLUSTER_FORWARDED_BY_HEADER);
+        if (forwardedBy != null) {
+            misdirected.increment();
+            writeError(response, request, HttpStatus.SERVICE_UNAVAILABLE,
+                    String.format(InditexConstants.ERROR_MESSAGE_MISDIRECTED_LOOKUP, brandId, forwardedBy, owner));
+        } else if (redirect) {
+            redirected.increment();
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, ownerUri(owner, request));
+        } else {
+            forward(owner, brandId, request, response);
+        }
+    }
+
+    private void forward(String owner, long brandId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                headers.put(header, value);
+            }
+        }
+        HttpResponse<byte[]> ownerResponse;
+        try {
+            ownerResponse = clusterClient.get(owner, pathAndQuery(request), headers);
+        } catch (IOException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failed.increment();
+            log.debug("Could not forward the lookup of brand {} to {}: {}", brandId, owner, ex.getMessage());
+            writeError(response, request, ex instanceof HttpTimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY,
+                    String.format(InditexConstants.ERROR_MESSAGE_OWNER_UNREACHABLE, owner, brandId));
+            return;
+        }
+        forwarded.increment();
+        response.setStatus(ownerResponse.statusCode());
+        for (String header : FORWARDED_RESPONSE_HEADERS) {
+            ownerResponse.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        response.getOutputStream().write(ownerResponse.body());
+    }
+
+    private static String ownerUri(String owner, HttpServletRequest request) {
+        return owner + pathAndQuery(request);
+    }
+
+    private static String pathAndQuery(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return request.getRequestURI() + (query == null ? "" : "?" + query);
+    }
+
+    private static void writeError(HttpServletResponse response, HttpServletRequest request, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(ERROR_RESPONSE_WRITER.write(status, message, request.getRequestURI()));
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("prices.cluster.routed")
+                .description("Lookups of brands owned by another member")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
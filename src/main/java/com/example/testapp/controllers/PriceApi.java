@@ -2,21 +2,31 @@ package com.example.testapp.controllers;
 
 import com.example.testapp.constants.InditexConstants;
 import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceIngestionReportDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
 import com.example.testapp.exceptions.ErrorResponse;
 import com.example.testapp.model.Price;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -78,23 +88,96 @@ public interface PriceApi {
     @PostMapping
     ResponseEntity<Void> createPrices(@RequestBody final List<Price> prices);
 
+    /**
+     * Stores a stream of prices, provided as newline-delimited JSON objects or as a JSON array of {@link Price}
+     * objects.
+     *
+     * <p>Unlike {@link #createPrices(List)}, the body is never bound as a whole: prices are parsed one at a time
+     * and written in fixed-size bulk inserts, so files of any size can be loaded with constant memory. Prices
+     * that cannot be read or stored are counted as failed without aborting the load.</p>
+     *
+     * @param prices the request body.
+     * @return a {@link ResponseEntity} with a status of 201 (Created) and the number of prices inserted and failed, or
+     * a status of 400 (Bad Request) and the prices stored before the body turned out not to be well-formed JSON.
+     * @throws IOException if the request body cannot be read.
+     */
+    @Operation(
+            summary = "Stores a stream of prices",
+            description =
+                    "This method stores prices provided as newline-delimited JSON (application/x-ndjson) or as a JSON " +
+                            "array, parsing and writing them in batches as they are received. It reports how many " +
+                            "prices were inserted and how many failed. When the body is not well-formed JSON, the " +
+                            "prices read before the error are still stored, and reported along with it.",
+            method = "POST",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = {
+                            @Content(
+                                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = Price.class)),
+                            @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = Price.class)))
+                    }))
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "CREATED",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = PriceIngestionReportDto.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "BAD REQUEST",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(oneOf = {PriceIngestionReportDto.class, ErrorResponse.class}))
+                            }),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "INTERNAL SERVER ERROR",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            })
+            })
+    @PostMapping(value = InditexConstants.PRICES_BULK_PATH,
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<PriceIngestionReportDto> ingestPrices(final InputStream prices) throws IOException;
+
     /**
      * Retrieves the price for a given brand ID, product ID, and date.
      *
      * <p>This method fetches the price that applies to a specific brand and product on a given date.
      * All parameters (brand ID, product ID, and date) are required and must be valid.</p>
      *
+     * <p>The response tells until when the price applies, in its {@code validUntil} field, and may be cached
+     * until then, within a configured maximum age. It is tagged with an {@code ETag}, so clients can revalidate it
+     * with {@code If-None-Match}.</p>
+     *
+     * <p>The price is encoded as JSON unless the {@code Accept} header prefers CBOR, Smile or Protocol Buffers,
+     * which are smaller and cheaper to write for service-to-service calls.</p>
+     *
      * @param date      the date and time for which the price is being requested, in the format 'YYYY/MM/DDTHH:MM:SS'.
      * @param productId the ID of the product for which the price is being requested. Must be a positive number.
      * @param brandId   the ID of the brand for which the price is being requested. Must be a positive number.
-     * @return a {@link ResponseEntity} containing the {@link PriceDto} if the price is found, or an appropriate
-     * error response if not.
+     * @param accept    the media types accepted by the client, if any.
+     * @return a {@link ResponseEntity} containing the encoded {@link PriceDto} if the price is found, 304 (Not
+     * Modified) if it matches the entity tag sent, or an appropriate error response if not. The response is
+     * rendered once per price and encoding and written as is.
      */
     @Operation(
             summary = "Retrieves a price for a given brand ID, product ID, and date.",
             description =
                     "This method retrieves a price for a given brand ID, product ID, and date into the system. " +
-                            "All parameters are required. Date should be in ISO 8601 format (YYYY-MM-DDTHH:MM:SS).",
+                            "All parameters are required. Date should be in ISO 8601 format (YYYY-MM-DDTHH:MM:SS). " +
+                            "The price is returned as JSON, or as CBOR, Smile or Protocol Buffers when preferred " +
+                            "through the Accept header.",
             method = "POST")
     @ApiResponses(
             value = {
@@ -104,8 +187,16 @@ public interface PriceApi {
                             content = {
                                     @Content(
                                             mediaType = MediaType.APPLICATION_JSON_VALUE,
-                                            schema = @Schema(implementation = PriceDto.class))
+                                            schema = @Schema(implementation = PriceDto.class)),
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                                            schema = @Schema(implementation = PriceDto.class)),
+                                    @Content(
+                                            mediaType = InditexConstants.APPLICATION_SMILE_VALUE,
+                                            schema = @Schema(implementation = PriceDto.class)),
+                                    @Content(mediaType = InditexConstants.APPLICATION_PROTOBUF_VALUE)
                             }),
+                    @ApiResponse(responseCode = "304", description = "NOT MODIFIED"),
                     @ApiResponse(
                             responseCode = "400",
                             description = "BAD REQUEST",
@@ -131,9 +222,183 @@ public interface PriceApi {
                                             schema = @Schema(implementation = ErrorResponse.class))
                             })
             })
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    ResponseEntity<PriceDto> getPriceByDate(@RequestParam(value = "date") final @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
-                                            @RequestParam(value = "productId") @Positive final Long productId,
-                                            @RequestParam(value = "brandId") @Positive final Long brandId);
-}
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            InditexConstants.APPLICATION_SMILE_VALUE, InditexConstants.APPLICATION_PROTOBUF_VALUE})
+    ResponseEntity<byte[]> getPriceByDate(@RequestParam(value = "date") final @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+                                          @RequestParam(value = "productId") @Positive final Long productId,
+                                          @RequestParam(value = "brandId") @Positive final Long brandId,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept);
 
+    /**
+     * Retrieves the history of the effective prices of a product over a date range.
+     *
+     * <p>The history is the ordered sequence of the segments during which a single price applies, with overlapping
+     * prices already resolved by priority, each written as a {@link PriceDto} on its own line as soon as it is
+     * settled. Segments are clipped to the range and stretches without price are left out, so an empty body means
+     * no price applies during the whole range.</p>
+     *
+     * @param from      the first date and time of the range, in the format 'YYYY-MM-DDTHH:MM:SS'.
+     * @param to        the last date and time of the range, in the format 'YYYY-MM-DDTHH:MM:SS'.
+     * @param productId the ID of the product. Must be a positive number.
+     * @param brandId   the ID of the brand. Must be a positive number.
+     * @return a {@link ResponseEntity} streaming the effective price segments as newline-delimited JSON.
+     */
+    @Operation(
+            summary = "Retrieves the effective prices of a product over a date range.",
+            description =
+                    "This method streams every effective price of a product between two dates as newline-delimited " +
+                            "JSON, one line per stretch of time during which a single price applies, sorted by start " +
+                            "date. Dates should be in ISO 8601 format (YYYY-MM-DDTHH:MM:SS).",
+            method = "GET")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "OK",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                            schema = @Schema(implementation = PriceDto.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "BAD REQUEST",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "INTERNAL SERVER ERROR",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            })
+            })
+    @GetMapping(value = InditexConstants.PRICES_HISTORY_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> getPriceHistory(@RequestParam(value = "from") final @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                          @RequestParam(value = "to") final @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                          @RequestParam(value = "productId") @Positive final Long productId,
+                                                          @RequestParam(value = "brandId") @Positive final Long brandId);
+
+    /**
+     * Exports the stored prices, as newline-delimited JSON objects in the same format {@link #ingestPrices} reads.
+     *
+     * <p>Prices are written as they are read from a database cursor, sorted by brand ID, product ID and start date,
+     * so the whole catalog can be exported with constant memory. The body is compressed with gzip when the client
+     * accepts it.</p>
+     *
+     * @param brandId        the ID of the brand to export the prices of, or none for the whole catalog. Must be a
+     *                       positive number.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return a {@link ResponseEntity} streaming the prices as newline-delimited JSON.
+     */
+    @Operation(
+            summary = "Exports the stored prices",
+            description =
+                    "This method streams every stored price, or the prices of a brand, as newline-delimited JSON " +
+                            "sorted by brand, product and start date. The body is compressed with gzip when the " +
+                            "request accepts it (Accept-Encoding: gzip).",
+            method = "GET")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "OK",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                            schema = @Schema(implementation = Price.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "BAD REQUEST",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "INTERNAL SERVER ERROR",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            })
+            })
+    @GetMapping(value = InditexConstants.PRICES_EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportPrices(@RequestParam(value = "brandId", required = false) @Positive final Long brandId,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding);
+
+    /**
+     * Retrieves the prices of a batch of brand ID, product ID, and date lookups.
+     *
+     * <p>The whole batch is resolved at once, with a few grouped queries instead of one per lookup. Every lookup
+     * gets a result in the same position as in the request, telling whether a price applies and which one, so
+     * lookups without price do not fail the batch.</p>
+     *
+     * <p>The results are encoded as JSON unless the {@code Accept} header prefers CBOR, Smile or Protocol
+     * Buffers.</p>
+     *
+     * @param queries the lookups, each with a positive brand ID and product ID and a date.
+     * @return a {@link ResponseEntity} containing a {@link PriceQueryResultDto} for every lookup.
+     */
+    @Operation(
+            summary = "Retrieves the prices of a batch of brand ID, product ID, and date lookups.",
+            description =
+                    "This method resolves a batch of lookups at once. Every lookup gets a result in the same position, " +
+                            "flagging whether a price was found. Dates should be in ISO 8601 format " +
+                            "(YYYY-MM-DDTHH:MM:SS). Batches larger than the configured maximum are rejected. The " +
+                            "results are returned as JSON, or as CBOR, Smile or Protocol Buffers when preferred " +
+                            "through the Accept header.",
+            method = "POST")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "OK",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            array = @ArraySchema(schema = @Schema(implementation = PriceQueryResultDto.class))),
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                                            array = @ArraySchema(schema = @Schema(implementation = PriceQueryResultDto.class))),
+                                    @Content(
+                                            mediaType = InditexConstants.APPLICATION_SMILE_VALUE,
+                                            array = @ArraySchema(schema = @Schema(implementation = PriceQueryResultDto.class))),
+                                    @Content(mediaType = InditexConstants.APPLICATION_PROTOBUF_VALUE)
+                            }),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "BAD REQUEST",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "413",
+                            description = "PAYLOAD TOO LARGE",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            }),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "INTERNAL SERVER ERROR",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            schema = @Schema(implementation = ErrorResponse.class))
+                            })
+            })
+    @PostMapping(value = InditexConstants.PRICES_QUERY_PATH, consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    InditexConstants.APPLICATION_SMILE_VALUE, InditexConstants.APPLICATION_PROTOBUF_VALUE})
+    ResponseEntity<List<PriceQueryResultDto>> queryPrices(@RequestBody @NotNull final List<@Valid @NotNull PriceQueryDto> queries);
+}
@@ -1,24 +1,58 @@
 package com.example.testapp.controllers;
 
+import com.example.testapp.configuration.PricesProperties;
 import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceIngestionReportDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
 import com.example.testapp.model.Price;
+import com.example.testapp.services.PricesIngestionService;
 import com.example.testapp.services.PricesService;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.RenderedPrice;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Builder
 @AllArgsConstructor
 public class PriceController implements PriceApi {
 
+    private static final String GZIP = "gzip";
+
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
     private final PricesService pricesService;
 
+    private final PricesIngestionService pricesIngestionService;
+
+    private final ObjectMapper objectMapper;
+
+    private final PricesProperties pricesProperties;
+
     /**
      * {@inheritDoc }
      */
@@ -32,9 +66,119 @@ public class PriceController implements PriceApi {
      * {@inheritDoc }
      */
     @Override
-    public ResponseEntity<PriceDto> getPriceByDate(LocalDateTime date, Long productId, Long brandId) {
-        return new ResponseEntity<>(pricesService.getPriceByBrandIdAndProductIdAndDate(date, brandId, productId), HttpStatus.OK);
+    public ResponseEntity<PriceIngestionReportDto> ingestPrices(InputStream prices) throws IOException {
+        PriceIngestionReportDto report = pricesIngestionService.ingest(prices);
+        return new ResponseEntity<>(report, report.getError() == null ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Conditional requests are answered by Spring MVC from the entity tag, with 304 (Not Modified) and no
+     * body.</p>
+     */
+    @Override
+    public ResponseEntity<byte[]> getPriceByDate(LocalDateTime date, Long productId, Long brandId, String accept) {
+        PriceEncoding encoding = PriceEncoding.negotiate(accept);
+        RenderedPrice price = pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(date, brandId, productId, encoding);
+        return ResponseEntity.ok()
+                .contentType(encoding.mediaType())
+                .eTag(price.eTag())
+                .cacheControl(CacheControl.maxAge(maxAge(date, price.validUntil())).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(price.body());
     }
 
+    /**
+     * {@inheritDoc }
+     * <p>The query is started before the response is committed, so invalid ranges and database failures are still
+     * answered with an error status.</p>
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> getPriceHistory(LocalDateTime from, LocalDateTime to, Long productId, Long brandId) {
+        Stream<PriceDto> segments = pricesService.getPriceHistory(from, to, brandId, productId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(output -> writeNdjson(segments, PriceDto.class, output));
+    }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportPrices(Long brandId, String acceptEncoding) {
+        Stream<Price> prices = pricesService.exportPrices(brandId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(acceptEncoding)) {
+            return response.body(output -> writeNdjson(prices, Price.class, output));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .body(output -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+                    writeNdjson(prices, Price.class, compressed);
+                    compressed.finish();
+                });
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ResponseEntity<List<PriceQueryResultDto>> queryPrices(List<PriceQueryDto> queries) {
+        return new ResponseEntity<>(pricesService.getPrices(queries), HttpStatus.OK);
+    }
+
+    /**
+     * Time the response of a lookup at the given date may be cached for: until the price may stop applying,
+     * within {@code prices.http-cache.max-age}.
+     */
+    private Duration maxAge(LocalDateTime date, LocalDateTime validUntil) {
+        Duration maxAge = pricesProperties.getHttpCache().getMaxAge();
+        if (validUntil == null) {
+            return maxAge;
+        }
+        Duration remaining = Duration.between(date, validUntil);
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(maxAge) < 0 ? remaining : maxAge;
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header lists gzip without disabling it with a zero quality.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            if (parameters[0].trim().equalsIgnoreCase(GZIP)) {
+                return parameters.length == 1 || !parameters[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes every element of a stream as a JSON object followed by a newline, flushing only when the buffer is
+     * full, and closes the stream.
+     */
+    private <T> void writeNdjson(Stream<T> values, Class<T> type, OutputStream output) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (values; JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<T> iterator = values.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+            }
+            generator.writeRaw('\n');
+        }
+    }
 }
@@ -0,0 +1,358 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.exceptions.InvalidPriceRangeException;
+import com.example.testapp.exceptions.PriceLookupInterruptedException;
+import com.example.testapp.exceptions.PriceLookupTimeoutException;
+import com.example.testapp.exceptions.PriceNotFoundException;
+import com.example.testapp.protobuf.ExportPricesRequest;
+import com.example.testapp.protobuf.GetPriceRequest;
+import com.example.testapp.protobuf.LookupRequest;
+import com.example.testapp.protobuf.LookupResponse;
+import com.example.testapp.protobuf.PriceHistoryRequest;
+import com.example.testapp.protobuf.PriceLookupServiceGrpc;
+import com.example.testapp.protobuf.PriceMessage;
+import com.example.testapp.protobuf.RenderedLookupResponse;
+import com.example.testapp.protobuf.StoredPriceMessage;
+import com.example.testapp.services.PricesService;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import com.example.testapp.services.cluster.ClusterClient;
+import com.example.testapp.services.converters.PriceDtoToProtobufMapper;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.lookup.PriceTimes;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.BindableService;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * gRPC interface of {@code price_lookup.proto}, served next to the REST {@link PriceApi} on the same
+ * {@link PricesService}. Prices are sent as the Protocol Buffers rendering of the REST responses, cached per price
+ * like them, and written out as they are: {@code GetPrice} and {@code LookupStream} are bound with marshallers taking
+ * the cached bytes, so they are never parsed again.
+ *
+ * <p>In cluster mode, the lookups of brands owned by another member are forwarded to it through the
+ * {@link ClusterClient}, as {@code GET /prices} lookups, and its rendering relayed, within the deadline of the call.</p>
+ *
+ * <p>Streaming calls honor flow control: the history and the export are read from their cursor only while the
+ * client keeps up with the responses, and pipelined lookups are only read as fast as their responses are. A call
+ * cancelled by the client, or past its deadline, stops its work and closes its cursor.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceGrpcService implements PriceLookupServiceGrpc.AsyncService, BindableService {
+
+    private static final MethodDescriptor.Marshaller<byte[]> RENDERED_PRICE = new MethodDescriptor.Marshaller<>() {
+
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException ex) {
+                throw Status.INTERNAL.withCause(ex).asRuntimeException();
+            }
+        }
+    };
+
+    private final PricesService pricesService;
+    private final BrandPartitioner brandPartitioner;
+    private final ClusterClient clusterClient;
+
+    public PriceGrpcService(PricesService pricesService, BrandPartitioner brandPartitioner, ObjectProvider<ClusterClient> clusterClient) {
+        this.pricesService = pricesService;
+        this.brandPartitioner = brandPartitioner;
+        this.clusterClient = clusterClient.getIfAvailable();
+    }
+
+    /**
+     * Binds the calls of the generated service, replacing {@code GetPrice} and {@code LookupStream} by their
+     * versions writing the cached renderings.
+     */
+    @Override
+    public ServerServiceDefinition bindService() {
+        MethodDescriptor<GetPriceRequest, PriceMessage> getPrice = PriceLookupServiceGrpc.getGetPriceMethod();
+        MethodDescriptor<LookupRequest, LookupResponse> lookupStream = PriceLookupServiceGrpc.getLookupStreamMethod();
+        ServerServiceDefinition.Builder service = ServerServiceDefinition.builder(PriceLookupServiceGrpc.SERVICE_NAME);
+        for (ServerMethodDefinition<?, ?> method : PriceLookupServiceGrpc.bindService(this).getMethods()) {
+            String name = method.getMethodDescriptor().getFullMethodName();
+            if (!name.equals(getPrice.getFullMethodName()) && !name.equals(lookupStream.getFullMethodName())) {
+                service.addMethod(method);
+            }
+        }
+        service.addMethod(getPrice.toBuilder(ProtoUtils.marshaller(GetPriceRequest.getDefaultInstance()), RENDERED_PRICE).build(),
+                ServerCalls.asyncUnaryCall(this::getRenderedPrice));
+        service.addMethod(lookupStream.toBuilder(ProtoUtils.marshaller(LookupRequest.getDefaultInstance()),
+                        ProtoUtils.marshaller(RenderedLookupResponse.getDefaultInstance())).build(),
+                ServerCalls.asyncBidiStreamingCall(this::lookupRenderedStream));
+        return service.build();
+    }
+
+    /**
+     * Answers {@code GetPrice} with the bytes of the {@link PriceMessage}.
+     */
+    private void getRenderedPrice(GetPriceRequest request, StreamObserver<byte[]> responseObserver) {
+        if (Context.current().isCancelled()) {
+            responseObserver.onError(Status.CANCELLED.withDescription("Call cancelled before the lookup").asRuntimeException());
+            return;
+        }
+        try {
+            byte[] price = find(request.getBrandId(), request.getProductId(), request.getDate());
+            if (price == null) {
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("No price found for brand " + request.getBrandId() + " and product " + request.getProductId())
+                        .asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(price);
+            responseObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex));
+        }
+    }
+
+    /**
+     * Answers {@code LookupStream} with {@link RenderedLookupResponse}, read by clients as {@link LookupResponse}.
+     * Lookups are requested one at a time, and the next one only once the response can be sent without buffering,
+     * so a client that stops reading stops being read.
+     */
+    private StreamObserver<LookupRequest> lookupRenderedStream(StreamObserver<RenderedLookupResponse> responseObserver) {
+        ServerCallStreamObserver<RenderedLookupResponse> responses = (ServerCallStreamObserver<RenderedLookupResponse>) responseObserver;
+        responses.disableAutoRequest();
+        OnReadyRequester onReady = new OnReadyRequester(responses);
+        responses.setOnReadyHandler(onReady);
+        return new StreamObserver<>() {
+
+            @Override
+            public void onNext(LookupRequest request) {
+                if (responses.isCancelled()) {
+                    return;
+                }
+                try {
+                    byte[] price = find(request.getBrandId(), request.getProductId(), request.getDate());
+                    RenderedLookupResponse.Builder response = RenderedLookupResponse.newBuilder()
+                            .setId(request.getId())
+                            .setFound(price != null);
+                    if (price != null) {
+                        response.setPrice(UnsafeByteOperations.unsafeWrap(price));
+                    }
+                    responses.onNext(response.build());
+                } catch (RuntimeException ex) {
+                    responses.onError(toStatus(ex));
+                    return;
+                }
+                if (responses.isReady()) {
+                    responses.request(1);
+                } else {
+                    onReady.wasReady = false;
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("Lookup stream closed by the client: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                responses.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void getPriceHistory(PriceHistoryRequest request, StreamObserver<PriceMessage> responseObserver) {
+        try {
+            checkPositive(request.getBrandId(), "brand_id");
+            checkPositive(request.getProductId(), "product_id");
+            stream(pricesService.getPriceHistory(PriceTimes.toLocalDateTime(request.getFrom()), PriceTimes.toLocalDateTime(request.getTo()),
+                    request.getBrandId(), request.getProductId()), PriceDtoToProtobufMapper::toMessage, responseObserver);
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex));
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void exportPrices(ExportPricesRequest request, StreamObserver<StoredPriceMessage> responseObserver) {
+        try {
+            Long brandId = request.hasBrandId() ? request.getBrandId() : null;
+            if (brandId != null) {
+                checkPositive(brandId, "brand_id");
+            }
+            stream(pricesService.exportPrices(brandId), PriceDtoToProtobufMapper::toMessage, responseObserver);
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex));
+        }
+    }
+
+    /**
+     * Looks a price up in its Protocol Buffers rendering, on this instance if it owns the brand or else on the owner.
+     *
+     * @return the bytes of the {@link PriceMessage}, or {@code null} when no price applies
+     */
+    private byte[] find(long brandId, long productId, long date) {
+        checkPositive(brandId, "brand_id");
+        checkPositive(productId, "product_id");
+        if (!brandPartitioner.owns(brandId)) {
+            return forward(brandId, productId, date);
+        }
+        try {
+            return pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(PriceTimes.toLocalDateTime(date), brandId, productId,
+                    PriceEncoding.PROTOBUF).body();
+        } catch (PriceNotFoundException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Forwards a lookup to the owner of its brand, waiting for it no longer than the deadline of the call.
+     */
+    private byte[] forward(long brandId, long productId, long date) {
+        String owner = brandPartitioner.ownerOf(brandId);
+        String pathAndQuery = InditexConstants.PRICES_URL + "?date=" + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(PriceTimes.toLocalDateTime(date))
+                + "&productId=" + productId + "&brandId=" + brandId;
+        Map<String, String> headers = Map.of(HttpHeaders.ACCEPT, InditexConstants.APPLICATION_PROTOBUF_VALUE);
+        Deadline deadline = Context.current().getDeadline();
+        HttpResponse<byte[]> response;
+        try {
+            if (deadline == null) {
+                response = clusterClient.get(owner, pathAndQuery, headers);
+            } else if (deadline.isExpired()) {
+                throw Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded before forwarding the lookup").asRuntimeException();
+            } else {
+                response = clusterClient.get(owner, pathAndQuery, headers, Duration.ofNanos(deadline.timeRemaining(TimeUnit.NANOSECONDS)));
+            }
+        } catch (IOException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw (ex instanceof HttpTimeoutException ? Status.DEADLINE_EXCEEDED : Status.UNAVAILABLE)
+                    .withDescription(String.format(InditexConstants.ERROR_MESSAGE_OWNER_UNREACHABLE, owner, brandId))
+                    .asRuntimeException();
+        }
+        if (response.statusCode() == HttpStatus.NOT_FOUND.value()) {
+            return null;
+        }
+        if (response.statusCode() != HttpStatus.OK.value()) {
+            throw Status.UNAVAILABLE
+                    .withDescription("Owner " + owner + " of brand " + brandId + " answered " + response.statusCode())
+                    .asRuntimeException();
+        }
+        return response.body();
+    }
+
+    /**
+     * Sends the elements of the source as the client is ready to receive them, from the handler run by gRPC every
+     * time the call becomes ready, and closes the source once sent, on failure or on cancellation.
+     */
+    private static <T, R> void stream(Stream<T> source, Function<T, R> mapper, StreamObserver<R> responseObserver) {
+        ServerCallStreamObserver<R> responses = (ServerCallStreamObserver<R>) responseObserver;
+        Iterator<T> iterator = source.iterator();
+        boolean[] done = {false};
+        responses.setOnCancelHandler(source::close);
+        responses.setOnReadyHandler(() -> {
+            try {
+                while (!done[0] && responses.isReady() && !responses.isCancelled()) {
+                    if (!iterator.hasNext()) {
+                        done[0] = true;
+                        source.close();
+                        responses.onCompleted();
+                        return;
+                    }
+                    responses.onNext(mapper.apply(iterator.next()));
+                }
+            } catch (RuntimeException ex) {
+                done[0] = true;
+                source.close();
+                responses.onError(toStatus(ex));
+            }
+        });
+    }
+
+    private static void checkPositive(long id, String field) {
+        if (id <= 0) {
+            throw Status.INVALID_ARGUMENT.withDescription(field + " must be positive").asRuntimeException();
+        }
+    }
+
+    /**
+     * Maps failures to the status codes matching the responses of the REST API.
+     */
+    private static StatusRuntimeException toStatus(RuntimeException ex) {
+        if (ex instanceof StatusRuntimeException status) {
+            return status;
+        }
+        if (ex instanceof InvalidPriceRangeException) {
+            return Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof PriceLookupTimeoutException || ex instanceof DataAccessResourceFailureException) {
+            return Status.UNAVAILABLE.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof PriceLookupInterruptedException) {
+            return Status.CANCELLED.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        log.error("Unexpected error", ex);
+        return Status.INTERNAL.withDescription(ex.getMessage()).asRuntimeException();
+    }
+
+    /**
+     * Requests the next lookup when the call becomes ready again after the client fell behind.
+     */
+    private static final class OnReadyRequester implements Runnable {
+
+        private final ServerCallStreamObserver<?> responses;
+        private boolean wasReady;
+
+        OnReadyRequester(ServerCallStreamObserver<?> responses) {
+            this.responses = responses;
+        }
+
+        @Override
+        public void run() {
+            if (responses.isReady() && !wasReady) {
+                wasReady = true;
+                responses.request(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.exceptions.PriceBatchBodyTooLargeException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the size of the body of the batch lookups on the reactive stack, {@code prices.batch.max-body-size}, like
+ * {@link BatchBodyLimitAdvice} does on the servlet stack. The body fails with a
+ * {@link PriceBatchBodyTooLargeException} as soon as it declares or goes past a larger size, while it is decoded,
+ * so the error reaches the exception handler of the controller and is answered with 413 (Payload Too Large).
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBatchBodyLimitFilter implements WebFilter {
+
+    private static final String PRICES_QUERY_URL = InditexConstants.PRICES_URL + InditexConstants.PRICES_QUERY_PATH;
+
+    private final long maxBytes;
+
+    public ReactiveBatchBodyLimitFilter(PricesProperties pricesProperties) {
+        this.maxBytes = pricesProperties.getBatch().getMaxBodySize().toBytes();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST || !PRICES_QUERY_URL.equals(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().request(new ServerHttpRequestDecorator(request) {
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                if (getHeaders().getContentLength() > maxBytes) {
+                    return Flux.error(new PriceBatchBodyTooLargeException(maxBytes));
+                }
+                AtomicLong remaining = new AtomicLong(maxBytes);
+                return super.getBody().handle((buffer, sink) -> {
+                    if (remaining.addAndGet(-buffer.readableByteCount()) < 0) {
+                        DataBufferUtils.release(buffer);
+                        sink.error(new PriceBatchBodyTooLargeException(maxBytes));
+                    } else {
+                        sink.next(buffer);
+                    }
+                });
+            }
+        }).build());
+    }
+}
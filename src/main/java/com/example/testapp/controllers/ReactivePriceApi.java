@@ -0,0 +1,63 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.model.Price;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking variant of {@link PriceApi}, served when the application runs on WebFlux (the {@code reactive}
+ * profile). It exposes the same paths, parameters, validation and error responses, returning {@code Mono}s
+ * instead of blocking the calling thread while MongoDB answers.
+ */
+@RequestMapping(value = InditexConstants.PRICES_URL)
+@RestController
+@Validated
+public interface ReactivePriceApi {
+
+    /**
+     * Saves a list of prices into the system, like {@link PriceApi#createPrices(List)}.
+     *
+     * @param prices a list of {@link Price} objects to be saved.
+     * @return a {@code Mono} emitting a {@link ResponseEntity} with a status of 201 (Created) once they are stored.
+     */
+    @PostMapping
+    Mono<ResponseEntity<Void>> createPrices(@RequestBody final List<Price> prices);
+
+    /**
+     * Retrieves the prices of a batch of brand ID, product ID, and date lookups, like
+     * {@link PriceApi#queryPrices(List)}.
+     *
+     * @param queries the lookups, each with a positive brand ID and product ID and a date.
+     * @return a {@code Mono} emitting a {@link ResponseEntity} containing a {@link PriceQueryResultDto} for every lookup.
+     */
+    @PostMapping(value = InditexConstants.PRICES_QUERY_PATH, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<List<PriceQueryResultDto>>> queryPrices(@RequestBody @NotNull final List<@Valid @NotNull PriceQueryDto> queries);
+
+    /**
+     * Retrieves the price for a given brand ID, product ID, and date, like
+     * {@link PriceApi#getPriceByDate(LocalDateTime, Long, Long)}.
+     *
+     * @param date      the date and time for which the price is being requested, in ISO 8601 format.
+     * @param productId the ID of the product for which the price is being requested. Must be a positive number.
+     * @param brandId   the ID of the brand for which the price is being requested. Must be a positive number.
+     * @return a {@code Mono} emitting a {@link ResponseEntity} containing the {@link PriceDto}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    Mono<ResponseEntity<PriceDto>> getPriceByDate(@RequestParam(value = "date") final @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+                                                  @RequestParam(value = "productId") @Positive final Long productId,
+                                                  @RequestParam(value = "brandId") @Positive final Long brandId);
+}
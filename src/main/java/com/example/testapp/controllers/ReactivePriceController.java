@@ -0,0 +1,53 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.model.Price;
+import com.example.testapp.services.ReactivePricesService;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Builder
+@AllArgsConstructor
+public class ReactivePriceController implements ReactivePriceApi {
+
+    private final ReactivePricesService reactivePricesService;
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<ResponseEntity<Void>> createPrices(List<Price> prices) {
+        return reactivePricesService.addPrices(prices)
+                .then(Mono.fromSupplier(() -> new ResponseEntity<>(HttpStatus.CREATED)));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<ResponseEntity<List<PriceQueryResultDto>>> queryPrices(List<PriceQueryDto> queries) {
+        return reactivePricesService.getPrices(queries)
+                .map(results -> new ResponseEntity<>(results, HttpStatus.OK));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<ResponseEntity<PriceDto>> getPriceByDate(LocalDateTime date, Long productId, Long brandId) {
+        return reactivePricesService.getPriceByBrandIdAndProductIdAndDate(date, brandId, productId)
+                .map(price -> new ResponseEntity<>(price, HttpStatus.OK));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.testapp.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -32,4 +33,9 @@ public class PriceDto {
     @Schema(description = "Retail price, including the ISO currency symbol", example = "35.95€")
     private String finalPrice;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Date time from which the price may stop applying, because it ends or another one overrides it. " +
+            "Absent when unknown or when the price applies for good", example = "2020-06-15T16:00:00")
+    private LocalDateTime validUntil;
+
 }
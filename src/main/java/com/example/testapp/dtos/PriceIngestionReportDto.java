@@ -0,0 +1,27 @@
+package com.example.testapp.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Builder(toBuilder = true)
+@Getter
+@Setter
+@EqualsAndHashCode
+public class PriceIngestionReportDto {
+
+    @Schema(description = "Number of prices stored", example = "120000")
+    private long inserted;
+
+    @Schema(description = "Number of prices that could not be read or stored", example = "0")
+    private long failed;
+
+    @Schema(description = "Why the ingestion stopped before the end of the payload, if it did",
+            example = "Unexpected end-of-input: expected close marker for Object")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+}
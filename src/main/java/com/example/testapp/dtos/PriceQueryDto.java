@@ -0,0 +1,37 @@
+package com.example.testapp.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Builder(toBuilder = true)
+@Getter
+@Setter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQueryDto {
+
+    @Schema(description = "Brand identifier", example = "1")
+    @NotNull
+    @Positive
+    private Long brandId;
+
+    @Schema(description = "Product identifier", example = "35455")
+    @NotNull
+    @Positive
+    private Long productId;
+
+    @Schema(description = "Date time for which the price is queried", example = "2020-06-14T10:00:00")
+    @NotNull
+    private LocalDateTime date;
+
+}
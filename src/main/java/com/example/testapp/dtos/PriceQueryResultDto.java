@@ -0,0 +1,32 @@
+package com.example.testapp.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Builder(toBuilder = true)
+@Getter
+@Setter
+@EqualsAndHashCode
+public class PriceQueryResultDto {
+
+    @Schema(description = "Brand identifier", example = "1")
+    private Long brandId;
+
+    @Schema(description = "Product identifier", example = "35455")
+    private Long productId;
+
+    @Schema(description = "Date time for which the price was queried", example = "2020-06-14T10:00:00")
+    private LocalDateTime date;
+
+    @Schema(description = "Whether a price applies to the product at that date", example = "true")
+    private boolean found;
+
+    @Schema(description = "Price applying to the product at that date, absent when none was found")
+    private PriceDto price;
+
+}
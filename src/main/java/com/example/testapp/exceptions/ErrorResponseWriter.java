@@ -0,0 +1,181 @@
+package com.example.testapp.exceptions;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
+
+/**
+ * Writes {@link ErrorResponse} bodies straight to UTF-8 JSON bytes, with the same fields and order Jackson
+ * would produce, without building the object nor going through the object mapper.
+ *
+ * <p>The parts of a body that never change are encoded once: the status fragment of every status, whole
+ * templates for errors with a fixed message, and the literal parts of messages with arguments. The timestamp is
+ * rendered at most once per second.</p>
+ */
+public final class ErrorResponseWriter {
+
+    private static final byte[] TIMESTAMP_PREFIX = bytes("{\"timestamp\":\"");
+    private static final byte[] PATH_PREFIX = bytes(",\"path\":");
+    private static final byte[] SUFFIX = bytes("}");
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] QUOTE = bytes("\"");
+    private static final Pattern PLACEHOLDER = Pattern.compile("%[sd]");
+    private static final byte[][] STATUS_FRAGMENTS = new byte[600][];
+
+    static {
+        for (HttpStatus status : HttpStatus.values()) {
+            STATUS_FRAGMENTS[status.value()] = bytes("\",\"status\":" + status.value() + ",\"message\":");
+        }
+    }
+
+    private volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, NULL);
+
+    /**
+     * Writes the body of an error.
+     *
+     * @param status  the HTTP status of the error
+     * @param message the message describing the error
+     * @param path    the path of the resource
+     * @return the UTF-8 JSON bytes of the {@link ErrorResponse}
+     */
+    public byte[] write(HttpStatus status, String message, String path) {
+        return concat(TIMESTAMP_PREFIX, timestamp(), STATUS_FRAGMENTS[status.value()], quote(message), PATH_PREFIX, quote(path), SUFFIX);
+    }
+
+    /**
+     * Pre-encodes the body of an error whose message never changes.
+     *
+     * @param status  the HTTP status of the error
+     * @param message the fixed message describing the error
+     * @return a {@link Template} only missing the timestamp and the path
+     */
+    public Template template(HttpStatus status, String message) {
+        return new Template(concat(STATUS_FRAGMENTS[status.value()], quote(message), PATH_PREFIX));
+    }
+
+    /**
+     * Pre-encodes the body of an error whose message is a format with {@code %s} and {@code %d} placeholders.
+     *
+     * @param status the HTTP status of the error
+     * @param format the format of the message, as for {@link String#format}
+     * @return a {@link FormatTemplate} only missing the timestamp, the arguments of the message and the path
+     */
+    public FormatTemplate formatTemplate(HttpStatus status, String format) {
+        String[] literals = PLACEHOLDER.split(format, -1);
+        byte[][] encoded = new byte[literals.length][];
+        for (int i = 0; i < literals.length; i++) {
+            encoded[i] = JsonStringEncoder.getInstance().quoteAsUTF8(literals[i]);
+        }
+        return new FormatTemplate(concat(STATUS_FRAGMENTS[status.value()], QUOTE, encoded[0]), encoded);
+    }
+
+    /**
+     * Body of an error with a fixed status and message.
+     */
+    public final class Template {
+
+        private final byte[] fixedPart;
+
+        private Template(byte[] fixedPart) {
+            this.fixedPart = fixedPart;
+        }
+
+        /**
+         * Writes the body of the error.
+         *
+         * @param path the path of the resource
+         * @return the UTF-8 JSON bytes of the {@link ErrorResponse}
+         */
+        public byte[] write(String path) {
+            return concat(TIMESTAMP_PREFIX, timestamp(), fixedPart, quote(path), SUFFIX);
+        }
+    }
+
+    /**
+     * Body of an error with a fixed status and a message formatted from its arguments.
+     */
+    public final class FormatTemplate {
+
+        private final byte[] head;
+        private final byte[][] literals;
+
+        private FormatTemplate(byte[] head, byte[][] literals) {
+            this.head = head;
+            this.literals = literals;
+        }
+
+        /**
+         * Writes the body of the error, with the message {@link String#format} would produce from the arguments.
+         *
+         * @param path      the path of the resource
+         * @param arguments the arguments of the message, one per placeholder
+         * @return the UTF-8 JSON bytes of the {@link ErrorResponse}
+         */
+        public byte[] write(String path, Object... arguments) {
+            byte[][] parts = new byte[2 * literals.length + 5][];
+            int part = 0;
+            parts[part++] = TIMESTAMP_PREFIX;
+            parts[part++] = timestamp();
+            parts[part++] = head;
+            for (int i = 1; i < literals.length; i++) {
+                parts[part++] = JsonStringEncoder.getInstance().quoteAsUTF8(String.valueOf(arguments[i - 1]));
+                parts[part++] = literals[i];
+            }
+            parts[part++] = QUOTE;
+            parts[part++] = PATH_PREFIX;
+            parts[part++] = quote(path);
+            parts[part] = SUFFIX;
+            return concat(parts);
+        }
+    }
+
+    private byte[] timestamp() {
+        long second = System.currentTimeMillis() / 1_000;
+        Timestamp current = timestamp;
+        if (current.second() != second) {
+            Instant instant = Instant.ofEpochSecond(second);
+            current = new Timestamp(second, bytes(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()))));
+            timestamp = current;
+        }
+        return current.text();
+    }
+
+    private static byte[] quote(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Timestamp(long second, byte[] text) {
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.testapp.exceptions;
 
+import com.example.testapp.constants.InditexConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.NoSuchElementException;
 
 /**
@@ -23,24 +29,41 @@ import java.util.NoSuchElementException;
  * data access issues, and generic exceptions. Each handler method generates an appropriate HTTP response with
  * status codes and error messages.
  * </p>
+ * <p>
+ * Error bodies are written straight to JSON bytes by an {@link ErrorResponseWriter}, and logging is rate-limited,
+ * so that bursts of expected errors such as missing prices stay cheap.
+ * </p>
  */
+@Slf4j
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     public static final String ERROR_MESSAGE_DATA_ACCESS_RESOURCE_FAILURE_EXCEPTION = "Currently our database is experiencing difficulties. Please try again later";
 
+    private static final ErrorResponseWriter ERROR_RESPONSE_WRITER = new ErrorResponseWriter();
+
+    private static final ErrorResponseWriter.Template DATA_ACCESS_RESOURCE_FAILURE =
+            ERROR_RESPONSE_WRITER.template(HttpStatus.INTERNAL_SERVER_ERROR, ERROR_MESSAGE_DATA_ACCESS_RESOURCE_FAILURE_EXCEPTION);
+
+    private static final ErrorResponseWriter.FormatTemplate PRICE_NOT_FOUND =
+            ERROR_RESPONSE_WRITER.formatTemplate(HttpStatus.NOT_FOUND, InditexConstants.ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION);
+
+    private final RateLimitedLogger errorLog = new RateLimitedLogger(log, 10, Duration.ofSeconds(1));
+
+    private final RateLimitedLogger clientErrorLog = new RateLimitedLogger(log, 10, Duration.ofSeconds(1));
+
     /**
      * Handles {@link ConstraintViolationException} which occurs during validation failures.
      *
      * @param ex      the thrown {@code ConstraintViolationException}
      * @param request the {@code WebRequest} providing request details
-     * @return a {@code ResponseEntity} containing a map with error details and HTTP status code 400 (Bad Request)
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 400 (Bad Request)
      */
     @ExceptionHandler(ConstraintViolationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
-        HttpStatus httpStatus = HttpStatus.BAD_REQUEST;
-        return new ResponseEntity<>(getErrorResponse(request, ex.getMessage(), httpStatus), httpStatus);
+    public ResponseEntity<byte[]> handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -48,13 +71,12 @@ public class GlobalExceptionHandler {
      *
      * @param ex      the thrown {@code MethodArgumentTypeMismatchException}
      * @param request the {@code WebRequest} providing request details
-     * @return a {@code ResponseEntity} containing a map with error details and HTTP status code 400 (Bad Request)
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 400 (Bad Request)
      */
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex, WebRequest request) {
-        HttpStatus httpStatus = HttpStatus.BAD_REQUEST;
-        return new ResponseEntity<>(getErrorResponse(request, ex.getMessage(), httpStatus), httpStatus);
+    public ResponseEntity<byte[]> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
 
@@ -72,23 +94,97 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MissingServletRequestParameterException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<ErrorResponse> handleMissingServletRequestParameterException(MissingServletRequestParameterException ex, WebRequest request) {
-        HttpStatus httpStatus = HttpStatus.BAD_REQUEST;
-        return new ResponseEntity<>(getErrorResponse(request, ex.getMessage(), httpStatus), httpStatus);
+    public ResponseEntity<byte[]> handleMissingServletRequestParameterException(MissingServletRequestParameterException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
 
+    /**
+     * Handles {@link PriceNotFoundException} which occurs when no price applies to the requested product and date.
+     * The body is written from a template encoded once, with the date and identifiers of the lookup filled in,
+     * without formatting the exception message.
+     *
+     * @param ex      the thrown {@code PriceNotFoundException}
+     * @param request the {@code WebRequest} providing request details
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 404 (Not Found)
+     */
+    @ExceptionHandler(PriceNotFoundException.class)
+    public ResponseEntity<byte[]> handlePriceNotFoundException(PriceNotFoundException ex, WebRequest request) {
+        return jsonResponse(HttpStatus.NOT_FOUND, PRICE_NOT_FOUND.write(getPath(request), ex.getDate(), ex.getBrandId(), ex.getProductId()));
+    }
+
     /**
      * Handles {@link NoSuchElementException} which occurs when a requested resource is not found.
      *
      * @param ex      the thrown {@code NoSuchElementException}
      * @param request the {@code WebRequest} providing request details
-     * @return a {@code ResponseEntity} containing a map with error details and HTTP status code 404 (Not Found)
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 404 (Not Found)
      */
     @ExceptionHandler(NoSuchElementException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(NoSuchElementException ex, WebRequest request) {
-        HttpStatus httpStatus = HttpStatus.NOT_FOUND;
-        return new ResponseEntity<>(getErrorResponse(request, ex.getMessage(), httpStatus), httpStatus);
+    public ResponseEntity<byte[]> handleResourceNotFoundException(NoSuchElementException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles {@link JsonProcessingException} which occurs when a streamed request body is not valid JSON.
+     *
+     * @param ex      the thrown {@code JsonProcessingException}
+     * @param request the {@code WebRequest} providing request details
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 400 (Bad Request)
+     */
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<byte[]> handleJsonProcessingException(JsonProcessingException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getOriginalMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles {@link PriceBatchTooLargeException} and {@link PriceBatchBodyTooLargeException} which occur when a
+     * batch lookup holds more queries, or a larger body, than allowed.
+     *
+     * @param ex      the thrown {@code PriceBatchTooLargeException} or {@code PriceBatchBodyTooLargeException}
+     * @param request the {@code WebRequest} providing request details
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 413 (Payload Too Large)
+     */
+    @ExceptionHandler({PriceBatchTooLargeException.class, PriceBatchBodyTooLargeException.class})
+    public ResponseEntity<byte[]> handlePriceBatchTooLargeException(PriceException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handles {@link InvalidPriceRangeException} which occurs when a price history range starts after it ends.
+     *
+     * @param ex      the thrown {@code InvalidPriceRangeException}
+     * @param request the {@code WebRequest} providing request details
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 400 (Bad Request)
+     */
+    @ExceptionHandler(InvalidPriceRangeException.class)
+    public ResponseEntity<byte[]> handleInvalidPriceRangeException(InvalidPriceRangeException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles {@link PriceLookupTimeoutException} which occurs when a lookup gives up waiting for a concurrent one.
+     *
+     * @param ex      the thrown {@code PriceLookupTimeoutException}
+     * @param request the {@code WebRequest} providing request details
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 503 (Service Unavailable)
+     */
+    @ExceptionHandler(PriceLookupTimeoutException.class)
+    public ResponseEntity<byte[]> handlePriceLookupTimeoutException(PriceLookupTimeoutException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles {@link PriceLookupInterruptedException} which occurs when a lookup waiting for a concurrent one is
+     * interrupted.
+     *
+     * @param ex      the thrown {@code PriceLookupInterruptedException}
+     * @param request the {@code WebRequest} providing request details
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 503 (Service Unavailable)
+     */
+    @ExceptionHandler(PriceLookupInterruptedException.class)
+    public ResponseEntity<byte[]> handlePriceLookupInterruptedException(PriceLookupInterruptedException ex, WebRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     /**
@@ -96,12 +192,12 @@ public class GlobalExceptionHandler {
      *
      * @param ex      the thrown {@code DataAccessResourceFailureException}
      * @param request the {@code WebRequest} providing request details
-     * @return a {@code ResponseEntity} containing a map with error details and HTTP status code 500 (Internal Server Error)
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 500 (Internal Server Error)
      */
     @ExceptionHandler(DataAccessResourceFailureException.class)
-    public ResponseEntity<ErrorResponse> handleDataAccessResourceFailureException(DataAccessResourceFailureException ex, WebRequest request) {
-        HttpStatus httpStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-        return new ResponseEntity<>(getErrorResponse(request, ERROR_MESSAGE_DATA_ACCESS_RESOURCE_FAILURE_EXCEPTION, httpStatus), httpStatus);
+    public ResponseEntity<byte[]> handleDataAccessResourceFailureException(DataAccessResourceFailureException ex, WebRequest request) {
+        errorLog.error("Data access failure", ex);
+        return jsonResponse(HttpStatus.INTERNAL_SERVER_ERROR, DATA_ACCESS_RESOURCE_FAILURE.write(getPath(request)));
     }
 
     /**
@@ -109,30 +205,45 @@ public class GlobalExceptionHandler {
      *
      * @param ex      the thrown {@code Exception}
      * @param request the {@code WebRequest} providing request details
-     * @return a {@code ResponseEntity} containing a map with error details and HTTP status code 500 (Internal Server Error)
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 500 (Internal Server Error)
      */
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ResponseEntity<ErrorResponse> handleAllExceptions(Exception ex, WebRequest request) {
-        HttpStatus httpStatus = HttpStatus.INTERNAL_SERVER_ERROR;
-        return new ResponseEntity<>(getErrorResponse(request, ex.getMessage(), httpStatus), httpStatus);
+    public ResponseEntity<byte[]> handleAllExceptions(Exception ex, WebRequest request) {
+        errorLog.error("Unexpected error", ex);
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
 
     /**
-     * Constructs the error response body for exceptions.
+     * Constructs the error response for exceptions.
      *
      * @param request    the {@code WebRequest} providing request details
      * @param message    the error message to include in the response
      * @param httpStatus the HTTP status code to set in the response
-     * @return a {@code Map} containing error details such as timestamp, status, error, message, and path
+     * @return a {@code ResponseEntity} containing the serialized {@link ErrorResponse} with its timestamp, status,
+     * message, and path
+     */
+    private ResponseEntity<byte[]> getErrorResponse(WebRequest request, String message, HttpStatus httpStatus) {
+        if (httpStatus.is4xxClientError()) {
+            clientErrorLog.debug("Request rejected: {}", message);
+        }
+        return jsonResponse(httpStatus, ERROR_RESPONSE_WRITER.write(httpStatus, message, getPath(request)));
+    }
+
+    private static ResponseEntity<byte[]> jsonResponse(HttpStatus httpStatus, byte[] body) {
+        return ResponseEntity.status(httpStatus)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Extracts the path of the request, reading it straight from the servlet request when available.
      */
-    private static ErrorResponse getErrorResponse(WebRequest request, String message, HttpStatus httpStatus) {
-        return ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(httpStatus.value())
-                .message(message)
-                .path(request.getDescription(false).substring(4))
-                .build();
+    private static String getPath(WebRequest request) {
+        if (request instanceof ServletWebRequest servletWebRequest) {
+            return servletWebRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).substring(4);
     }
 }
@@ -0,0 +1,24 @@
+package com.example.testapp.exceptions;
+
+import java.time.LocalDateTime;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_INVALID_RANGE_EXCEPTION;
+
+/**
+ * Thrown when a price history is requested over a range that starts after it ends.
+ */
+public class InvalidPriceRangeException extends PriceException {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public InvalidPriceRangeException(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format(ERROR_MESSAGE_INVALID_RANGE_EXCEPTION, from, to);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.testapp.exceptions;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_BATCH_BODY_TOO_LARGE_EXCEPTION;
+
+/**
+ * Thrown when the body of a batch lookup is larger than allowed, before its queries are deserialized.
+ */
+public class PriceBatchBodyTooLargeException extends PriceException {
+
+    private final long maxBytes;
+
+    public PriceBatchBodyTooLargeException(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format(ERROR_MESSAGE_BATCH_BODY_TOO_LARGE_EXCEPTION, maxBytes);
+    }
+}
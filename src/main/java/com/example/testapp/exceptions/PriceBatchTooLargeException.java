@@ -0,0 +1,22 @@
+package com.example.testapp.exceptions;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_BATCH_TOO_LARGE_EXCEPTION;
+
+/**
+ * Thrown when a batch lookup holds more queries than allowed.
+ */
+public class PriceBatchTooLargeException extends PriceException {
+
+    private final int size;
+    private final int maxSize;
+
+    public PriceBatchTooLargeException(int size, int maxSize) {
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format(ERROR_MESSAGE_BATCH_TOO_LARGE_EXCEPTION, size, maxSize);
+    }
+}
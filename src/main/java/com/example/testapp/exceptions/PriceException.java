@@ -0,0 +1,14 @@
+package com.example.testapp.exceptions;
+
+/**
+ * Base class of the exceptions raised by the price lookups for outcomes expected under normal operation, like a
+ * lookup without price or a request out of bounds. They are answered with a client error rather than logged, so
+ * they do not capture a stack trace, and subclasses only format their message when it is read.
+ */
+public abstract class PriceException extends RuntimeException {
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.testapp.exceptions;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_LOOKUP_INTERRUPTED_EXCEPTION;
+
+/**
+ * Thrown when a lookup waiting for a concurrent lookup of the same product is interrupted, as when the request it
+ * serves is cancelled or the application shuts down.
+ */
+public class PriceLookupInterruptedException extends PriceException {
+
+    private final long brandId;
+    private final long productId;
+
+    public PriceLookupInterruptedException(long brandId, long productId) {
+        this.brandId = brandId;
+        this.productId = productId;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format(ERROR_MESSAGE_LOOKUP_INTERRUPTED_EXCEPTION, brandId, productId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.testapp.exceptions;
+
+import java.time.Duration;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_LOOKUP_TIMEOUT_EXCEPTION;
+
+/**
+ * Thrown when a lookup waiting for a concurrent lookup of the same product gives up.
+ */
+public class PriceLookupTimeoutException extends PriceException {
+
+    private final long brandId;
+    private final long productId;
+    private final Duration timeout;
+
+    public PriceLookupTimeoutException(long brandId, long productId, Duration timeout) {
+        this.brandId = brandId;
+        this.productId = productId;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format(ERROR_MESSAGE_LOOKUP_TIMEOUT_EXCEPTION, brandId, productId, timeout.toMillis());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.testapp.exceptions;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION;
+
+/**
+ * Thrown when no price applies to a product of a brand at a given date.
+ */
+@Getter
+public class PriceNotFoundException extends PriceException {
+
+    private final transient LocalDateTime date;
+    private final Long brandId;
+    private final Long productId;
+
+    public PriceNotFoundException(LocalDateTime date, Long brandId, Long productId) {
+        this.date = date;
+        this.brandId = brandId;
+        this.productId = productId;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format(ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION, date, brandId, productId);
+    }
+}
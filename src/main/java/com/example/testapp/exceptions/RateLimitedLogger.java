@@ -0,0 +1,57 @@
+package com.example.testapp.exceptions;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets through at most a fixed number of log lines per time window, so an error storm cannot flood the logs
+ * nor spend its time writing them. The number of suppressed lines is reported when the next window opens.
+ */
+final class RateLimitedLogger {
+
+    private final Logger logger;
+    private final long windowNanos;
+    private final int linesPerWindow;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger linesInWindow = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    RateLimitedLogger(Logger logger, int linesPerWindow, Duration window) {
+        this.logger = logger;
+        this.linesPerWindow = linesPerWindow;
+        this.windowNanos = window.toNanos();
+    }
+
+    void error(String message, Throwable throwable) {
+        if (tryAcquire()) {
+            logger.error(message, throwable);
+        }
+    }
+
+    void debug(String message, Object argument) {
+        if (logger.isDebugEnabled() && tryAcquire()) {
+            logger.debug(message, argument);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            linesInWindow.set(0);
+            long suppressedLines = suppressed.sumThenReset();
+            if (suppressedLines > 0) {
+                logger.warn("Suppressed {} error log lines in the last {} ms", suppressedLines, windowNanos / 1_000_000);
+            }
+        }
+        if (linesInWindow.incrementAndGet() <= linesPerWindow) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.testapp.exceptions;
+
+import com.example.testapp.constants.InditexConstants;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+
+import static com.example.testapp.exceptions.GlobalExceptionHandler.ERROR_MESSAGE_DATA_ACCESS_RESOURCE_FAILURE_EXCEPTION;
+
+/**
+ * WebFlux counterpart of {@link GlobalExceptionHandler}, mapping the same exceptions to the same statuses and
+ * error bodies when the application runs on WebFlux.
+ * <p>
+ * WebFlux reports missing, mistyped and unreadable request values as {@link ServerWebInputException}, which
+ * stands for the binding exceptions handled separately on the servlet stack.
+ * </p>
+ */
+@Slf4j
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+
+    private static final ErrorResponseWriter ERROR_RESPONSE_WRITER = new ErrorResponseWriter();
+
+    private static final ErrorResponseWriter.Template DATA_ACCESS_RESOURCE_FAILURE =
+            ERROR_RESPONSE_WRITER.template(HttpStatus.INTERNAL_SERVER_ERROR, ERROR_MESSAGE_DATA_ACCESS_RESOURCE_FAILURE_EXCEPTION);
+
+    private static final ErrorResponseWriter.FormatTemplate PRICE_NOT_FOUND =
+            ERROR_RESPONSE_WRITER.formatTemplate(HttpStatus.NOT_FOUND, InditexConstants.ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION);
+
+    private final RateLimitedLogger errorLog = new RateLimitedLogger(log, 10, Duration.ofSeconds(1));
+
+    private final RateLimitedLogger clientErrorLog = new RateLimitedLogger(log, 10, Duration.ofSeconds(1));
+
+    /**
+     * Handles {@link ConstraintViolationException} which occurs during validation failures.
+     *
+     * @param ex      the thrown {@code ConstraintViolationException}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 400 (Bad Request)
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<byte[]> handleConstraintViolationException(ConstraintViolationException ex, ServerHttpRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles {@link ServerWebInputException} which occurs when a request parameter or body is missing, has the
+     * wrong type or cannot be read.
+     *
+     * @param ex      the thrown {@code ServerWebInputException}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 400 (Bad Request)
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<byte[]> handleServerWebInputException(ServerWebInputException ex, ServerHttpRequest request) {
+        return getErrorResponse(request, ex.getReason(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles {@link PriceNotFoundException} which occurs when no price applies to the requested product and date.
+     * The body is written from a template encoded once, with the date and identifiers of the lookup filled in,
+     * without formatting the exception message.
+     *
+     * @param ex      the thrown {@code PriceNotFoundException}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 404 (Not Found)
+     */
+    @ExceptionHandler(PriceNotFoundException.class)
+    public ResponseEntity<byte[]> handlePriceNotFoundException(PriceNotFoundException ex, ServerHttpRequest request) {
+        return jsonResponse(HttpStatus.NOT_FOUND, PRICE_NOT_FOUND.write(request.getPath().value(), ex.getDate(), ex.getBrandId(), ex.getProductId()));
+    }
+
+    /**
+     * Handles {@link NoSuchElementException} which occurs when a requested resource is not found.
+     *
+     * @param ex      the thrown {@code NoSuchElementException}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 404 (Not Found)
+     */
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<byte[]> handleResourceNotFoundException(NoSuchElementException ex, ServerHttpRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles {@link PriceBatchTooLargeException} and {@link PriceBatchBodyTooLargeException} which occur when a
+     * batch lookup holds more queries, or a larger body, than allowed.
+     *
+     * @param ex      the thrown {@code PriceBatchTooLargeException} or {@code PriceBatchBodyTooLargeException}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 413 (Payload Too Large)
+     */
+    @ExceptionHandler({PriceBatchTooLargeException.class, PriceBatchBodyTooLargeException.class})
+    public ResponseEntity<byte[]> handlePriceBatchTooLargeException(PriceException ex, ServerHttpRequest request) {
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handles {@link DataAccessResourceFailureException} which indicates a failure in accessing a data resource.
+     *
+     * @param ex      the thrown {@code DataAccessResourceFailureException}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 500 (Internal Server Error)
+     */
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<byte[]> handleDataAccessResourceFailureException(DataAccessResourceFailureException ex, ServerHttpRequest request) {
+        errorLog.error("Data access failure", ex);
+        return jsonResponse(HttpStatus.INTERNAL_SERVER_ERROR, DATA_ACCESS_RESOURCE_FAILURE.write(request.getPath().value()));
+    }
+
+    /**
+     * Handles generic {@link Exception} to catch any unexpected errors that occur during request processing.
+     *
+     * @param ex      the thrown {@code Exception}
+     * @param request the {@code ServerHttpRequest} being handled
+     * @return a {@code ResponseEntity} containing the error details and HTTP status code 500 (Internal Server Error)
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleAllExceptions(Exception ex, ServerHttpRequest request) {
+        errorLog.error("Unexpected error", ex);
+        return getErrorResponse(request, ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private ResponseEntity<byte[]> getErrorResponse(ServerHttpRequest request, String message, HttpStatus httpStatus) {
+        if (httpStatus.is4xxClientError()) {
+            clientErrorLog.debug("Request rejected: {}", message);
+        }
+        return jsonResponse(httpStatus, ERROR_RESPONSE_WRITER.write(httpStatus, message, request.getPath().value()));
+    }
+
+    private static ResponseEntity<byte[]> jsonResponse(HttpStatus httpStatus, byte[] body) {
+        return ResponseEntity.status(httpStatus)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
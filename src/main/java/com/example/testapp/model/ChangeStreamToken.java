@@ -0,0 +1,34 @@
+package com.example.testapp.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Position reached by an instance in a change stream, so it can resume from there after a restart instead of
+ * missing the changes made in between.
+ */
+@Document("change_stream_tokens")
+@Builder(toBuilder = true)
+@Getter
+@Setter
+public class ChangeStreamToken {
+
+    /**
+     * Identifier of the instance and the watched collection.
+     */
+    @Id
+    private String _id;
+
+    /**
+     * Resume token of the last change processed, as extended JSON.
+     */
+    private String resumeToken;
+
+    private Instant updatedAt;
+
+}
@@ -0,0 +1,52 @@
+package com.example.testapp.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Segment of the effective price timeline of a product, materialized from the overlapping {@link Price}
+ * documents when they are written. Segments of the same revision never overlap, so the price applying at
+ * a date is the single segment containing it.
+ */
+@Document("effective_prices")
+@CompoundIndex(name = "brand_product_validity_revision", def = "{ 'brandId': 1, 'productId': 1, 'validFrom': 1, 'revision': -1 }")
+@Builder(toBuilder = true)
+@Getter
+@Setter
+public class EffectivePrice {
+
+    @Id
+    private String _id;
+
+    private Long brandId;
+
+    private Long productId;
+
+    /**
+     * First date time of the segment (inclusive).
+     */
+    private LocalDateTime validFrom;
+
+    /**
+     * Date time the segment ends at (exclusive).
+     */
+    private LocalDateTime validTo;
+
+    /**
+     * Revision of the timeline the segment belongs to. A rebuild writes a new revision before deleting the
+     * previous ones, so readers always find a complete timeline.
+     */
+    private Long revision;
+
+    /**
+     * The {@link Price} winning during the segment.
+     */
+    private Price price;
+
+}
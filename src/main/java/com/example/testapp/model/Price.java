@@ -7,18 +7,28 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Currency;
 
+/**
+ * Price of a product of a brand during a date range. The compound index declared here serves the lookup of
+ * the effective price: it starts with the equality and range keys of the query and carries the projected
+ * fields after them, so the lookup is covered and never fetches the documents.
+ */
 @Document("prices")
+@CompoundIndex(name = Price.LOOKUP_INDEX,
+        def = "{ 'brandId': 1, 'productId': 1, 'startDate': 1, 'endDate': 1, 'priority': -1, 'priceList': 1, 'price': 1, 'currency': 1 }")
 @Builder(toBuilder = true)
 @Getter
 @Setter
 public class Price {
 
+    public static final String LOOKUP_INDEX = "brand_product_validity_priority";
+
     @Id
     @JsonIgnore
     @Schema(description = "Document identifier", example = "66c26f01f1fc951335aa8d2d")
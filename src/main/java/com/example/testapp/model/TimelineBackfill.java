@@ -0,0 +1,34 @@
+package com.example.testapp.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marker of a completed backfill of the {@link EffectivePrice} timelines, so a backfill interrupted halfway is
+ * resumed at the next startup instead of being taken for done.
+ */
+@Document("timeline_backfills")
+@Builder(toBuilder = true)
+@Getter
+@Setter
+public class TimelineBackfill {
+
+    /**
+     * Identifier of the backfilled collection.
+     */
+    @Id
+    private String _id;
+
+    /**
+     * Number of products whose timelines were backfilled.
+     */
+    private long products;
+
+    private Instant completedAt;
+
+}
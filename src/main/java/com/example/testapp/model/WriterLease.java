@@ -0,0 +1,33 @@
+package com.example.testapp.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on a role only one instance may play at a time, held until it expires unless renewed by its holder.
+ */
+@Document("writer_leases")
+@Builder(toBuilder = true)
+@Getter
+@Setter
+public class WriterLease {
+
+    /**
+     * Identifier of the role.
+     */
+    @Id
+    private String _id;
+
+    /**
+     * Identifier of the instance holding the lease.
+     */
+    private String holder;
+
+    private Instant expiresAt;
+
+}
@@ -0,0 +1,10 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.ChangeStreamToken;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository interface for managing the {@link ChangeStreamToken} resume positions in a MongoDB database.
+ */
+public interface ChangeStreamTokensRepository extends CrudRepository<ChangeStreamToken, String> {
+}
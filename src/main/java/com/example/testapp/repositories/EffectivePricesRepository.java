@@ -0,0 +1,48 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.EffectivePrice;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing the {@link EffectivePrice} timeline segments in a MongoDB database.
+ */
+public interface EffectivePricesRepository extends CrudRepository<EffectivePrice, String> {
+
+    /**
+     * Finds the segment of the latest timeline revision of the given brand ID and product ID that contains the
+     * given date.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date the segment must contain
+     * @return the containing {@link EffectivePrice}, or an empty {@code Optional} if no price applies at that date
+     */
+    default Optional<EffectivePrice> findContaining(long brandId, long productId, LocalDateTime date) {
+        return findFirstByBrandIdAndProductIdAndValidFromLessThanEqualAndValidToGreaterThanOrderByRevisionDesc(brandId, productId, date, date);
+    }
+
+    Optional<EffectivePrice> findFirstByBrandIdAndProductIdAndValidFromLessThanEqualAndValidToGreaterThanOrderByRevisionDesc(
+            long brandId, long productId, LocalDateTime validFrom, LocalDateTime validTo);
+
+    /**
+     * Finds the first segment of the given brand ID and product ID starting after the given date.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date the segment must start after
+     * @return the next {@link EffectivePrice}, or an empty {@code Optional} if the timeline ends before the date
+     */
+    Optional<EffectivePrice> findFirstByBrandIdAndProductIdAndValidFromGreaterThanOrderByValidFromAsc(long brandId, long productId, LocalDateTime date);
+
+    /**
+     * Deletes the segments of the given brand ID and product ID older than the given revision.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param revision  the revision to keep
+     */
+    void deleteByBrandIdAndProductIdAndRevisionLessThan(long brandId, long productId, long revision);
+}
@@ -0,0 +1,102 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.model.Price;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the indexes declared on {@link Price} once the application is ready, and logs the explain plan of
+ * the effective price lookup so it can be checked that the query is covered by {@link Price#LOOKUP_INDEX}.
+ *
+ * <p>Failures are logged and do not prevent the application from starting, the same way lookups keep being
+ * answered with an error while the database is unavailable.</p>
+ */
+@Slf4j
+@Component
+public class PricesIndexInitializer {
+
+    private final MongoOperations mongoOperations;
+    private final PricesRepository pricesRepository;
+    private final PricesProperties pricesProperties;
+
+    public PricesIndexInitializer(MongoOperations mongoOperations, PricesRepository pricesRepository, PricesProperties pricesProperties) {
+        this.mongoOperations = mongoOperations;
+        this.pricesRepository = pricesRepository;
+        this.pricesProperties = pricesProperties;
+    }
+
+    /**
+     * Ensures the indexes and logs the lookup explain plan, as configured under {@code prices.mongo}. Runs first
+     * among the {@link ApplicationReadyEvent} listeners, so the warm-up lookups already use the indexes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        try {
+            if (pricesProperties.getMongo().isEnsureIndexes()) {
+                ensureIndexes();
+            }
+            if (pricesProperties.getMongo().isExplainLookup()) {
+                explainLookup();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not initialize the prices indexes: {}", ex.getMessage());
+        }
+    }
+
+    private void ensureIndexes() {
+        IndexOperations indexOperations = mongoOperations.indexOps(Price.class);
+        new MongoPersistentEntityIndexResolver(mongoOperations.getConverter().getMappingContext())
+                .resolveIndexFor(Price.class)
+                .forEach(indexOperations::ensureIndex);
+        log.info("Ensured indexes of the prices collection");
+    }
+
+    private void explainLookup() {
+        Document explain = pricesRepository.explainEffectivePrice(1L, 1L, LocalDateTime.now());
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        boolean usesIndex = stages.contains("IXSCAN");
+        boolean covered = usesIndex && !stages.contains("FETCH");
+        if (covered) {
+            log.info("Effective price lookup is covered by the index, stages: {}", stages);
+        } else {
+            log.warn("Effective price lookup is not covered (index used: {}), stages: {}, plan: {}", usesIndex, stages, winningPlan.toJson());
+        }
+    }
+
+    /**
+     * Walks a query plan collecting its stage names, from the root stage down to the leaves.
+     */
+    private static void collectStages(Document plan, List<String> stages) {
+        if (plan == null) {
+            return;
+        }
+        // newer servers wrap the classic plan into the slot based execution one
+        if (plan.containsKey("queryPlan")) {
+            collectStages(plan.get("queryPlan", Document.class), stages);
+            return;
+        }
+        stages.add(plan.getString("stage"));
+        collectStages(plan.get("inputStage", Document.class), stages);
+        List<Document> inputStages = plan.getList("inputStages", Document.class);
+        if (inputStages != null) {
+            inputStages.forEach(inputStage -> collectStages(inputStage, stages));
+        }
+    }
+}
@@ -1,29 +1,73 @@
 package com.example.testapp.repositories;
 
 import com.example.testapp.model.Price;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Price} entities in a MongoDB database.
  * This interface provides methods to perform CRUD operations and custom queries on price data.
  */
-public interface PricesRepository extends CrudRepository<Price, Long> {
+public interface PricesRepository extends CrudRepository<Price, Long>, PricesRepositoryCustom {
 
     /**
-     * Finds a list of {@link Price} entities that match the given brand ID, product ID, and date.
-     * The query filters by the date being within the start and end dates of the price, and sorts results by priority.
+     * Finds every {@link Price} of the given brand ID and product ID, sorted by ascending start date.
      *
-     * @param date      the date to filter prices by, must be within the start and end dates of the price
      * @param brandId   the ID of the brand
      * @param productId the ID of the product
-     * @return a list of {@link Price} entities that match the given criteria, sorted by priority
+     * @return the prices of the product, sorted by start date
      */
-    @Query(value = "{ 'brandId' : ?0, 'productId' : ?1, 'startDate' : { $lte: ?2 }, 'endDate' : { $gte: ?2 } }", sort = "{ 'priority': 1 }")
-    List<Price> findByBrandIdAndProductIdAndDate(long brandId, long productId, LocalDateTime date);
+    List<Price> findByBrandIdAndProductIdOrderByStartDateAsc(long brandId, long productId);
 
+    /**
+     * Streams the {@link Price} entities of the given brand ID and product ID applying at some point of the given
+     * range, sorted by ascending start date. The query is a single range scan of {@link Price#LOOKUP_INDEX}, which
+     * also provides the sort, and only projects indexed fields, so it is covered by the index. The stream is backed
+     * by a database cursor and must be closed.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param from      the first date of the range
+     * @param to        the last date of the range
+     * @return a {@link Stream} over the prices overlapping the range, sorted by start date
+     */
+    @Query(value = "{ 'brandId' : ?0, 'productId' : ?1, 'startDate' : { $lte: ?3 }, 'endDate' : { $gte: ?2 } }",
+            fields = "{ '_id': 0, 'brandId': 1, 'productId': 1, 'startDate': 1, 'endDate': 1, 'priority': 1, 'priceList': 1, 'price': 1, 'currency': 1 }",
+            sort = "{ 'startDate': 1 }")
+    Stream<Price> streamByBrandIdAndProductIdOverlapping(long brandId, long productId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams every stored {@link Price}, grouped by brand ID and product ID and sorted by start date within
+     * each product. The stream is backed by a database cursor and must be closed.
+     *
+     * @return a {@link Stream} over all the prices
+     */
+    @Query(value = "{}", sort = "{ 'brandId': 1, 'productId': 1, 'startDate': 1 }")
+    Stream<Price> streamAllOrderedByProduct();
+
+    /**
+     * Streams the brand ID and product ID of every stored {@link Price}, sorted by both, with no other field.
+     * The sort lets the query be answered from the lookup index alone. The stream is backed by a database
+     * cursor and must be closed.
+     *
+     * @return a {@link Stream} over the projected prices
+     */
+    @Query(value = "{}", fields = "{ '_id': 0, 'brandId': 1, 'productId': 1 }", sort = "{ 'brandId': 1, 'productId': 1 }")
+    Stream<Price> streamProductKeys();
+
+    /**
+     * Streams the {@link Price} entities inserted after the given identifier, as {@code ObjectId}s grow with their
+     * creation time. The stream is backed by a database cursor and must be closed.
+     *
+     * @param id the identifier to start after
+     * @return a {@link Stream} over the prices with a greater identifier
+     */
+    @Query(value = "{ '_id': { $gt: ?0 } }")
+    Stream<Price> streamCreatedAfter(ObjectId id);
 
 }
@@ -0,0 +1,89 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.EffectivePrice;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import org.bson.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom queries of {@link PricesRepository} that cannot be expressed with derived or annotated queries.
+ */
+public interface PricesRepositoryCustom {
+
+    /**
+     * Finds the {@link Price} that applies to the given brand ID, product ID, and date. Only the winning
+     * document is returned: overlapping prices are sorted by descending priority (latest start first on
+     * ties), limited to one result and projected down to the fields needed to build a
+     * {@link com.example.testapp.dtos.PriceDto} plus the priority, so the query can be answered from the lookup
+     * index alone.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date to filter prices by, must be within the start and end dates of the price
+     * @return the winning {@link Price}, or an empty {@code Optional} if no price applies at that date
+     */
+    Optional<Price> findEffectivePrice(long brandId, long productId, LocalDateTime date);
+
+    /**
+     * Finds, with a single aggregation, the {@link Price} that applies to the given brand ID, product ID, and date,
+     * like {@link #findEffectivePrice(long, long, LocalDateTime)}, along with the first start date of the prices
+     * that may take over from it. The prices of the product not ended at the date are read from the lookup index
+     * and split by a {@code $facet} into the winning one and the first start date per priority of those starting
+     * afterwards.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date to filter prices by
+     * @return the effective price, if any, and the date it may stop being so
+     */
+    EffectivePrice findEffectivePriceAndNextStart(long brandId, long productId, LocalDateTime date);
+
+    /**
+     * Finds, with a single query, the prices of several products that apply at some point of a range of dates given
+     * per product: those ending at or after its earliest date and starting at or before its latest. They are enough
+     * to resolve any lookup of the product within the range. The documents are projected like in
+     * {@link #findEffectivePrice(long, long, LocalDateTime)}.
+     *
+     * @param ranges the dates of interest of every product
+     * @return the prices of all the products, in no particular order
+     */
+    List<Price> findPricesApplyingWithin(Map<PriceKey, PriceQueryRange> ranges);
+
+    /**
+     * Finds, with a single aggregation, the first start date of the prices of several products starting after the
+     * latest date of a range given per product. Only one date per product is returned, however many prices start
+     * afterwards; it tells until when the prices of {@link #findPricesApplyingWithin(Map)} are enough.
+     *
+     * @param ranges the dates of interest of every product
+     * @return the first start date after its range of every product having one
+     */
+    Map<PriceKey, LocalDateTime> findNextStartDates(Map<PriceKey, PriceQueryRange> ranges);
+
+    /**
+     * Streams every stored {@link Price}, or only those of a brand, in the order of the lookup index: by brand ID,
+     * product ID and start date. The documents are read through a server-side cursor fetching the given number of
+     * them per round trip, so only one batch is held in memory at a time. The stream must be closed.
+     *
+     * @param brandId   the ID of the brand, or {@code null} for every brand
+     * @param batchSize the number of documents fetched per round trip to the database
+     * @return a {@link Stream} over the prices
+     */
+    Stream<Price> streamPrices(Long brandId, int batchSize);
+
+    /**
+     * Runs the query of {@link #findEffectivePrice(long, long, LocalDateTime)} in explain mode.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date to filter prices by
+     * @return the explain output returned by MongoDB
+     */
+    Document explainEffectivePrice(long brandId, long productId, LocalDateTime date);
+}
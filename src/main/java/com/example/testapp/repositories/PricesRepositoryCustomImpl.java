@@ -0,0 +1,201 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.EffectivePrice;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link PricesRepositoryCustom} implementation backed by {@link MongoOperations}.
+ */
+public class PricesRepositoryCustomImpl implements PricesRepositoryCustom {
+
+    private final MongoOperations mongoOperations;
+
+    public PricesRepositoryCustomImpl(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findEffectivePrice(long brandId, long productId, LocalDateTime date) {
+        return Optional.ofNullable(mongoOperations.findOne(effectivePriceQuery(brandId, productId, date), Price.class));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public EffectivePrice findEffectivePriceAndNextStart(long brandId, long productId, LocalDateTime date) {
+        Document result = mongoOperations.aggregate(effectivePriceAggregation(brandId, productId, date), Price.class, Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            return new EffectivePrice(null, null);
+        }
+        Price price = result.getList("effective", Document.class).stream()
+                .map(document -> mongoOperations.getConverter().read(Price.class, document))
+                .findFirst()
+                .orElse(null);
+        int minPriority = price == null ? Integer.MIN_VALUE : priorityOf(price);
+        LocalDateTime nextStartDate = null;
+        for (Document document : result.getList("nextStarts", Document.class)) {
+            Price next = mongoOperations.getConverter().read(Price.class, document);
+            if (priorityOf(next) >= minPriority
+                    && (price == null || !next.getStartDate().isAfter(price.getEndDate()))
+                    && (nextStartDate == null || next.getStartDate().isBefore(nextStartDate))) {
+                nextStartDate = next.getStartDate();
+            }
+        }
+        return new EffectivePrice(price, nextStartDate);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Price> findPricesApplyingWithin(Map<PriceKey, PriceQueryRange> ranges) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        return mongoOperations.find(pricesApplyingWithinQuery(ranges), Price.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<PriceKey, LocalDateTime> findNextStartDates(Map<PriceKey, PriceQueryRange> ranges) {
+        if (ranges.isEmpty()) {
+            return Map.of();
+        }
+        Map<PriceKey, LocalDateTime> nextStartDates = new HashMap<>();
+        for (Price next : mongoOperations.aggregate(nextStartDatesAggregation(ranges), Price.class, Price.class)) {
+            nextStartDates.put(PriceKey.of(next), next.getStartDate());
+        }
+        return nextStartDates;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Stream<Price> streamPrices(Long brandId, int batchSize) {
+        Query query = new Query(brandId == null ? new Criteria() : Criteria.where("brandId").is(brandId))
+                .with(Sort.by("brandId", "productId", "startDate"))
+                .cursorBatchSize(batchSize);
+        return mongoOperations.stream(query, Price.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Document explainEffectivePrice(long brandId, long productId, LocalDateTime date) {
+        Query query = effectivePriceQuery(brandId, productId, date);
+        MongoPersistentEntity<?> entity = mongoOperations.getConverter().getMappingContext().getRequiredPersistentEntity(Price.class);
+        QueryMapper queryMapper = new QueryMapper(mongoOperations.getConverter());
+        return mongoOperations.getCollection(mongoOperations.getCollectionName(Price.class))
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+                .limit(1)
+                .explain();
+    }
+
+    /**
+     * Builds the {@code $or} query fetching the prices of several products, one branch per product, each of
+     * them an equality on the brand and the product plus ranges on the start and end dates served by the
+     * {@link Price#LOOKUP_INDEX} compound index.
+     */
+    static Query pricesApplyingWithinQuery(Map<PriceKey, PriceQueryRange> ranges) {
+        List<Criteria> products = new ArrayList<>(ranges.size());
+        ranges.forEach((key, range) -> products.add(Criteria.where("brandId").is(key.brandId())
+                .and("productId").is(key.productId())
+                .and("startDate").lte(range.latest())
+                .and("endDate").gte(range.earliest())));
+        Query query = new Query(new Criteria().orOperator(products));
+        query.fields()
+                .exclude("_id")
+                .include("brandId", "productId", "priceList", "startDate", "endDate", "priority", "price", "currency");
+        return query;
+    }
+
+    /**
+     * Builds the aggregation of the first start date after its range of every product: an {@code $or} match, one
+     * branch per product served by the {@link Price#LOOKUP_INDEX} compound index, grouped by product.
+     */
+    static Aggregation nextStartDatesAggregation(Map<PriceKey, PriceQueryRange> ranges) {
+        List<Criteria> products = new ArrayList<>(ranges.size());
+        ranges.forEach((key, range) -> products.add(Criteria.where("brandId").is(key.brandId())
+                .and("productId").is(key.productId())
+                .and("startDate").gt(range.latest())));
+        return Aggregation.newAggregation(
+                Aggregation.match(new Criteria().orOperator(products)),
+                Aggregation.group("brandId", "productId").min("startDate").as("startDate"),
+                Aggregation.project("brandId", "productId", "startDate").andExclude("_id"));
+    }
+
+    /**
+     * Builds the aggregation of the effective price and the first start dates after it: a match on the prices of
+     * the product not ended at the date served by the {@link Price#LOOKUP_INDEX} compound index, projected like
+     * {@link #effectivePriceQuery(long, long, LocalDateTime)}, then a {@code $facet} keeping the winner among
+     * those started and the first start date per priority of the others.
+     */
+    static Aggregation effectivePriceAggregation(long brandId, long productId, LocalDateTime date) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("brandId").is(brandId)
+                        .and("productId").is(productId)
+                        .and("endDate").gte(date)),
+                Aggregation.project("brandId", "productId", "priceList", "startDate", "endDate", "priority", "price", "currency")
+                        .andExclude("_id"),
+                Aggregation.facet(
+                                Aggregation.match(Criteria.where("startDate").lte(date)),
+                                Aggregation.sort(Sort.by(Sort.Order.desc("priority"), Sort.Order.desc("startDate"))),
+                                Aggregation.limit(1))
+                        .as("effective")
+                        .and(
+                                Aggregation.match(Criteria.where("startDate").gt(date)),
+                                Aggregation.group("priority").min("startDate").as("startDate"),
+                                Aggregation.project("startDate").and("_id").as("priority").andExclude("_id"))
+                        .as("nextStarts"));
+    }
+
+    private static int priorityOf(Price price) {
+        return price.getPriority() == null ? Integer.MIN_VALUE : price.getPriority();
+    }
+
+    /**
+     * Builds the limit-1, projected query resolving the effective price. Its filter, sort and projection
+     * only touch fields of the {@link Price#LOOKUP_INDEX} compound index.
+     */
+    static Query effectivePriceQuery(long brandId, long productId, LocalDateTime date) {
+        Query query = new Query(Criteria.where("brandId").is(brandId)
+                .and("productId").is(productId)
+                .and("startDate").lte(date)
+                .and("endDate").gte(date))
+                .with(Sort.by(Sort.Order.desc("priority"), Sort.Order.desc("startDate")))
+                .limit(1);
+        query.fields()
+                .exclude("_id")
+                .include("brandId", "productId", "priceList", "startDate", "endDate", "priority", "price", "currency");
+        return query;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.Price;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Reactive counterpart of {@link PricesRepository}, used when the application runs on WebFlux.
+ */
+public interface ReactivePricesRepository extends ReactiveMongoRepository<Price, String>, ReactivePricesRepositoryCustom {
+}
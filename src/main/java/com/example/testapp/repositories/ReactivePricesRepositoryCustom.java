@@ -0,0 +1,46 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Custom queries of {@link ReactivePricesRepository}, running the same queries as {@link PricesRepositoryCustom}
+ * without blocking.
+ */
+public interface ReactivePricesRepositoryCustom {
+
+    /**
+     * Finds the {@link Price} that applies to the given brand ID, product ID, and date, with the covered, limit-1
+     * query of {@link PricesRepositoryCustom#findEffectivePrice(long, long, LocalDateTime)}.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date to filter prices by, must be within the start and end dates of the price
+     * @return the winning {@link Price}, or an empty {@code Mono} if no price applies at that date
+     */
+    Mono<Price> findEffectivePrice(long brandId, long productId, LocalDateTime date);
+
+    /**
+     * Finds, with a single query, the prices of several products that apply at some point of a range of dates given
+     * per product, like {@link PricesRepositoryCustom#findPricesApplyingWithin(Map)}.
+     *
+     * @param ranges the dates of interest of every product
+     * @return the prices of all the products, in no particular order
+     */
+    Flux<Price> findPricesApplyingWithin(Map<PriceKey, PriceQueryRange> ranges);
+
+    /**
+     * Finds, with a single aggregation, the first start date of the prices of several products starting after the
+     * latest date of a range given per product, like {@link PricesRepositoryCustom#findNextStartDates(Map)}.
+     *
+     * @param ranges the dates of interest of every product
+     * @return the first start date after its range of every product having one
+     */
+    Mono<Map<PriceKey, LocalDateTime>> findNextStartDates(Map<PriceKey, PriceQueryRange> ranges);
+}
@@ -0,0 +1,55 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * {@link ReactivePricesRepositoryCustom} implementation backed by {@link ReactiveMongoOperations}, sharing its
+ * queries with {@link PricesRepositoryCustomImpl}.
+ */
+public class ReactivePricesRepositoryCustomImpl implements ReactivePricesRepositoryCustom {
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+
+    public ReactivePricesRepositoryCustomImpl(ReactiveMongoOperations reactiveMongoOperations) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<Price> findEffectivePrice(long brandId, long productId, LocalDateTime date) {
+        return reactiveMongoOperations.findOne(PricesRepositoryCustomImpl.effectivePriceQuery(brandId, productId, date), Price.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Flux<Price> findPricesApplyingWithin(Map<PriceKey, PriceQueryRange> ranges) {
+        if (ranges.isEmpty()) {
+            return Flux.empty();
+        }
+        return reactiveMongoOperations.find(PricesRepositoryCustomImpl.pricesApplyingWithinQuery(ranges), Price.class);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<Map<PriceKey, LocalDateTime>> findNextStartDates(Map<PriceKey, PriceQueryRange> ranges) {
+        if (ranges.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return reactiveMongoOperations.aggregate(PricesRepositoryCustomImpl.nextStartDatesAggregation(ranges), Price.class, Price.class)
+                .collectMap(PriceKey::of, Price::getStartDate);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.model.TimelineBackfill;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository interface for managing the {@link TimelineBackfill} completion markers in a MongoDB database.
+ */
+public interface TimelineBackfillsRepository extends CrudRepository<TimelineBackfill, String> {
+}
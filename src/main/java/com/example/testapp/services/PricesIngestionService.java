@@ -0,0 +1,23 @@
+package com.example.testapp.services;
+
+import com.example.testapp.dtos.PriceIngestionReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service interface for loading large amounts of prices into the system without holding them all in memory.
+ */
+public interface PricesIngestionService {
+
+    /**
+     * Reads prices from a stream holding either newline-delimited JSON objects or a JSON array, and stores
+     * them as they are read, in fixed-size batches.
+     *
+     * @param prices the stream of JSON {@link com.example.testapp.model.Price} objects
+     * @return a {@link PriceIngestionReportDto} with the number of prices stored and the number that failed, and the
+     * parse error that stopped the ingestion if the stream is not well-formed JSON
+     * @throws IOException if the stream cannot be read
+     */
+    PriceIngestionReportDto ingest(InputStream prices) throws IOException;
+}
@@ -0,0 +1,187 @@
+package com.example.testapp.services;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceIngestionReportDto;
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.PriceLookupEngine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the {@link PricesIngestionService} interface.
+ *
+ * <p>Prices are parsed one at a time with Jackson's streaming parser and grouped into batches of a fixed size,
+ * each written with a single unordered bulk insert. A few batches are written concurrently while the next ones
+ * are parsed, and parsing waits whenever that many are in flight, so memory stays bounded by the batch size
+ * however large the payload. Stored prices are then handed over to the lookup engine.</p>
+ *
+ * <p>The writing threads are shared by every ingestion, with room for as many waiting batches as threads; once it is
+ * full, the batches are written by the request thread itself, so concurrent ingestions cannot pile up batches in
+ * memory either.</p>
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PricesIngestionServiceImpl implements PricesIngestionService, DisposableBean {
+
+    private final MongoOperations mongoOperations;
+    private final PriceLookupEngine priceLookupEngine;
+    private final ObjectReader priceReader;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final ExecutorService executor;
+    private final Object indexLock = new Object();
+
+    public PricesIngestionServiceImpl(MongoOperations mongoOperations, PriceLookupEngine priceLookupEngine,
+                                      ObjectMapper objectMapper, PricesProperties pricesProperties) {
+        this.mongoOperations = mongoOperations;
+        this.priceLookupEngine = priceLookupEngine;
+        this.priceReader = objectMapper.readerFor(Price.class);
+        this.batchSize = pricesProperties.getIngestion().getBatchSize();
+        this.maxInFlightBatches = pricesProperties.getIngestion().getMaxInFlightBatches();
+        this.executor = new ThreadPoolExecutor(maxInFlightBatches, maxInFlightBatches, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxInFlightBatches), new CustomizableThreadFactory("prices-ingestion-"),
+                (batch, pool) -> batch.run());
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Objects that cannot be bound to a {@link Price} are counted as failed and skipped. Malformed JSON stops
+     * the ingestion; the batches read until then are still stored, and the report tells the parse error.</p>
+     */
+    @Override
+    public PriceIngestionReportDto ingest(InputStream prices) throws IOException {
+        LongAdder inserted = new LongAdder();
+        LongAdder failed = new LongAdder();
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        List<Price> batch = new ArrayList<>(batchSize);
+        String error = null;
+        try {
+            try (MappingIterator<Price> iterator = priceReader.readValues(prices)) {
+                while (iterator.hasNextValue()) {
+                    try {
+                        batch.add(iterator.nextValue());
+                    } catch (JsonMappingException e) {
+                        failed.increment();
+                        continue;
+                    }
+                    if (batch.size() == batchSize) {
+                        submit(batch, inFlight, inserted, failed);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                log.warn("Stopped ingesting prices at malformed JSON", e);
+                error = e.getOriginalMessage();
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, inFlight, inserted, failed);
+            }
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlightBatches);
+        }
+        return PriceIngestionReportDto.builder()
+                .inserted(inserted.sum())
+                .failed(failed.sum())
+                .error(error)
+                .build();
+    }
+
+    private void submit(List<Price> batch, Semaphore inFlight, LongAdder inserted, LongAdder failed) {
+        inFlight.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    write(batch, inserted, failed);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts a batch and indexes the prices that were stored. Identifiers are assigned beforehand, so the
+     * indexed prices carry the identifier of their document.
+     */
+    private void write(List<Price> batch, LongAdder inserted, LongAdder failed) {
+        for (Price price : batch) {
+            if (price.get_id() == null) {
+                price.set_id(ObjectId.get().toHexString());
+            }
+        }
+        List<Price> stored = batch;
+        try {
+            inserted.add(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Price.class)
+                    .insert(batch)
+                    .execute()
+                    .getInsertedCount());
+        } catch (BulkOperationException e) {
+            inserted.add(e.getResult().getInsertedCount());
+            failed.add(e.getErrors().size());
+            stored = withoutFailed(batch, e.getErrors());
+        } catch (RuntimeException e) {
+            log.warn("Could not store a batch of {} prices", batch.size(), e);
+            failed.add(batch.size());
+            return;
+        }
+        try {
+            synchronized (indexLock) {
+                priceLookupEngine.index(stored);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not index a batch of {} stored prices", stored.size(), e);
+        }
+    }
+
+    private static List<Price> withoutFailed(List<Price> batch, List<BulkWriteError> errors) {
+        Set<Integer> failedIndexes = new HashSet<>();
+        for (BulkWriteError error : errors) {
+            failedIndexes.add(error.getIndex());
+        }
+        List<Price> stored = new ArrayList<>(batch.size() - failedIndexes.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                stored.add(batch.get(i));
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Stops the threads writing the batches.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
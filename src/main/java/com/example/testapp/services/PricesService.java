@@ -1,10 +1,15 @@
 package com.example.testapp.services;
 
 import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
 import com.example.testapp.model.Price;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.RenderedPrice;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service interface for handling operations related to prices.
@@ -20,10 +25,63 @@ public interface PricesService {
      * @param brandId   the ID of the brand
      * @param productId the ID of the product
      * @return a {@link PriceDto} containing the pricing information that matches the criteria
-     * @throws java.util.NoSuchElementException if no matching price is found
+     * @throws com.example.testapp.exceptions.PriceNotFoundException if no matching price is found
      */
     PriceDto getPriceByBrandIdAndProductIdAndDate(LocalDateTime date, Long brandId, Long productId);
 
+    /**
+     * Retrieves the encoded representation of the {@link PriceDto} for a given brand ID, product ID, and date: in
+     * JSON, the same bytes a {@link PriceDto} returned by {@link #getPriceByBrandIdAndProductIdAndDate} is
+     * serialized to, plus the date until which the price applies, as far as the stored prices tell.
+     *
+     * @param date      the date and time for which the price is being queried
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param encoding  the encoding of the representation
+     * @return the {@link RenderedPrice} of the matching {@link PriceDto}, with its entity tag and validity
+     * @throws com.example.testapp.exceptions.PriceNotFoundException if no matching price is found
+     */
+    RenderedPrice getRenderedPriceByBrandIdAndProductIdAndDate(LocalDateTime date, Long brandId, Long productId, PriceEncoding encoding);
+
+    /**
+     * Retrieves the effective prices of a product over a date range, as the ordered sequence of the segments during
+     * which a single price applies, overlapping prices already resolved by priority. Segments are clipped to the
+     * range, so each {@link PriceDto} carries the dates its price is effective within it, and stretches without
+     * price are left out.
+     *
+     * <p>The segments are produced lazily from a database cursor while the returned stream is consumed, so the
+     * stream must be closed.</p>
+     *
+     * @param from      the first date time of the range
+     * @param to        the last date time of the range
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @return a {@link Stream} over the effective price segments, sorted by start date
+     * @throws com.example.testapp.exceptions.InvalidPriceRangeException if the range starts after it ends
+     */
+    Stream<PriceDto> getPriceHistory(LocalDateTime from, LocalDateTime to, Long brandId, Long productId);
+
+    /**
+     * Retrieves every stored {@link Price}, or only those of a brand, sorted by brand ID, product ID and start date.
+     *
+     * <p>The prices are read from a database cursor in batches while the returned stream is consumed, so the
+     * stream must be closed.</p>
+     *
+     * @param brandId the ID of the brand, or {@code null} for the whole catalog
+     * @return a {@link Stream} over the prices
+     */
+    Stream<Price> exportPrices(Long brandId);
+
+    /**
+     * Retrieves the prices of a batch of brand ID, product ID and date lookups at once.
+     *
+     * @param queries the lookups to resolve
+     * @return a {@link PriceQueryResultDto} for every lookup, in the same order, telling whether a price was
+     * found and which one
+     * @throws com.example.testapp.exceptions.PriceBatchTooLargeException if the batch holds more lookups than allowed
+     */
+    List<PriceQueryResultDto> getPrices(List<PriceQueryDto> queries);
+
     /**
      * Adds a list of {@link Price} entities to the system.
      *
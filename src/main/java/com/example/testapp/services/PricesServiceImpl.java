@@ -1,31 +1,85 @@
 package com.example.testapp.services;
 
+import com.example.testapp.configuration.PricesProperties;
 import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.exceptions.InvalidPriceRangeException;
+import com.example.testapp.exceptions.PriceBatchTooLargeException;
+import com.example.testapp.exceptions.PriceNotFoundException;
 import com.example.testapp.model.Price;
 import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.PriceJsonRenderer;
 import com.example.testapp.services.converters.PriceToPriceDtoMapper;
+import com.example.testapp.services.converters.RenderedPrice;
+import com.example.testapp.services.lookup.PriceLookupEngine;
+import com.example.testapp.services.lookup.PriceQuery;
+import com.example.testapp.services.lookup.PriceSegment;
+import com.example.testapp.services.lookup.PriceTimelineFlattener;
+import com.example.testapp.services.lookup.PriceTimes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.NoSuchElementException;
-
-import static com.example.testapp.constants.InditexConstants.ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the {@link PricesService} interface for handling price-related operations.
  * This service provides methods to retrieve pricing information and add new prices to the system.
+ *
+ * <p>It records the time spent resolving single lookups, tagged by whether a price was found, the time spent
+ * mapping prices to DTOs, and the sizes of lookup batches and of saved batches.</p>
  */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PricesServiceImpl implements PricesService {
 
     private final PricesRepository pricesRepository;
+    private final PriceLookupEngine priceLookupEngine;
+    private final PriceJsonRenderer priceJsonRenderer;
+    private final int maxBatchSize;
+    private final int exportBatchSize;
+    private final Timer lookupFoundTimer;
+    private final Timer lookupNotFoundTimer;
+    private final Timer mapperTimer;
+    private final DistributionSummary queryBatchSize;
+    private final DistributionSummary saveBatchSize;
 
     /**
      * {@inheritDoc }
      */
-    public PricesServiceImpl(PricesRepository pricesRepository) {
+    public PricesServiceImpl(PricesRepository pricesRepository, PriceLookupEngine priceLookupEngine, PriceJsonRenderer priceJsonRenderer,
+                             PricesProperties pricesProperties, MeterRegistry meterRegistry) {
         this.pricesRepository = pricesRepository;
+        this.priceLookupEngine = priceLookupEngine;
+        this.priceJsonRenderer = priceJsonRenderer;
+        this.maxBatchSize = pricesProperties.getBatch().getMaxSize();
+        this.exportBatchSize = pricesProperties.getExport().getBatchSize();
+        this.lookupFoundTimer = lookupTimer(meterRegistry, "found");
+        this.lookupNotFoundTimer = lookupTimer(meterRegistry, "not_found");
+        this.mapperTimer = Timer.builder("prices.mapper")
+                .description("Time spent mapping a price to its DTO")
+                .register(meterRegistry);
+        this.queryBatchSize = DistributionSummary.builder("prices.query.batch.size")
+                .description("Lookups per batch lookup request")
+                .register(meterRegistry);
+        this.saveBatchSize = DistributionSummary.builder("prices.save.batch.size")
+                .description("Prices per batch saved")
+                .register(meterRegistry);
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("prices.lookup")
+                .description("Time spent resolving the price of a product at a date")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
@@ -33,11 +87,85 @@ public class PricesServiceImpl implements PricesService {
      */
     @Override
     public PriceDto getPriceByBrandIdAndProductIdAndDate(LocalDateTime date, Long brandId, Long productId) {
-        List<Price> prices = pricesRepository.findByBrandIdAndProductIdAndDate(brandId, productId, date);
-        return prices.stream()
-                .findFirst()
-                .map(PriceToPriceDtoMapper::toDto)
-                .orElseThrow(() -> new NoSuchElementException(String.format(ERROR_MESSAGE_NO_SUCH_ELEMENT_EXCEPTION, date, brandId, productId)));
+        return toDto(findPrice(date, brandId, productId));
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The price is resolved together with the window it applies for, which gives its validity. The bytes are
+     * rendered once per resolved window and reused afterwards, skipping the mapping and the serialization on
+     * repeated lookups.</p>
+     */
+    @Override
+    public RenderedPrice getRenderedPriceByBrandIdAndProductIdAndDate(LocalDateTime date, Long brandId, Long productId, PriceEncoding encoding) {
+        long start = System.nanoTime();
+        PriceSegment segment = priceLookupEngine.resolve(brandId, productId, date);
+        (segment.price() == null ? lookupNotFoundTimer : lookupFoundTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (segment.price() == null) {
+            throw new PriceNotFoundException(date, brandId, productId);
+        }
+        return priceJsonRenderer.render(segment, encoding);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The prices overlapping the range are read with a single index range scan, sorted by start date, and
+     * flattened as they are read, so memory only grows with the number of prices applying at the same time.</p>
+     */
+    @Override
+    public Stream<PriceDto> getPriceHistory(LocalDateTime from, LocalDateTime to, Long brandId, Long productId) {
+        if (from.isAfter(to)) {
+            throw new InvalidPriceRangeException(from, to);
+        }
+        long rangeFrom = PriceTimes.toEpochMilli(from);
+        long rangeTo = PriceTimes.toEpochMilli(to) + 1;
+        return PriceTimelineFlattener.flatten(pricesRepository.streamByBrandIdAndProductIdOverlapping(brandId, productId, from, to))
+                .dropWhile(segment -> segment.validTo() <= rangeFrom)
+                .takeWhile(segment -> segment.validFrom() < rangeTo)
+                .map(segment -> PriceToPriceDtoMapper.toDto(segment.price(),
+                        PriceTimes.toLocalDateTime(Math.max(segment.validFrom(), rangeFrom)),
+                        PriceTimes.toLocalDateTime(Math.min(segment.validTo(), rangeTo) - 1)));
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The prices are read straight from the repository, fetching {@code prices.export.batch-size} of them per
+     * round trip, bypassing the lookup engine.</p>
+     */
+    @Override
+    public Stream<Price> exportPrices(Long brandId) {
+        return pricesRepository.streamPrices(brandId, exportBatchSize);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The whole batch is handed over to the lookup engine at once, so it can be resolved with a few grouped
+     * queries instead of one per lookup.</p>
+     */
+    @Override
+    public List<PriceQueryResultDto> getPrices(List<PriceQueryDto> queries) {
+        if (queries.size() > maxBatchSize) {
+            throw new PriceBatchTooLargeException(queries.size(), maxBatchSize);
+        }
+        queryBatchSize.record(queries.size());
+        List<PriceQuery> lookups = new ArrayList<>(queries.size());
+        for (PriceQueryDto query : queries) {
+            lookups.add(new PriceQuery(query.getBrandId(), query.getProductId(), query.getDate()));
+        }
+        List<PriceSegment> segments = priceLookupEngine.resolveAll(lookups);
+        List<PriceQueryResultDto> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            PriceQueryDto query = queries.get(i);
+            Price price = segments.get(i).price();
+            results.add(PriceQueryResultDto.builder()
+                    .brandId(query.getBrandId())
+                    .productId(query.getProductId())
+                    .date(query.getDate())
+                    .found(price != null)
+                    .price(price == null ? null : toDto(price))
+                    .build());
+        }
+        return results;
     }
 
     /**
@@ -45,6 +173,24 @@ public class PricesServiceImpl implements PricesService {
      */
     @Override
     public void addPrices(List<Price> prices) {
-        pricesRepository.saveAll(prices);
+        saveBatchSize.record(prices.size());
+        priceLookupEngine.index(pricesRepository.saveAll(prices));
+    }
+
+    private Price findPrice(LocalDateTime date, Long brandId, Long productId) {
+        long start = System.nanoTime();
+        Price price = priceLookupEngine.findPrice(brandId, productId, date).orElse(null);
+        (price == null ? lookupNotFoundTimer : lookupFoundTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (price == null) {
+            throw new PriceNotFoundException(date, brandId, productId);
+        }
+        return price;
+    }
+
+    private PriceDto toDto(Price price) {
+        long start = System.nanoTime();
+        PriceDto priceDto = PriceToPriceDtoMapper.toDto(price);
+        mapperTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return priceDto;
     }
 }
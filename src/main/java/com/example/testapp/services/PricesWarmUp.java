@@ -0,0 +1,186 @@
+package com.example.testapp.services;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Warms the application up before it is reported ready: lookups are replayed against its own HTTP endpoint, so
+ * the controller, the service, the mapper and Jackson get compiled by the JIT, the lookup caches get filled and
+ * connections get opened in the MongoDB pool before real traffic comes in.
+ *
+ * <p>Spring Boot reports the application ready to accept traffic once every {@link ApplicationReadyEvent}
+ * listener has returned, so running the warm-up in the last of them keeps the readiness state at
+ * {@link ReadinessState#REFUSING_TRAFFIC} until it finishes or its time budget runs out. The listeners it relies
+ * on, which ensure the indexes and load the known products, are ordered ahead of it explicitly, since listeners
+ * without an order share its lowest precedence. Failures are logged and do not prevent the application from
+ * becoming ready.</p>
+ *
+ * <p>In cluster mode, only lookups of the brands owned by this instance are replayed.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "prices.warm-up", name = "enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PricesWarmUp {
+
+    /**
+     * Product looked up every tenth request, which has no price, to warm the not found path up as well.
+     */
+    static final long UNKNOWN_PRODUCT_ID = Long.MAX_VALUE;
+
+    private final PricesRepository pricesRepository;
+    private final PricesProperties.WarmUp properties;
+    private final BrandPartitioner brandPartitioner;
+
+    public PricesWarmUp(PricesRepository pricesRepository, PricesProperties pricesProperties, BrandPartitioner brandPartitioner) {
+        this.pricesRepository = pricesRepository;
+        this.properties = pricesProperties.getWarmUp();
+        this.brandPartitioner = brandPartitioner;
+    }
+
+    /**
+     * Replays the lookups, as configured under {@code prices.warm-up}.
+     *
+     * @param event the event published once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext context) || context.getWebServer() == null) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(event.getApplicationContext(), ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeBudget().toNanos();
+        List<String> lookups;
+        try {
+            lookups = properties.getLookupsFile() == null
+                    ? syntheticLookups(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
+                    : recordedLookups(properties.getLookupsFile(), brandPartitioner);
+        } catch (IOException | DataAccessException ex) {
+            log.warn("Could not prepare the warm-up lookups: {}", ex.getMessage());
+            return;
+        }
+        if (lookups.isEmpty()) {
+            return;
+        }
+        String baseUri = "http://localhost:" + context.getWebServer().getPort()
+                + event.getApplicationContext().getEnvironment().getProperty("server.servlet.context-path", "")
+                + InditexConstants.PRICES_URL + "?";
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getConcurrency(), new CustomizableThreadFactory("prices-warm-up-"));
+        for (int worker = 0; worker < properties.getConcurrency(); worker++) {
+            workers.execute(() -> {
+                for (int i = sent.getAndIncrement(); i < properties.getRequests() && System.nanoTime() < deadline; i = sent.getAndIncrement()) {
+                    try {
+                        httpClient.send(HttpRequest.newBuilder(URI.create(baseUri + lookups.get(i % lookups.size()))).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException ex) {
+                        failed.incrementAndGet();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                workers.shutdownNow();
+                log.warn("Warm-up time budget of {} ran out", properties.getTimeBudget());
+            }
+        } catch (InterruptedException ex) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("Warmed up with {} lookups ({} failed) in {} ms", Math.min(sent.get(), properties.getRequests()), failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Builds lookups of the first stored products at the given date, one in ten of them for a product without
+     * prices.
+     */
+    List<String> syntheticLookups(LocalDateTime date) {
+        List<String> lookups = new ArrayList<>();
+        try (Stream<Price> keys = pricesRepository.streamProductKeys()) {
+            Stream<Price> ownedKeys = keys.filter(key -> brandPartitioner.owns(key.getBrandId()));
+            for (Price key : (Iterable<Price>) ownedKeys.limit(properties.getRequests())::iterator) {
+                lookups.add(query(key.getBrandId(), lookups.size() % 10 == 9 ? UNKNOWN_PRODUCT_ID : key.getProductId(), date));
+            }
+        }
+        return lookups;
+    }
+
+    /**
+     * Reads recorded lookups, one {@code brandId,productId,date} line each; blank lines and lookups of brands
+     * owned by other instances are skipped.
+     */
+    static List<String> recordedLookups(Path file, BrandPartitioner brandPartitioner) throws IOException {
+        List<String> lookups = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("expected brandId,productId,date");
+                }
+                long brandId = Long.parseLong(fields[0].trim());
+                long productId = Long.parseLong(fields[1].trim());
+                LocalDateTime date = LocalDateTime.parse(fields[2].trim());
+                if (brandPartitioner.owns(brandId)) {
+                    lookups.add(query(brandId, productId, date));
+                }
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw new IOException("Invalid warm-up lookup '" + line + "': " + ex.getMessage(), ex);
+            }
+        }
+        return lookups;
+    }
+
+    private static String query(long brandId, long productId, LocalDateTime date) {
+        return "date=" + date + "&productId=" + productId + "&brandId=" + brandId;
+    }
+}
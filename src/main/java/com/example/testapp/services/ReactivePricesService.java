@@ -0,0 +1,45 @@
+package com.example.testapp.services;
+
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.model.Price;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link PricesService}, used when the application runs on WebFlux.
+ */
+public interface ReactivePricesService {
+
+    /**
+     * Retrieves a {@link PriceDto} for a given brand ID, product ID, and date.
+     *
+     * @param date      the date and time for which the price is being queried
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @return a {@code Mono} emitting the {@link PriceDto} that matches the criteria, or failing with a
+     * {@link com.example.testapp.exceptions.PriceNotFoundException} if no matching price is found
+     */
+    Mono<PriceDto> getPriceByBrandIdAndProductIdAndDate(LocalDateTime date, Long brandId, Long productId);
+
+    /**
+     * Retrieves the prices of a batch of brand ID, product ID and date lookups at once.
+     *
+     * @param queries the lookups to resolve
+     * @return a {@code Mono} emitting a {@link PriceQueryResultDto} for every lookup, in the same order, or
+     * failing with a {@link com.example.testapp.exceptions.PriceBatchTooLargeException} if the batch holds more
+     * lookups than allowed
+     */
+    Mono<List<PriceQueryResultDto>> getPrices(List<PriceQueryDto> queries);
+
+    /**
+     * Adds a list of {@link Price} entities to the system.
+     *
+     * @param prices a list of {@link Price} entities to be added
+     * @return a {@code Mono} completing once the prices are stored
+     */
+    Mono<Void> addPrices(List<Price> prices);
+}
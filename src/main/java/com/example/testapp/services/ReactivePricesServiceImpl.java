@@ -0,0 +1,108 @@
+package com.example.testapp.services;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.exceptions.PriceBatchTooLargeException;
+import com.example.testapp.exceptions.PriceNotFoundException;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.ReactivePricesRepository;
+import com.example.testapp.services.converters.PriceToPriceDtoMapper;
+import com.example.testapp.services.lookup.PriceBatches;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQuery;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import com.example.testapp.services.lookup.PriceSegment;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the {@link ReactivePricesService} interface, resolving lookups with the same queries as
+ * {@link PricesServiceImpl} does with the {@code repository} lookup engine, through the reactive driver.
+ *
+ * <p>It deliberately leaves out the lookup engine chain: the caching, coalescing and known product layers, and the
+ * in-memory and timeline engines, are blocking, and running them here would hold the event loop or need a pool of
+ * threads, which is what this stack exists to avoid. For the same reason the reactive API is limited to point and
+ * batch lookups and insertion, answered in JSON without validUntil, entity tags or Cache-Control; history, export,
+ * bulk ingestion, other encodings, gRPC and the cluster mode are only served on the servlet stack, whose beans are
+ * not created under the reactive profile.</p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePricesServiceImpl implements ReactivePricesService {
+
+    private final ReactivePricesRepository reactivePricesRepository;
+    private final int maxBatchSize;
+
+    public ReactivePricesServiceImpl(ReactivePricesRepository reactivePricesRepository, PricesProperties pricesProperties) {
+        this.reactivePricesRepository = reactivePricesRepository;
+        this.maxBatchSize = pricesProperties.getBatch().getMaxSize();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<PriceDto> getPriceByBrandIdAndProductIdAndDate(LocalDateTime date, Long brandId, Long productId) {
+        return reactivePricesRepository.findEffectivePrice(brandId, productId, date)
+                .map(PriceToPriceDtoMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new PriceNotFoundException(date, brandId, productId)));
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The groups of products of the batch are fetched concurrently.</p>
+     */
+    @Override
+    public Mono<List<PriceQueryResultDto>> getPrices(List<PriceQueryDto> queries) {
+        if (queries.size() > maxBatchSize) {
+            return Mono.error(new PriceBatchTooLargeException(queries.size(), maxBatchSize));
+        }
+        List<PriceQuery> lookups = new ArrayList<>(queries.size());
+        for (PriceQueryDto query : queries) {
+            lookups.add(new PriceQuery(query.getBrandId(), query.getProductId(), query.getDate()));
+        }
+        List<Map<PriceKey, PriceQueryRange>> chunks = PriceBatches.rangesByChunk(lookups);
+        Mono<List<Price>> prices = Flux.fromIterable(chunks)
+                .flatMap(reactivePricesRepository::findPricesApplyingWithin)
+                .collectList();
+        Mono<Map<PriceKey, LocalDateTime>> nextStartDates = Flux.fromIterable(chunks)
+                .flatMap(reactivePricesRepository::findNextStartDates)
+                .collect(HashMap::new, Map::putAll);
+        return Mono.zip(prices, nextStartDates)
+                .map(fetched -> toResults(queries, PriceBatches.resolve(lookups, fetched.getT1(), fetched.getT2())));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Mono<Void> addPrices(List<Price> prices) {
+        return reactivePricesRepository.saveAll(prices).then();
+    }
+
+    private static List<PriceQueryResultDto> toResults(List<PriceQueryDto> queries, List<PriceSegment> segments) {
+        List<PriceQueryResultDto> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            PriceQueryDto query = queries.get(i);
+            Price price = segments.get(i).price();
+            results.add(PriceQueryResultDto.builder()
+                    .brandId(query.getBrandId())
+                    .productId(query.getProductId())
+                    .date(query.getDate())
+                    .found(price != null)
+                    .price(price == null ? null : PriceToPriceDtoMapper.toDto(price))
+                    .build());
+        }
+        return results;
+    }
+}
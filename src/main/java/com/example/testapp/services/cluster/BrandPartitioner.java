@@ -0,0 +1,160 @@
+package com.example.testapp.services.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Assigns every brand to the cluster member that owns it.
+ *
+ * <p>Brands are hashed into a fixed number of partitions, and partitions are spread over the members with
+ * consistent hashing: every member is placed on a hash ring at several points, and a partition belongs to the
+ * first member found clockwise from its own hash. Every member computes the same assignment from the same member
+ * list, without talking to the others, and adding or removing a member only moves the partitions next to its
+ * points.</p>
+ */
+public final class BrandPartitioner {
+
+    /**
+     * Partitioner of a single instance, which owns every brand.
+     */
+    public static final BrandPartitioner SINGLE_NODE = new BrandPartitioner(null, 1, new String[]{null});
+
+    private final String self;
+    private final int partitions;
+    private final String[] owners;
+
+    private BrandPartitioner(String self, int partitions, String[] owners) {
+        this.self = self;
+        this.partitions = partitions;
+        this.owners = owners;
+    }
+
+    /**
+     * Builds the assignment of a cluster.
+     *
+     * @param self         the base URL of this instance, which must be one of the members
+     * @param members      the base URLs of every member
+     * @param partitions   the number of partitions the brands are hashed into
+     * @param virtualNodes the number of points of every member on the hash ring
+     * @return the partitioner of this instance
+     * @throws IllegalArgumentException if there are no members, or this instance is not one of them
+     */
+    public static BrandPartitioner of(String self, Collection<String> members, int partitions, int virtualNodes) {
+        if (partitions < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Partitions and virtual nodes must be positive");
+        }
+        Set<String> normalizedMembers = new LinkedHashSet<>();
+        for (String member : members) {
+            if (member != null && !member.isBlank()) {
+                normalizedMembers.add(normalize(member));
+            }
+        }
+        if (normalizedMembers.isEmpty()) {
+            throw new IllegalArgumentException("The cluster has no members");
+        }
+        String normalizedSelf = self == null ? null : normalize(self);
+        if (!normalizedMembers.contains(normalizedSelf)) {
+            throw new IllegalArgumentException("This instance, " + self + ", is not one of the members " + normalizedMembers);
+        }
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String member : normalizedMembers) {
+            for (int point = 0; point < virtualNodes; point++) {
+                ring.putIfAbsent(hash(member + "#" + point), member);
+            }
+        }
+        String[] owners = new String[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            Map.Entry<Long, String> owner = ring.ceilingEntry(mix(partition));
+            owners[partition] = (owner == null ? ring.firstEntry() : owner).getValue();
+        }
+        return new BrandPartitioner(normalizedSelf, partitions, owners);
+    }
+
+    /**
+     * Returns the partition the brand is hashed into.
+     *
+     * @param brandId the ID of the brand
+     * @return the partition, between 0 and the number of partitions, exclusive
+     */
+    public int partitionOf(long brandId) {
+        return (int) Math.floorMod(mix(brandId), (long) partitions);
+    }
+
+    /**
+     * Returns the member owning the brand.
+     *
+     * @param brandId the ID of the brand
+     * @return the base URL of the owner, {@code null} on a single instance
+     */
+    public String ownerOf(long brandId) {
+        return owners[partitionOf(brandId)];
+    }
+
+    /**
+     * Tells whether this instance owns the brand, and so keeps its prices in memory and serves its lookups.
+     *
+     * @param brandId the ID of the brand
+     * @return {@code true} if this instance owns the brand
+     */
+    public boolean owns(long brandId) {
+        return this == SINGLE_NODE || self.equals(ownerOf(brandId));
+    }
+
+    /**
+     * Returns the partitions owned by this instance.
+     *
+     * @return the number of partitions owned
+     */
+    public int ownedPartitions() {
+        int owned = 0;
+        for (String owner : owners) {
+            if (this == SINGLE_NODE || self.equals(owner)) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Returns the number of partitions the brands are hashed into.
+     *
+     * @return the number of partitions
+     */
+    public int partitions() {
+        return partitions;
+    }
+
+    private static String normalize(String member) {
+        String trimmed = member.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /**
+     * Hashes a string with 64-bit FNV-1a, then spreads its bits, so every JVM places members at the same points.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Spreads the bits of the value (finalizer of MurmurHash3).
+     */
+    private static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
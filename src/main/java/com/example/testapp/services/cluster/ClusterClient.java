@@ -0,0 +1,76 @@
+package com.example.testapp.services.cluster;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP client of the other cluster members, used to forward them the lookups of the brands they own, as told by the
+ * {@link BrandPartitioner}. Forwarded requests carry the {@value InditexConstants#CLUSTER_FORWARDED_BY_HEADER}
+ * header, so the owner never forwards them again, and are given up after {@code prices.cluster.forward-timeout}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "prices.cluster", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClusterClient {
+
+    private final String self;
+    private final Duration forwardTimeout;
+    private final HttpClient httpClient;
+
+    public ClusterClient(PricesProperties pricesProperties) {
+        PricesProperties.Cluster cluster = pricesProperties.getCluster();
+        this.self = cluster.getSelf();
+        this.forwardTimeout = cluster.getForwardTimeout();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(forwardTimeout)
+                .build();
+    }
+
+    /**
+     * Sends a GET request to a member, waiting for its response up to {@code prices.cluster.forward-timeout}.
+     *
+     * @param owner        the base URL of the member
+     * @param pathAndQuery the path of the request, followed by its query if any
+     * @param headers      the headers to send along, by name
+     * @return the response of the member
+     * @throws IOException          if the member cannot be reached, or does not answer in time
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    public HttpResponse<byte[]> get(String owner, String pathAndQuery, Map<String, String> headers) throws IOException, InterruptedException {
+        return get(owner, pathAndQuery, headers, forwardTimeout);
+    }
+
+    /**
+     * Sends a GET request to a member, waiting for its response up to the given timeout, within
+     * {@code prices.cluster.forward-timeout}.
+     *
+     * @param owner        the base URL of the member
+     * @param pathAndQuery the path of the request, followed by its query if any
+     * @param headers      the headers to send along, by name
+     * @param timeout      the longest time to wait for the response
+     * @return the response of the member
+     * @throws IOException          if the member cannot be reached, or does not answer in time
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    public HttpResponse<byte[]> get(String owner, String pathAndQuery, Map<String, String> headers, Duration timeout)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(owner + pathAndQuery))
+                .timeout(timeout.compareTo(forwardTimeout) < 0 ? timeout : forwardTimeout)
+                .header(InditexConstants.CLUSTER_FORWARDED_BY_HEADER, self)
+                .GET();
+        headers.forEach(request::header);
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
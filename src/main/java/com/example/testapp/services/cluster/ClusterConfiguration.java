@@ -0,0 +1,52 @@
+package com.example.testapp.services.cluster;
+
+import com.example.testapp.configuration.PricesProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Builds the {@link BrandPartitioner} of this instance from {@code prices.cluster}: the
+ * {@link BrandPartitioner#SINGLE_NODE single node} one unless the cluster mode is enabled.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClusterConfiguration {
+
+    /**
+     * Builds the {@link BrandPartitioner}.
+     *
+     * @param pricesProperties the prices configuration
+     * @return the partitioner of this instance
+     * @throws IOException if the members file cannot be read
+     */
+    @Bean
+    public BrandPartitioner brandPartitioner(PricesProperties pricesProperties) throws IOException {
+        PricesProperties.Cluster cluster = pricesProperties.getCluster();
+        if (!cluster.isEnabled()) {
+            return BrandPartitioner.SINGLE_NODE;
+        }
+        List<String> members = cluster.getMembersFile() == null ? cluster.getMembers() : readMembers(cluster.getMembersFile());
+        BrandPartitioner partitioner = BrandPartitioner.of(cluster.getSelf(), members, cluster.getPartitions(), cluster.getVirtualNodes());
+        log.info("Cluster of {} members, {} owns {} of {} partitions", members.size(), cluster.getSelf(),
+                partitioner.ownedPartitions(), partitioner.partitions());
+        return partitioner;
+    }
+
+    /**
+     * Reads the base URLs of the members, one per line; blank lines and comments are skipped.
+     */
+    static List<String> readMembers(Path file) throws IOException {
+        return Files.readAllLines(file).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.testapp.services.converters;
+
+import com.example.testapp.dtos.PriceDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Encodes a {@link PriceDto} in every {@link PriceEncoding}. The Jackson encodings share the configuration of the
+ * given {@link ObjectMapper}, so CBOR and Smile carry the same fields and values as JSON.
+ */
+public final class PriceDtoEncoder {
+
+    private final Map<PriceEncoding, ObjectWriter> writers = new EnumMap<>(PriceEncoding.class);
+
+    public PriceDtoEncoder(ObjectMapper objectMapper) {
+        writers.put(PriceEncoding.JSON, objectMapper.writerFor(PriceDto.class));
+        writers.put(PriceEncoding.CBOR, objectMapper.copyWith(new CBORFactory()).writerFor(PriceDto.class));
+        writers.put(PriceEncoding.SMILE, objectMapper.copyWith(new SmileFactory()).writerFor(PriceDto.class));
+    }
+
+    /**
+     * Encodes a {@link PriceDto}.
+     *
+     * @param priceDto the {@link PriceDto} to encode
+     * @param encoding the encoding to use
+     * @return the encoded bytes
+     */
+    public byte[] encode(PriceDto priceDto, PriceEncoding encoding) {
+        if (encoding == PriceEncoding.PROTOBUF) {
+            return PriceDtoToProtobufMapper.toMessage(priceDto).toByteArray();
+        }
+        try {
+            return writers.get(encoding).writeValueAsBytes(priceDto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.testapp.services.converters;
+
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.model.Price;
+import com.example.testapp.protobuf.PriceMessage;
+import com.example.testapp.protobuf.PriceQueryResultMessage;
+import com.example.testapp.protobuf.PriceQueryResultsMessage;
+import com.example.testapp.protobuf.StoredPriceMessage;
+import com.example.testapp.services.lookup.PriceTimes;
+
+import java.util.List;
+
+/**
+ * Converts the response DTOs, and the stored prices, to the Protocol Buffers messages of {@code prices.proto} and
+ * {@code price_lookup.proto}. Dates become epoch milliseconds, read as UTC like every other date of the lookup
+ * structures; absent fields are left unset.
+ */
+public final class PriceDtoToProtobufMapper {
+
+    private PriceDtoToProtobufMapper() {
+    }
+
+    /**
+     * Converts a {@link PriceDto} to a {@link PriceMessage}.
+     *
+     * @param priceDto the {@link PriceDto} to be converted
+     * @return the {@link PriceMessage} with the fields of the {@link PriceDto}
+     */
+    public static PriceMessage toMessage(PriceDto priceDto) {
+        PriceMessage.Builder message = PriceMessage.newBuilder();
+        if (priceDto.getProductId() != null) {
+            message.setProductId(priceDto.getProductId());
+        }
+        if (priceDto.getBrandId() != null) {
+            message.setBrandId(priceDto.getBrandId());
+        }
+        if (priceDto.getPriceList() != null) {
+            message.setPriceList(priceDto.getPriceList());
+        }
+        if (priceDto.getStartDate() != null) {
+            message.setStartDate(PriceTimes.toEpochMilli(priceDto.getStartDate()));
+        }
+        if (priceDto.getEndDate() != null) {
+            message.setEndDate(PriceTimes.toEpochMilli(priceDto.getEndDate()));
+        }
+        if (priceDto.getFinalPrice() != null) {
+            message.setFinalPrice(priceDto.getFinalPrice());
+        }
+        if (priceDto.getValidUntil() != null) {
+            message.setValidUntil(PriceTimes.toEpochMilli(priceDto.getValidUntil()));
+        }
+        return message.build();
+    }
+
+    /**
+     * Converts the results of a batch of lookups to a {@link PriceQueryResultsMessage}.
+     *
+     * @param results the {@link PriceQueryResultDto} of every lookup, in order
+     * @return the {@link PriceQueryResultsMessage} with a {@link PriceQueryResultMessage} for every result
+     */
+    public static PriceQueryResultsMessage toMessage(List<PriceQueryResultDto> results) {
+        PriceQueryResultsMessage.Builder message = PriceQueryResultsMessage.newBuilder();
+        for (PriceQueryResultDto result : results) {
+            message.addResults(toMessage(result));
+        }
+        return message.build();
+    }
+
+    /**
+     * Converts the result of a lookup to a {@link PriceQueryResultMessage}.
+     *
+     * @param result the {@link PriceQueryResultDto} to be converted
+     * @return the {@link PriceQueryResultMessage} with the fields of the result
+     */
+    public static PriceQueryResultMessage toMessage(PriceQueryResultDto result) {
+        PriceQueryResultMessage.Builder message = PriceQueryResultMessage.newBuilder()
+                .setFound(result.isFound());
+        if (result.getBrandId() != null) {
+            message.setBrandId(result.getBrandId());
+        }
+        if (result.getProductId() != null) {
+            message.setProductId(result.getProductId());
+        }
+        if (result.getDate() != null) {
+            message.setDate(PriceTimes.toEpochMilli(result.getDate()));
+        }
+        if (result.getPrice() != null) {
+            message.setPrice(toMessage(result.getPrice()));
+        }
+        return message.build();
+    }
+
+    /**
+     * Converts a stored {@link Price} to a {@link StoredPriceMessage}.
+     *
+     * @param price the {@link Price} entity to be converted
+     * @return the {@link StoredPriceMessage} with the fields of the {@link Price}
+     */
+    public static StoredPriceMessage toMessage(Price price) {
+        StoredPriceMessage.Builder message = StoredPriceMessage.newBuilder();
+        if (price.getBrandId() != null) {
+            message.setBrandId(price.getBrandId());
+        }
+        if (price.getProductId() != null) {
+            message.setProductId(price.getProductId());
+        }
+        if (price.getPriceList() != null) {
+            message.setPriceList(price.getPriceList());
+        }
+        if (price.getPriority() != null) {
+            message.setPriority(price.getPriority());
+        }
+        if (price.getStartDate() != null) {
+            message.setStartDate(PriceTimes.toEpochMilli(price.getStartDate()));
+        }
+        if (price.getEndDate() != null) {
+            message.setEndDate(PriceTimes.toEpochMilli(price.getEndDate()));
+        }
+        if (price.getPrice() != null) {
+            message.setPrice(price.getPrice().toPlainString());
+        }
+        if (price.getCurrency() != null) {
+            message.setCurrency(price.getCurrency().getCurrencyCode());
+        }
+        return message.build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.testapp.services.converters;
+
+import com.example.testapp.constants.InditexConstants;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodings prices are served in, negotiated with the {@code Accept} header. JSON is the default; CBOR and Smile
+ * are binary encodings of the same Jackson data model, and Protocol Buffers follows the schema of
+ * {@code prices.proto}, with dates as epoch milliseconds.
+ */
+public enum PriceEncoding {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(MediaType.parseMediaType(InditexConstants.APPLICATION_SMILE_VALUE)),
+    PROTOBUF(MediaType.parseMediaType(InditexConstants.APPLICATION_PROTOBUF_VALUE));
+
+    private static final PriceEncoding[] ENCODINGS = values();
+
+    private final MediaType mediaType;
+
+    PriceEncoding(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the media type of the encoding.
+     *
+     * @return the {@link MediaType} responses in this encoding are sent with
+     */
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the encoding preferred by the client: the first one included in the most preferred media type,
+     * by quality value, that includes any. Wildcards get JSON.
+     *
+     * @param accept the value of the {@code Accept} header, if any
+     * @return the negotiated encoding, {@link #JSON} when the header is absent, invalid or matches none
+     */
+    public static PriceEncoding negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return JSON;
+        }
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                break;
+            }
+            for (PriceEncoding encoding : ENCODINGS) {
+                if (mediaType.includes(encoding.mediaType)) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+}
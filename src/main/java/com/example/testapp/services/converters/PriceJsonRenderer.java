@@ -0,0 +1,101 @@
+package com.example.testapp.services.converters;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.PriceSegment;
+import com.example.testapp.services.lookup.PriceTimes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders the JSON response of a resolved {@link Price}: its {@link PriceDto}, with the date until which it
+ * applies, serialized to UTF-8 with the application's {@link ObjectMapper}, so the bytes are the same that
+ * Spring MVC would write for the DTO.
+ *
+ * <p>The response of a resolved {@link PriceSegment} never changes, so the bytes and their entity tag are
+ * rendered once and kept as long as the segment instance is in use: the lookup cache returns the same instance
+ * for every date within the segment, and later lookups skip the mapping, the serialization and the hashing.
+ * Segments are keyed by identity, since the documents read for lookups carry no ID.</p>
+ *
+ * <p>Responses can also be rendered in the binary {@link PriceEncoding encodings}. Each encoding has a cache of
+ * its own, so only the encodings clients ask for take memory, and its own entity tags.</p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceJsonRenderer {
+
+    private static final int ETAG_BYTES = 12;
+
+    private final PriceDtoEncoder encoder;
+    private final Map<PriceEncoding, Cache<PriceSegment, RenderedPrice>> rendered = new EnumMap<>(PriceEncoding.class);
+
+    public PriceJsonRenderer(ObjectMapper objectMapper, PricesProperties pricesProperties, MeterRegistry meterRegistry) {
+        this.encoder = new PriceDtoEncoder(objectMapper);
+        for (PriceEncoding encoding : PriceEncoding.values()) {
+            Cache<PriceSegment, RenderedPrice> cache = Caffeine.newBuilder()
+                    .weakKeys()
+                    .maximumSize(pricesProperties.getRendering().getMaximumSize())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "prices.rendered", "encoding", encoding.name().toLowerCase(Locale.ROOT));
+            rendered.put(encoding, cache);
+        }
+    }
+
+    /**
+     * Returns the JSON response of the price of the given segment, rendering it on first use. The returned
+     * array is shared and must not be modified.
+     *
+     * @param segment the resolved {@link PriceSegment}, which must have a price
+     * @return the rendered response of the {@link PriceDto} of the price, valid until the end of the segment
+     */
+    public RenderedPrice render(PriceSegment segment) {
+        return render(segment, PriceEncoding.JSON);
+    }
+
+    /**
+     * Returns the response of the price of the given segment in the given encoding, rendering it on first use.
+     * The returned array is shared and must not be modified.
+     *
+     * @param segment  the resolved {@link PriceSegment}, which must have a price
+     * @param encoding the encoding of the response
+     * @return the rendered response of the {@link PriceDto} of the price, valid until the end of the segment
+     */
+    public RenderedPrice render(PriceSegment segment, PriceEncoding encoding) {
+        return rendered.get(encoding).get(segment, key -> write(key, encoding));
+    }
+
+    private RenderedPrice write(PriceSegment segment, PriceEncoding encoding) {
+        LocalDateTime validUntil = segment.validTo() == Long.MAX_VALUE ? null : PriceTimes.toLocalDateTime(segment.validTo());
+        PriceDto priceDto = PriceToPriceDtoMapper.toDto(segment.price());
+        priceDto.setValidUntil(validUntil);
+        byte[] body = encoder.encode(priceDto, encoding);
+        return new RenderedPrice(body, eTag(body), validUntil);
+    }
+
+    /**
+     * Derives a strong entity tag from the content, so every instance tags the same response alike.
+     */
+    private static String eTag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, ETAG_BYTES) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
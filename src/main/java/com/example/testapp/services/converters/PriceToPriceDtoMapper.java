@@ -4,6 +4,8 @@ import com.example.testapp.dtos.PriceDto;
 import com.example.testapp.model.Price;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 /**
  * Service class responsible for converting {@link Price} entities to {@link PriceDto} data transfer objects.
  * This class provides methods to map the entity fields to the corresponding DTO fields,
@@ -19,12 +21,25 @@ public class PriceToPriceDtoMapper {
      * @return a {@link PriceDto} containing the mapped fields from the {@link Price} entity
      */
     public static PriceDto toDto(Price price) {
+        return toDto(price, price.getStartDate(), price.getEndDate());
+    }
+
+    /**
+     * Converts a {@link Price} entity to a {@link PriceDto} effective during the given dates, such as the stretch
+     * of its validity during which it is not overridden by another price.
+     *
+     * @param price     the {@link Price} entity to be converted
+     * @param startDate the first date time the price is effective
+     * @param endDate   the last date time the price is effective
+     * @return a {@link PriceDto} containing the mapped fields from the {@link Price} entity and the given dates
+     */
+    public static PriceDto toDto(Price price, LocalDateTime startDate, LocalDateTime endDate) {
         return PriceDto.builder()
                 .brandId(price.getBrandId())
                 .productId(price.getProductId())
                 .priceList(price.getPriceList())
-                .startDate(price.getStartDate())
-                .endDate(price.getEndDate())
+                .startDate(startDate)
+                .endDate(endDate)
                 .finalPrice(getFinalPrice(price))
                 .build();
     }
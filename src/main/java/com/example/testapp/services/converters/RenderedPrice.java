@@ -0,0 +1,15 @@
+package com.example.testapp.services.converters;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a resolved price, rendered by {@link PriceJsonRenderer}, with what is needed to cache it.
+ *
+ * @param body       the bytes of the {@link com.example.testapp.dtos.PriceDto} in the requested
+ *                   {@link PriceEncoding}, UTF-8 JSON by default, not to be modified
+ * @param eTag       the quoted entity tag of the bytes, the same on every instance for the same bytes
+ * @param validUntil the date time from which the price may stop applying, or {@code null} if it applies for
+ *                   good as far as the stored prices tell
+ */
+public record RenderedPrice(byte[] body, String eTag, LocalDateTime validUntil) {
+}
@@ -0,0 +1,213 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded read-through cache in front of another {@link PriceLookupEngine}.
+ *
+ * <p>Entries are keyed by {@link PriceKey} and hold the resolved {@link PriceSegment}, so any date inside its
+ * validity window is a hit, not only the exact date that was first queried. Entries are evicted by size and
+ * by age, and the keys of the prices being indexed are invalidated. A lookup that raced with an indexation
+ * does not populate the cache: its segment is not cached, or is removed again when the indexation landed while
+ * it was being cached.</p>
+ *
+ * <p>Segments without price are cached as well, with a shorter time to live, so repeated lookups of a known
+ * product outside its price intervals do not reach the delegate either.</p>
+ */
+public class CachingPriceLookupEngine implements PriceLookupEngine {
+
+    private final PriceLookupEngine delegate;
+    private final Cache<PriceKey, PriceSegment> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    public CachingPriceLookupEngine(PriceLookupEngine delegate, long maximumSize, Duration timeToLive, Duration negativeTimeToLive) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SegmentExpiry(timeToLive.toNanos(), negativeTimeToLive.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findPrice(long brandId, long productId, LocalDateTime date) {
+        return Optional.ofNullable(resolve(brandId, productId, date).price());
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        PriceKey key = new PriceKey(brandId, productId);
+        PriceSegment cached = cache.getIfPresent(key);
+        if (cached != null && cached.contains(PriceTimes.toEpochMilli(date))) {
+            if (cached.price() == null) {
+                negativeHits.increment();
+            }
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long observedGeneration = generation.get();
+        PriceSegment resolved = delegate.resolve(brandId, productId, date);
+        cacheIfCurrent(key, resolved, observedGeneration);
+        return resolved;
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Lookups answered by the cache are not passed on; the others are resolved by the delegate as a single
+     * batch.</p>
+     */
+    @Override
+    public List<PriceSegment> resolveAll(List<PriceQuery> queries) {
+        List<PriceSegment> segments = new ArrayList<>(Collections.nCopies(queries.size(), null));
+        List<Integer> missedPositions = new ArrayList<>();
+        List<PriceQuery> missedQueries = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            PriceQuery query = queries.get(i);
+            PriceSegment cached = cache.getIfPresent(query.key());
+            if (cached != null && cached.contains(PriceTimes.toEpochMilli(query.date()))) {
+                if (cached.price() == null) {
+                    negativeHits.increment();
+                }
+                hits.increment();
+                segments.set(i, cached);
+            } else {
+                misses.increment();
+                missedPositions.add(i);
+                missedQueries.add(query);
+            }
+        }
+        if (missedQueries.isEmpty()) {
+            return segments;
+        }
+        long observedGeneration = generation.get();
+        List<PriceSegment> resolved = delegate.resolveAll(missedQueries);
+        for (int i = 0; i < resolved.size(); i++) {
+            segments.set(missedPositions.get(i), resolved.get(i));
+            cacheIfCurrent(missedQueries.get(i).key(), resolved.get(i), observedGeneration);
+        }
+        return segments;
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The cached segments of the affected products are invalidated once the delegate has indexed them.</p>
+     */
+    @Override
+    public void index(Iterable<Price> prices) {
+        delegate.index(prices);
+        invalidate(prices);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The cached segments of the affected products are invalidated once the delegate has removed them.</p>
+     */
+    @Override
+    public void remove(Iterable<Price> prices) {
+        delegate.remove(prices);
+        invalidate(prices);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The whole cache is invalidated once the delegate has reloaded.</p>
+     */
+    @Override
+    public void reload() {
+        delegate.reload();
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Caches the segment unless an indexation or a reload started since the given generation was observed. The
+     * generation is moved before the keys are invalidated, so an invalidation that slipped in between the check
+     * and the insertion is caught by the second check, and the segment is removed again unless it was replaced.
+     */
+    private void cacheIfCurrent(PriceKey key, PriceSegment segment, long observedGeneration) {
+        if (generation.get() != observedGeneration) {
+            return;
+        }
+        cache.put(key, segment);
+        if (generation.get() != observedGeneration) {
+            cache.asMap().remove(key, segment);
+        }
+    }
+
+    private void invalidate(Iterable<Price> prices) {
+        Set<PriceKey> keys = new HashSet<>();
+        for (Price price : prices) {
+            if (price.getBrandId() != null && price.getProductId() != null) {
+                keys.add(PriceKey.of(price));
+            }
+        }
+        generation.incrementAndGet();
+        cache.invalidateAll(keys);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long negativeHitCount() {
+        return negativeHits.sum();
+    }
+
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Expires segments with a price after the regular time to live and segments without one after the
+     * negative time to live, counted from their last write.
+     */
+    private record SegmentExpiry(long timeToLiveNanos, long negativeTimeToLiveNanos) implements Expiry<PriceKey, PriceSegment> {
+
+        @Override
+        public long expireAfterCreate(PriceKey key, PriceSegment segment, long currentTime) {
+            return segment.price() == null ? negativeTimeToLiveNanos : timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(PriceKey key, PriceSegment segment, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, segment, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(PriceKey key, PriceSegment segment, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.exceptions.PriceLookupInterruptedException;
+import com.example.testapp.exceptions.PriceLookupTimeoutException;
+import com.example.testapp.model.Price;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight layer in front of another {@link PriceLookupEngine}: concurrent lookups of the same product
+ * share a single resolution by the delegate instead of each issuing their own.
+ *
+ * <p>The first lookup of a product resolves it on its own thread; lookups of the product arriving meanwhile
+ * wait for that resolution and take its {@link PriceSegment} if it contains their date, or resolve their own
+ * otherwise. Every waiter waits at most the configured timeout, failing with a
+ * {@link PriceLookupTimeoutException}, and stops waiting when interrupted, failing with a
+ * {@link PriceLookupInterruptedException}, neither of which affects the resolution in flight or the other waiters. Failures of the resolution are rethrown to every waiter.</p>
+ *
+ * <p>Changes to the prices of a product detach its resolution in flight, so later lookups do not join a
+ * resolution that may have missed them. Batches are passed on as they are.</p>
+ */
+public class CoalescingPriceLookupEngine implements PriceLookupEngine {
+
+    private final PriceLookupEngine delegate;
+    private final Duration timeout;
+    private final ConcurrentMap<PriceKey, CompletableFuture<PriceSegment>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    public CoalescingPriceLookupEngine(PriceLookupEngine delegate, Duration timeout) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findPrice(long brandId, long productId, LocalDateTime date) {
+        return Optional.ofNullable(resolve(brandId, productId, date).price());
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        PriceKey key = new PriceKey(brandId, productId);
+        CompletableFuture<PriceSegment> flight = new CompletableFuture<>();
+        CompletableFuture<PriceSegment> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            PriceSegment segment = await(leader, key);
+            if (segment.contains(PriceTimes.toEpochMilli(date))) {
+                coalesced.increment();
+                return segment;
+            }
+            return delegate.resolve(brandId, productId, date);
+        }
+        try {
+            PriceSegment segment = delegate.resolve(brandId, productId, date);
+            flight.complete(segment);
+            return segment;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<PriceSegment> resolveAll(List<PriceQuery> queries) {
+        return delegate.resolveAll(queries);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The resolutions in flight of the affected products are detached once the delegate has indexed them.</p>
+     */
+    @Override
+    public void index(Iterable<Price> prices) {
+        delegate.index(prices);
+        detach(prices);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The resolutions in flight of the affected products are detached once the delegate has removed them.</p>
+     */
+    @Override
+    public void remove(Iterable<Price> prices) {
+        delegate.remove(prices);
+        detach(prices);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Every resolution in flight is detached once the delegate has reloaded.</p>
+     */
+    @Override
+    public void reload() {
+        delegate.reload();
+        inFlight.clear();
+    }
+
+    private PriceSegment await(CompletableFuture<PriceSegment> leader, PriceKey key) {
+        try {
+            return leader.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new PriceLookupTimeoutException(key.brandId(), key.productId(), timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.increment();
+            throw new PriceLookupInterruptedException(key.brandId(), key.productId());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void detach(Iterable<Price> prices) {
+        for (Price price : prices) {
+            if (price.getBrandId() != null && price.getProductId() != null) {
+                inFlight.remove(PriceKey.of(price));
+            }
+        }
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long timedOutCount() {
+        return timedOut.sum();
+    }
+
+    public long cancelledCount() {
+        return cancelled.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
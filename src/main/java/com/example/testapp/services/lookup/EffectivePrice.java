@@ -0,0 +1,17 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+import java.time.LocalDateTime;
+
+/**
+ * Price applying to a product at a date, along with the first start date of the prices that may take over from
+ * it afterwards, which tells until when it stays the effective one.
+ *
+ * @param price         the effective {@link Price}, or {@code null} if no price applies at the date
+ * @param nextStartDate the first start date, after the date, of a price of at least the same priority starting
+ *                      before the effective one ends, or of any price when none applies; {@code null} if there is
+ *                      none
+ */
+public record EffectivePrice(Price price, LocalDateTime nextStartDate) {
+}
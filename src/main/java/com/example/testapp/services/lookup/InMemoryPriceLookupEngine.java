@@ -0,0 +1,359 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link PriceLookupEngine} that keeps every price interval in memory, grouped by {@link PriceKey}.
+ *
+ * <p>The whole {@code prices} collection is loaded before the application starts serving requests, and
+ * the index is kept current with the prices saved through this instance. Lookups never leave the JVM.
+ * With {@code prices.lookup.snapshot.enabled}, the index is also written to a local {@link PriceSnapshot}
+ * periodically, and loaded from it at startup instead of scanning the collection.</p>
+ *
+ * <p>Intervals are held in the primitive columns of {@link PriceIntervals}, a few dozen bytes each, so large
+ * catalogs fit in the heap; a {@link Price} is only built for the price a lookup returns.</p>
+ *
+ * <p>In cluster mode, only the brands owned by this instance, as told by the {@link BrandPartitioner}, are
+ * indexed. Point lookups of the other brands are routed to their owners before reaching the engine; those that
+ * still do, such as the lookups of a batch, are resolved against MongoDB by a {@link RepositoryPriceLookupEngine}.</p>
+ */
+@Slf4j
+@Component
+@Qualifier(PriceLookupConfiguration.BASE_ENGINE)
+@ConditionalOnProperty(prefix = "prices.lookup", name = "engine", havingValue = "in-memory")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class InMemoryPriceLookupEngine implements PriceLookupEngine, InitializingBean, DisposableBean {
+
+    /**
+     * Margin for clock differences between this instance and MongoDB when catching up after a snapshot.
+     */
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+    private static final int CATCH_UP_BATCH_SIZE = 1_000;
+
+    private final PricesRepository pricesRepository;
+    private final PricesProperties.Snapshot snapshot;
+    private final boolean changeStreamEnabled;
+    private final BrandPartitioner brandPartitioner;
+    private final PriceLookupEngine otherBrands;
+    private final PriceChangeStreamPosition changeStreamPosition;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<PriceKey, PriceIntervals> intervals = new ConcurrentHashMap<>();
+    private final Object reloadLock = new Object();
+    private final Object changesLock = new Object();
+    private List<Runnable> changesDuringReload;
+
+    public InMemoryPriceLookupEngine(PricesRepository pricesRepository, PricesProperties pricesProperties,
+                                     BrandPartitioner brandPartitioner, PriceChangeStreamPosition changeStreamPosition,
+                                     MeterRegistry meterRegistry) {
+        this.pricesRepository = pricesRepository;
+        this.snapshot = pricesProperties.getLookup().getSnapshot();
+        this.changeStreamEnabled = pricesProperties.getChangeStream().isEnabled();
+        this.brandPartitioner = brandPartitioner;
+        this.otherBrands = new RepositoryPriceLookupEngine(pricesRepository, meterRegistry);
+        this.changeStreamPosition = changeStreamPosition;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Loads the index from the snapshot when there is a valid one, catching up with the prices inserted since,
+     * or else from every stored price. The time taken is published as {@code prices.lookup.hydration}, tagged by
+     * source.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        long start = System.nanoTime();
+        String source = snapshot.isEnabled() && loadSnapshot() ? "snapshot" : "database";
+        if (source.equals("database")) {
+            reload();
+        }
+        Timer.builder("prices.lookup.hydration")
+                .description("Time spent loading the in-memory index at startup")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Writes a last snapshot, so the next start has the latest prices.
+     */
+    @Override
+    public void destroy() {
+        writeSnapshot();
+    }
+
+    /**
+     * Writes a snapshot of the index, as configured under {@code prices.lookup.snapshot}. Lookups and updates
+     * go on meanwhile: the intervals of every product are immutable, and the snapshot holds those current when
+     * it was started, or newer ones. It records the position in the change stream reached before it was started,
+     * which it includes every change up to.
+     */
+    @Scheduled(initialDelayString = "${prices.lookup.snapshot.interval:PT10M}",
+            fixedDelayString = "${prices.lookup.snapshot.interval:PT10M}")
+    public synchronized void writeSnapshot() {
+        if (!snapshot.isEnabled()) {
+            return;
+        }
+        Instant createdAt = Instant.now();
+        String resumeToken = changeStreamEnabled ? changeStreamPosition.applied() : null;
+        try {
+            PriceSnapshot.write(snapshot.getPath(), createdAt, resumeToken, Map.copyOf(intervals));
+            log.info("Wrote snapshot of {} price timelines to {}", intervals.size(), snapshot.getPath());
+        } catch (IOException ex) {
+            log.warn("Could not write the prices snapshot to {}: {}", snapshot.getPath(), ex.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findPrice(long brandId, long productId, LocalDateTime date) {
+        if (!brandPartitioner.owns(brandId)) {
+            return otherBrands.findPrice(brandId, productId, date);
+        }
+        PriceIntervals productIntervals = intervals.get(new PriceKey(brandId, productId));
+        if (productIntervals == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(productIntervals.find(PriceTimes.toEpochMilli(date)));
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        if (!brandPartitioner.owns(brandId)) {
+            return otherBrands.resolve(brandId, productId, date);
+        }
+        long instant = PriceTimes.toEpochMilli(date);
+        PriceIntervals productIntervals = intervals.get(new PriceKey(brandId, productId));
+        if (productIntervals == null) {
+            return new PriceSegment(null, instant, Long.MAX_VALUE);
+        }
+        return productIntervals.resolve(instant);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The lookups of owned brands are resolved in memory, and those of the other brands with grouped queries.</p>
+     */
+    @Override
+    public List<PriceSegment> resolveAll(List<PriceQuery> queries) {
+        List<PriceQuery> others = new ArrayList<>();
+        for (PriceQuery query : queries) {
+            if (!brandPartitioner.owns(query.brandId())) {
+                others.add(query);
+            }
+        }
+        Iterator<PriceSegment> otherSegments = others.isEmpty()
+                ? Collections.emptyIterator()
+                : otherBrands.resolveAll(others).iterator();
+        List<PriceSegment> segments = new ArrayList<>(queries.size());
+        for (PriceQuery query : queries) {
+            segments.add(brandPartitioner.owns(query.brandId())
+                    ? resolve(query.brandId(), query.productId(), query.date())
+                    : otherSegments.next());
+        }
+        return segments;
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Only the timelines of the affected products are rebuilt; concurrent lookups keep reading the
+     * previous version until the new one is published.</p>
+     */
+    @Override
+    public void index(Iterable<Price> prices) {
+        Map<PriceKey, List<Price>> pricesByKey = new HashMap<>();
+        for (Price price : prices) {
+            if (isOwned(price)) {
+                pricesByKey.computeIfAbsent(PriceKey.of(price), key -> new ArrayList<>()).add(price);
+            }
+        }
+        Runnable change = () -> pricesByKey.forEach((key, keyPrices) -> intervals.compute(key, (k, current) ->
+                (current == null ? PriceIntervals.EMPTY : current).merge(keyPrices)));
+        recordDuringReload(change);
+        change.run();
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The intervals of the affected products are rebuilt without the deleted prices, and products left
+     * without prices are dropped.</p>
+     */
+    @Override
+    public void remove(Iterable<Price> prices) {
+        Map<PriceKey, Set<String>> idsByKey = new HashMap<>();
+        for (Price price : prices) {
+            if (price.getBrandId() != null && price.getProductId() != null && price.get_id() != null) {
+                idsByKey.computeIfAbsent(PriceKey.of(price), key -> new HashSet<>()).add(price.get_id());
+            }
+        }
+        Runnable change = () -> idsByKey.forEach((key, ids) -> intervals.computeIfPresent(key, (k, current) -> {
+            PriceIntervals remaining = current.without(ids);
+            return remaining.size() == 0 ? null : remaining;
+        }));
+        recordDuringReload(change);
+        change.run();
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The new index is built aside and then published, so lookups keep being answered meanwhile. The prices
+     * indexed and removed while it is built may be missing from the stored prices read, or still in them: they are
+     * applied again once it is published, which changes nothing to those already taken into account.</p>
+     */
+    @Override
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (changesLock) {
+                changesDuringReload = new ArrayList<>();
+            }
+            List<Runnable> replayed;
+            try {
+                Map<PriceKey, List<Price>> pricesByKey = new HashMap<>();
+                for (Price price : pricesRepository.findAll()) {
+                    if (isOwned(price)) {
+                        pricesByKey.computeIfAbsent(PriceKey.of(price), key -> new ArrayList<>()).add(price);
+                    }
+                }
+                Map<PriceKey, PriceIntervals> loaded = new HashMap<>();
+                pricesByKey.forEach((key, keyPrices) -> loaded.put(key, PriceIntervals.of(keyPrices)));
+                intervals.putAll(loaded);
+                intervals.keySet().retainAll(loaded.keySet());
+            } finally {
+                synchronized (changesLock) {
+                    replayed = changesDuringReload;
+                    changesDuringReload = null;
+                }
+            }
+            replayed.forEach(Runnable::run);
+            log.info("Loaded {} price timelines into memory, applying {} changes made meanwhile", intervals.size(), replayed.size());
+        }
+    }
+
+    /**
+     * Keeps a change to apply again once the reload in progress, if any, is published. The change must be recorded
+     * before it is applied, so it is either replayed or applied after the publication.
+     */
+    private void recordDuringReload(Runnable change) {
+        synchronized (changesLock) {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change);
+            }
+        }
+    }
+
+    /**
+     * Loads the snapshot, then indexes the prices inserted since it was taken. When the snapshot records its
+     * position in the change stream, the stream resumes from there and replays the updates and deletes made
+     * meanwhile. Otherwise they are picked up by reloading every stored price in the background: always when the
+     * change stream is followed, since the position it stored is past the snapshot, and if configured when not.
+     *
+     * @return {@code false} if there is no valid snapshot
+     */
+    private boolean loadSnapshot() {
+        Path path = snapshot.getPath();
+        if (!Files.exists(path)) {
+            return false;
+        }
+        PriceSnapshot.Contents contents;
+        try {
+            contents = PriceSnapshot.read(path);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not load the prices snapshot {}, loading from the database: {}", path, ex.getMessage());
+            return false;
+        }
+        contents.intervals().forEach((key, productIntervals) -> {
+            if (brandPartitioner.owns(key.brandId())) {
+                intervals.put(key, productIntervals);
+            }
+        });
+        log.info("Loaded {} price timelines from the snapshot of {}", intervals.size(), contents.createdAt());
+        try {
+            catchUp(contents.createdAt().minus(CATCH_UP_MARGIN));
+        } catch (DataAccessException ex) {
+            log.warn("Could not catch up with the prices inserted after the snapshot: {}", ex.getMessage());
+        }
+        boolean reloadAll;
+        if (changeStreamEnabled) {
+            reloadAll = contents.resumeToken() == null;
+            changeStreamPosition.restored(contents.resumeToken());
+        } else {
+            reloadAll = snapshot.isReconcile();
+        }
+        if (reloadAll) {
+            Thread reconcile = new Thread(this::reconcile, "prices-snapshot-reconcile");
+            reconcile.setDaemon(true);
+            reconcile.start();
+        }
+        return true;
+    }
+
+    private boolean isOwned(Price price) {
+        return price.getBrandId() != null && price.getProductId() != null && brandPartitioner.owns(price.getBrandId());
+    }
+
+    private void catchUp(Instant since) {
+        ObjectId after = new ObjectId(String.format("%08x%016x", since.getEpochSecond(), 0L));
+        long indexed = 0;
+        List<Price> batch = new ArrayList<>(CATCH_UP_BATCH_SIZE);
+        try (Stream<Price> prices = pricesRepository.streamCreatedAfter(after)) {
+            for (Price price : (Iterable<Price>) prices::iterator) {
+                batch.add(price);
+                if (batch.size() == CATCH_UP_BATCH_SIZE) {
+                    index(batch);
+                    indexed += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        index(batch);
+        indexed += batch.size();
+        log.info("Indexed {} prices inserted after the snapshot", indexed);
+    }
+
+    private void reconcile() {
+        try {
+            reload();
+        } catch (DataAccessException ex) {
+            log.warn("Could not reconcile the prices snapshot with the database: {}", ex.getMessage());
+        }
+    }
+}
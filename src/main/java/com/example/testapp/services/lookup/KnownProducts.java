@@ -0,0 +1,142 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Compact membership structure of the (brandId, productId) pairs that have prices: one {@link LongBloomFilter}
+ * of product IDs per brand.
+ *
+ * <p>It is loaded once the application is ready and rebuilt periodically, and the products of the prices indexed
+ * are added as they are. Only the change stream indexes the prices saved through other instances, so unless it
+ * is followed the filters cannot tell a product without prices from one priced elsewhere since the last rebuild:
+ * every product is then reported as known, and lookups of unknown products are left to the cache and the engine.
+ * Until the first load completes every product is reported as known too, so a failed or slow load never rejects
+ * lookups.</p>
+ *
+ * <p>In cluster mode, only the brands owned by this instance get a filter; products of the other brands are
+ * reported as known, and left to their owners.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "prices.lookup.known-products", name = "enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class KnownProducts {
+
+    private final PricesRepository pricesRepository;
+    private final PricesProperties.KnownProducts properties;
+    private final BrandPartitioner brandPartitioner;
+    private final boolean fedByChangeStream;
+    private volatile Map<Long, LongBloomFilter> filters = new ConcurrentHashMap<>();
+    private volatile Map<Long, LongBloomFilter> loadingFilters;
+    /**
+     * Guards the additions against the swap of the filters, so a product added while a rebuild completes always
+     * ends up in the filters swapped in.
+     */
+    private final Object swapLock = new Object();
+    private volatile boolean loaded;
+
+    public KnownProducts(PricesRepository pricesRepository, PricesProperties pricesProperties, BrandPartitioner brandPartitioner) {
+        this.pricesRepository = pricesRepository;
+        this.properties = pricesProperties.getLookup().getKnownProducts();
+        this.brandPartitioner = brandPartitioner;
+        this.fedByChangeStream = pricesProperties.getChangeStream().isEnabled();
+    }
+
+    /**
+     * Tells whether the product may have prices. A {@code false} answer is definitive: it is only given while the
+     * change stream keeps the filters current with the prices saved by every instance.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @return {@code false} if the product certainly has no price
+     */
+    public boolean mightContain(long brandId, long productId) {
+        if (!loaded || !fedByChangeStream || !brandPartitioner.owns(brandId)) {
+            return true;
+        }
+        LongBloomFilter filter = filters.get(brandId);
+        return filter != null && filter.mightContain(productId);
+    }
+
+    /**
+     * Adds the products of the given prices.
+     *
+     * @param prices the {@link Price} entities whose products now have prices
+     */
+    public void addAll(Iterable<Price> prices) {
+        for (Price price : prices) {
+            if (price.getBrandId() != null && price.getProductId() != null && brandPartitioner.owns(price.getBrandId())) {
+                synchronized (swapLock) {
+                    add(filters, price.getBrandId(), price.getProductId());
+                    if (loadingFilters != null) {
+                        add(loadingFilters, price.getBrandId(), price.getProductId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the filters from the stored prices and swaps them in, when the change stream is followed. Products
+     * added while the rebuild is in progress are recorded in both the current and the new filters, and the swap waits
+     * for the additions in progress, so none is lost. The stored prices are read without blocking them. At startup it
+     * runs right after the indexes are ensured and before the warm-up, so the warm-up goes through loaded filters.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @Scheduled(initialDelayString = "${prices.lookup.known-products.refresh-interval:PT5M}",
+            fixedDelayString = "${prices.lookup.known-products.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        if (!fedByChangeStream) {
+            log.info("Not loading the known products: without the change stream they would miss the prices saved by other instances");
+            return;
+        }
+        Map<Long, LongBloomFilter> loading = new ConcurrentHashMap<>();
+        synchronized (swapLock) {
+            loadingFilters = loading;
+        }
+        long products = 0;
+        try (Stream<Price> keys = pricesRepository.streamProductKeys()) {
+            for (Price key : (Iterable<Price>) keys::iterator) {
+                if (brandPartitioner.owns(key.getBrandId())) {
+                    add(loading, key.getBrandId(), key.getProductId());
+                    products++;
+                }
+            }
+            synchronized (swapLock) {
+                filters = loading;
+                loadingFilters = null;
+                loaded = true;
+            }
+            log.info("Loaded {} known products of {} brands", products, loading.size());
+        } catch (DataAccessException ex) {
+            log.warn("Could not load the known products: {}", ex.getMessage());
+        } finally {
+            synchronized (swapLock) {
+                loadingFilters = null;
+            }
+        }
+    }
+
+    private void add(Map<Long, LongBloomFilter> target, long brandId, long productId) {
+        target.computeIfAbsent(brandId, brand -> new LongBloomFilter(properties.getExpectedProductsPerBrand(), properties.getFalsePositiveProbability()))
+                .add(productId);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link PriceLookupEngine} decorator rejecting lookups of products without prices before any I/O, based on
+ * the {@link KnownProducts} membership filters.
+ */
+public class KnownProductsPriceLookupEngine implements PriceLookupEngine {
+
+    private final PriceLookupEngine delegate;
+    private final KnownProducts knownProducts;
+
+    public KnownProductsPriceLookupEngine(PriceLookupEngine delegate, KnownProducts knownProducts) {
+        this.delegate = delegate;
+        this.knownProducts = knownProducts;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findPrice(long brandId, long productId, LocalDateTime date) {
+        if (!knownProducts.mightContain(brandId, productId)) {
+            return Optional.empty();
+        }
+        return delegate.findPrice(brandId, productId, date);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>An unknown product has no price at any date.</p>
+     */
+    @Override
+    public PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        if (!knownProducts.mightContain(brandId, productId)) {
+            return new PriceSegment(null, PriceTimes.toEpochMilli(date), Long.MAX_VALUE);
+        }
+        return delegate.resolve(brandId, productId, date);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Only the lookups of known products are passed on, as a single batch.</p>
+     */
+    @Override
+    public List<PriceSegment> resolveAll(List<PriceQuery> queries) {
+        List<PriceSegment> segments = new ArrayList<>(Collections.nCopies(queries.size(), null));
+        List<Integer> knownPositions = new ArrayList<>();
+        List<PriceQuery> knownQueries = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            PriceQuery query = queries.get(i);
+            if (knownProducts.mightContain(query.brandId(), query.productId())) {
+                knownPositions.add(i);
+                knownQueries.add(query);
+            } else {
+                segments.set(i, new PriceSegment(null, PriceTimes.toEpochMilli(query.date()), Long.MAX_VALUE));
+            }
+        }
+        if (!knownQueries.isEmpty()) {
+            List<PriceSegment> resolved = delegate.resolveAll(knownQueries);
+            for (int i = 0; i < resolved.size(); i++) {
+                segments.set(knownPositions.get(i), resolved.get(i));
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The products are marked as known once the delegate has indexed them.</p>
+     */
+    @Override
+    public void index(Iterable<Price> prices) {
+        delegate.index(prices);
+        knownProducts.addAll(prices);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Products cannot be taken out of the filters; they are dropped on their next rebuild.</p>
+     */
+    @Override
+    public void remove(Iterable<Price> prices) {
+        delegate.remove(prices);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void reload() {
+        delegate.reload();
+    }
+}
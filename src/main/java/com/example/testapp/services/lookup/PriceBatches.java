@@ -0,0 +1,85 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers resolving a batch of lookups from the prices fetched for all of its products at once, with
+ * {@link com.example.testapp.repositories.PricesRepositoryCustom#findPricesApplyingWithin(Map)} and
+ * {@link com.example.testapp.repositories.PricesRepositoryCustom#findNextStartDates(Map)}, or their reactive
+ * counterparts.
+ */
+public final class PriceBatches {
+
+    /**
+     * Maximum number of products whose prices are fetched by a single query of a batch.
+     */
+    public static final int PRODUCTS_PER_QUERY = 100;
+
+    private PriceBatches() {
+    }
+
+    /**
+     * Splits the products of a batch into groups of up to {@value #PRODUCTS_PER_QUERY}, each with the range of
+     * dates queried for every product, so each group can be fetched with a single query.
+     *
+     * @param queries the lookups of the batch
+     * @return the groups of products along with their queried dates
+     */
+    public static List<Map<PriceKey, PriceQueryRange>> rangesByChunk(List<PriceQuery> queries) {
+        Map<PriceKey, PriceQueryRange> ranges = new LinkedHashMap<>();
+        for (PriceQuery query : queries) {
+            ranges.merge(query.key(), new PriceQueryRange(query.date(), query.date()), (current, range) -> current.including(query.date()));
+        }
+        List<Map<PriceKey, PriceQueryRange>> chunks = new ArrayList<>();
+        Map<PriceKey, PriceQueryRange> chunk = new HashMap<>();
+        for (Map.Entry<PriceKey, PriceQueryRange> entry : ranges.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == PRODUCTS_PER_QUERY) {
+                chunks.add(chunk);
+                chunk = new HashMap<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Resolves every lookup of a batch from the prices fetched for its products. The prices starting after the
+     * latest queried date of a product are not fetched, so the segments end at the first of their start dates at
+     * the latest.
+     *
+     * @param queries        the lookups of the batch
+     * @param prices         the prices of the products of the batch applying within their queried dates
+     * @param nextStartDates the first start date after its latest queried date of every product having one
+     * @return the {@link PriceSegment} of every lookup, in the same order as the queries
+     */
+    public static List<PriceSegment> resolve(List<PriceQuery> queries, Collection<Price> prices, Map<PriceKey, LocalDateTime> nextStartDates) {
+        Map<PriceKey, List<Price>> pricesByKey = new HashMap<>();
+        for (Price price : prices) {
+            pricesByKey.computeIfAbsent(PriceKey.of(price), key -> new ArrayList<>()).add(price);
+        }
+        Map<PriceKey, PriceIntervals> intervals = new HashMap<>();
+        List<PriceSegment> segments = new ArrayList<>(queries.size());
+        for (PriceQuery query : queries) {
+            PriceIntervals productIntervals = intervals.computeIfAbsent(query.key(),
+                    key -> PriceIntervals.of(pricesByKey.getOrDefault(key, List.of())));
+            PriceSegment segment = productIntervals.resolve(PriceTimes.toEpochMilli(query.date()));
+            LocalDateTime nextStartDate = nextStartDates.get(query.key());
+            if (nextStartDate != null && segment.validTo() > PriceTimes.toEpochMilli(nextStartDate)) {
+                segment = new PriceSegment(segment.price(), segment.validFrom(), PriceTimes.toEpochMilli(nextStartDate));
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.model.ChangeStreamToken;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.ChangeStreamTokensRepository;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the change stream of the {@code prices} collection and pushes every change into the lookup engine,
+ * so the caches and in-memory structures of this instance also reflect the prices written by other instances.
+ *
+ * <p>Inserted, replaced and updated prices are indexed and deleted prices removed. Deletes only carry the
+ * deleted document when pre-images are enabled on the collection, which is done at startup unless disabled;
+ * without it the engine is fully reloaded. The resume token of the last processed change is stored per
+ * instance, so after a restart or a lost connection the stream resumes where it stopped, unless the lookup
+ * engine was restored from a snapshot: the stream then resumes from the position the snapshot includes, recorded
+ * in the {@link PriceChangeStreamPosition}. Replaying changes
+ * is harmless since indexing is idempotent. When there is no position to resume from, on the first start of an
+ * instance or when the stored position is no longer in the oplog, the current position of the stream is taken
+ * before the engine is reloaded, and the stream resumes from it, so the changes made during the reload are
+ * applied as well. The engine is therefore loaded twice on the first start of an instance.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "prices.change-stream", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceChangeStreamListener implements SmartLifecycle {
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+
+    private final MongoOperations mongoOperations;
+    private final PriceLookupEngine priceLookupEngine;
+    private final ChangeStreamTokensRepository changeStreamTokensRepository;
+    private final PriceChangeStreamPosition changeStreamPosition;
+    private final PricesProperties.ChangeStream settings;
+    private final String tokenId;
+    private volatile boolean running;
+    private Thread thread;
+
+    public PriceChangeStreamListener(MongoOperations mongoOperations, PriceLookupEngine priceLookupEngine,
+                                     ChangeStreamTokensRepository changeStreamTokensRepository, PriceChangeStreamPosition changeStreamPosition,
+                                     PricesProperties pricesProperties) {
+        this.mongoOperations = mongoOperations;
+        this.priceLookupEngine = priceLookupEngine;
+        this.changeStreamTokensRepository = changeStreamTokensRepository;
+        this.changeStreamPosition = changeStreamPosition;
+        this.settings = pricesProperties.getChangeStream();
+        this.tokenId = mongoOperations.getCollectionName(Price.class) + ":" + nodeId(settings.getNodeId());
+    }
+
+    /**
+     * Enables pre-images if configured, and starts following the change stream in a background thread.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (settings.isPreImages()) {
+            enablePreImages();
+        }
+        running = true;
+        thread = new Thread(this::listen, "prices-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops following the change stream, storing the position reached.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            thread.join(settings.getMaxAwaitTime().toMillis() * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        String restored = changeStreamPosition.takeRestored();
+        BsonDocument resumeToken = restored != null ? BsonDocument.parse(restored) : loadResumeToken();
+        while (running) {
+            try {
+                if (resumeToken == null) {
+                    resumeToken = startOver();
+                }
+                resumeToken = follow(resumeToken);
+            } catch (MongoServerException e) {
+                if (e.getCode() != CHANGE_STREAM_HISTORY_LOST && e.getCode() != CHANGE_STREAM_FATAL_ERROR) {
+                    retryLater(e);
+                    continue;
+                }
+                log.warn("Cannot resume the prices change stream ({}), starting over and reloading", e.getMessage());
+                resumeToken = null;
+                changeStreamPosition.applied(null);
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    /**
+     * Takes the current position of the change stream and then reloads the lookup engine, so following the stream
+     * from that position applies every change the reload may have missed.
+     *
+     * @return the position taken, or {@code null} if the server did not report one, in which case the stream is
+     * followed from the present
+     */
+    private BsonDocument startOver() {
+        BsonDocument position;
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = watch().cursor()) {
+            position = cursor.getResumeToken();
+        }
+        log.info("Reloading the lookup engine and following the prices change stream from the current position");
+        priceLookupEngine.reload();
+        changeStreamPosition.applied(position == null ? null : position.toJson());
+        return position;
+    }
+
+    /**
+     * Follows the change stream from the given position until stopped or invalidated.
+     *
+     * @param resumeToken the position to resume after, or {@code null} to start from the present
+     * @return the position reached, or {@code null} if the stream was invalidated
+     */
+    private BsonDocument follow(BsonDocument resumeToken) {
+        ChangeStreamIterable<Document> changeStream = watch();
+        if (resumeToken != null) {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+        BsonDocument savedToken = resumeToken;
+        long lastSave = System.nanoTime();
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && !apply(change)) {
+                    saveResumeToken(null);
+                    return null;
+                }
+                if (cursor.getResumeToken() != null && !cursor.getResumeToken().equals(resumeToken)) {
+                    resumeToken = cursor.getResumeToken();
+                    changeStreamPosition.applied(resumeToken.toJson());
+                }
+                if (resumeToken != null && !resumeToken.equals(savedToken)
+                        && System.nanoTime() - lastSave >= settings.getTokenSaveInterval().toNanos()) {
+                    saveResumeToken(resumeToken);
+                    savedToken = resumeToken;
+                    lastSave = System.nanoTime();
+                }
+            }
+        }
+        if (resumeToken != null && !resumeToken.equals(savedToken)) {
+            saveResumeToken(resumeToken);
+        }
+        return resumeToken;
+    }
+
+    private ChangeStreamIterable<Document> watch() {
+        ChangeStreamIterable<Document> changeStream = mongoOperations.getCollection(mongoOperations.getCollectionName(Price.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(settings.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        if (settings.isPreImages()) {
+            changeStream = changeStream.fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE);
+        }
+        return changeStream;
+    }
+
+    /**
+     * Pushes a change into the lookup engine.
+     *
+     * @return {@code false} if the change invalidated the stream
+     */
+    private boolean apply(ChangeStreamDocument<Document> change) {
+        Price before = read(change.getFullDocumentBeforeChange());
+        Price after = read(change.getFullDocument());
+        switch (change.getOperationType()) {
+            case INSERT, REPLACE, UPDATE -> {
+                if (before != null && (after == null || !sameProduct(before, after))) {
+                    priceLookupEngine.remove(List.of(before));
+                }
+                if (after != null) {
+                    priceLookupEngine.index(List.of(after));
+                }
+            }
+            case DELETE -> {
+                if (before != null) {
+                    priceLookupEngine.remove(List.of(before));
+                } else {
+                    priceLookupEngine.reload();
+                }
+            }
+            case DROP, RENAME, DROP_DATABASE -> priceLookupEngine.reload();
+            case INVALIDATE -> {
+                return false;
+            }
+            default -> log.debug("Ignoring {} change on prices", change.getOperationType());
+        }
+        return true;
+    }
+
+    private Price read(Document document) {
+        return document == null ? null : mongoOperations.getConverter().read(Price.class, document);
+    }
+
+    private static boolean sameProduct(Price before, Price after) {
+        return before.getBrandId() != null && before.getBrandId().equals(after.getBrandId())
+                && before.getProductId() != null && before.getProductId().equals(after.getProductId());
+    }
+
+    private BsonDocument loadResumeToken() {
+        try {
+            return changeStreamTokensRepository.findById(tokenId)
+                    .map(ChangeStreamToken::getResumeToken)
+                    .map(BsonDocument::parse)
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Could not load the prices change stream position, starting over: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveResumeToken(BsonDocument resumeToken) {
+        try {
+            changeStreamTokensRepository.save(ChangeStreamToken.builder()
+                    ._id(tokenId)
+                    .resumeToken(resumeToken == null ? null : resumeToken.toJson())
+                    .updatedAt(Instant.now())
+                    .build());
+        } catch (DataAccessException e) {
+            log.warn("Could not store the prices change stream position: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Makes deletes carry the deleted document, creating the collection if it does not exist yet.
+     */
+    private void enablePreImages() {
+        try {
+            if (mongoOperations.collectionExists(Price.class)) {
+                mongoOperations.executeCommand(new Document("collMod", mongoOperations.getCollectionName(Price.class))
+                        .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+            } else {
+                mongoOperations.createCollection(Price.class, CollectionOptions.emitChangedRevisions());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not enable pre-images on prices, deletes will reload the lookup engine: {}", e.getMessage());
+        }
+    }
+
+    private void retryLater(RuntimeException e) {
+        Duration delay = settings.getRetryDelay();
+        log.warn("Prices change stream interrupted, retrying in {}: {}", delay, e.getMessage());
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static String nodeId(String configured) {
+        if (StringUtils.hasText(configured)) {
+            return configured;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
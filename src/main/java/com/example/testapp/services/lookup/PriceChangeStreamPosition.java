@@ -0,0 +1,60 @@
+package com.example.testapp.services.lookup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Position in the change stream of the {@code prices} collection shared by the {@link PriceChangeStreamListener}
+ * and the {@link InMemoryPriceLookupEngine}, so a snapshot of the engine records the changes it includes and the
+ * stream resumes right after them when the engine starts from it.
+ *
+ * <p>Positions are the resume tokens of the change stream, as JSON.</p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceChangeStreamPosition {
+
+    private volatile String applied;
+    private volatile String restored;
+
+    /**
+     * Records that every change up to the given position has been pushed into the lookup engine.
+     *
+     * @param resumeToken the position reached
+     */
+    public void applied(String resumeToken) {
+        this.applied = resumeToken;
+    }
+
+    /**
+     * Returns the position up to which every change has been pushed into the lookup engine.
+     *
+     * @return the position, or {@code null} if no change stream has been followed yet
+     */
+    public String applied() {
+        return applied;
+    }
+
+    /**
+     * Records that the lookup engine was loaded with the changes up to the given position only, so the change
+     * stream must resume from it rather than from the position it stored.
+     *
+     * @param resumeToken the position the loaded state includes
+     */
+    public synchronized void restored(String resumeToken) {
+        this.restored = resumeToken;
+        this.applied = resumeToken;
+    }
+
+    /**
+     * Returns, once, the position the lookup engine was restored to.
+     *
+     * @return the position, or {@code null} if the engine was not restored from a snapshot with a position, or
+     * the position was already taken
+     */
+    public synchronized String takeRestored() {
+        String resumeToken = restored;
+        restored = null;
+        return resumeToken;
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+import org.bson.types.ObjectId;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Immutable, start-sorted array of the price intervals of a single {@link PriceKey}.
+ *
+ * <p>Along with the start and end of every interval it keeps the running maximum of the ends, so a
+ * lookup binary-searches the last interval starting before the date and walks backwards only while
+ * an earlier interval can still cover it.</p>
+ *
+ * <p>Intervals are stored column by column in primitive arrays rather than as {@link Price} objects: epoch
+ * millisecond bounds, priority, price list, the amount as an unscaled {@code long} and its scale, the
+ * currency as an index into a shared table and the identifier as the 12 bytes of its {@link ObjectId}.
+ * That is about 64 bytes per interval, against several hundred for a {@code Price} with its boxed fields,
+ * dates, {@code BigDecimal} and {@code String} identifier, and the arrays hold no references for the garbage
+ * collector to trace. {@code Price} objects are only built for the winning interval of a lookup.</p>
+ *
+ * <p>Amounts whose unscaled value does not fit in a {@code long}, or whose scale does not fit in a {@code byte},
+ * are kept as they are in a separate column, like identifiers that are not {@code ObjectId}s. Missing priorities
+ * are flagged in a column of their own, so every {@code int} remains a valid priority.</p>
+ */
+final class PriceIntervals {
+
+    static final PriceIntervals EMPTY = new PriceIntervals(0L, 0L, List.of());
+
+    private static final Comparator<Price> BY_START = Comparator.comparing(Price::getStartDate);
+
+    /**
+     * Marks, in {@link #irregularIds}, the intervals without identifier.
+     */
+    private static final String NO_ID = new String();
+    private static final int NO_PRICE_LIST = Integer.MIN_VALUE;
+    private static final byte NO_AMOUNT = Byte.MIN_VALUE;
+    /**
+     * Marks, in {@link #scales}, the amounts kept in {@link #irregularAmounts}.
+     */
+    private static final byte IRREGULAR_AMOUNT = Byte.MIN_VALUE + 1;
+    private static final short NO_CURRENCY = -1;
+    private static final byte[] NO_CURRENCY_CODE = new byte[3];
+    private static final int REGULAR_ID = -1;
+    private static final int MISSING_ID = -2;
+
+    private final long brandId;
+    private final long productId;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final int[] priorities;
+    private final int[] priceLists;
+    private final long[] unscaledAmounts;
+    private final byte[] scales;
+    private final short[] currencies;
+    private final long[] idHighs;
+    private final int[] idLows;
+    /**
+     * Identifiers that are not {@link ObjectId}s, or {@link #NO_ID}, by interval; {@code null} when every
+     * identifier is an {@code ObjectId}, which is the rule.
+     */
+    private final String[] irregularIds;
+    /**
+     * Amounts that do not fit in {@link #unscaledAmounts} and {@link #scales}, by interval; {@code null} when every
+     * amount fits.
+     */
+    private final BigDecimal[] irregularAmounts;
+    /**
+     * Whether the interval has no priority, by interval; {@code null} when every interval has one.
+     */
+    private final boolean[] missingPriorities;
+
+    private PriceIntervals(long brandId, long productId, List<Price> sortedPrices) {
+        int size = sortedPrices.size();
+        this.brandId = brandId;
+        this.productId = productId;
+        this.starts = new long[size];
+        this.ends = new long[size];
+        this.maxEnds = new long[size];
+        this.priorities = new int[size];
+        this.priceLists = new int[size];
+        this.unscaledAmounts = new long[size];
+        this.scales = new byte[size];
+        this.currencies = new short[size];
+        this.idHighs = new long[size];
+        this.idLows = new int[size];
+        String[] irregular = null;
+        BigDecimal[] irregularAmounts = null;
+        boolean[] missingPriorities = null;
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            Price price = sortedPrices.get(i);
+            starts[i] = PriceTimes.toEpochMilli(price.getStartDate());
+            ends[i] = PriceTimes.toEpochMilli(price.getEndDate());
+            maxEnd = Math.max(maxEnd, ends[i]);
+            maxEnds[i] = maxEnd;
+            priorities[i] = priorityOf(price);
+            if (price.getPriority() == null) {
+                if (missingPriorities == null) {
+                    missingPriorities = new boolean[size];
+                }
+                missingPriorities[i] = true;
+            }
+            priceLists[i] = price.getPriceList() == null ? NO_PRICE_LIST : price.getPriceList();
+            BigDecimal amount = price.getPrice();
+            if (amount == null) {
+                scales[i] = NO_AMOUNT;
+            } else if (fitsColumns(amount)) {
+                unscaledAmounts[i] = amount.unscaledValue().longValue();
+                scales[i] = (byte) amount.scale();
+            } else {
+                if (irregularAmounts == null) {
+                    irregularAmounts = new BigDecimal[size];
+                }
+                irregularAmounts[i] = amount;
+                scales[i] = IRREGULAR_AMOUNT;
+            }
+            currencies[i] = price.getCurrency() == null ? NO_CURRENCY : CurrencyTable.indexOf(price.getCurrency());
+            String id = price.get_id();
+            if (id != null && ObjectId.isValid(id)) {
+                ByteBuffer bytes = ByteBuffer.wrap(new ObjectId(id).toByteArray());
+                idHighs[i] = bytes.getLong();
+                idLows[i] = bytes.getInt();
+            } else {
+                if (irregular == null) {
+                    irregular = new String[size];
+                }
+                irregular[i] = id == null ? NO_ID : id;
+            }
+        }
+        this.irregularIds = irregular;
+        this.irregularAmounts = irregularAmounts;
+        this.missingPriorities = missingPriorities;
+    }
+
+    private PriceIntervals(long brandId, long productId, long[] starts, long[] ends, int[] priorities, int[] priceLists,
+                           long[] unscaledAmounts, byte[] scales, short[] currencies, long[] idHighs, int[] idLows,
+                           String[] irregularIds, BigDecimal[] irregularAmounts, boolean[] missingPriorities) {
+        this.brandId = brandId;
+        this.productId = productId;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[starts.length];
+        this.priorities = priorities;
+        this.priceLists = priceLists;
+        this.unscaledAmounts = unscaledAmounts;
+        this.scales = scales;
+        this.currencies = currencies;
+        this.idHighs = idHighs;
+        this.idLows = idLows;
+        this.irregularIds = irregularIds;
+        this.irregularAmounts = irregularAmounts;
+        this.missingPriorities = missingPriorities;
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < starts.length; i++) {
+            maxEnd = Math.max(maxEnd, ends[i]);
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    /**
+     * Builds the intervals of the given prices.
+     *
+     * @param prices the prices of a single {@link PriceKey}
+     * @return the sorted {@code PriceIntervals}
+     */
+    static PriceIntervals of(Collection<Price> prices) {
+        return EMPTY.merge(prices);
+    }
+
+    /**
+     * Returns a copy of these intervals with the given prices added. Prices sharing the identifier of an
+     * existing one replace it, so indexing the same document twice is harmless.
+     *
+     * @param updates the prices to add or replace
+     * @return the merged {@code PriceIntervals}
+     */
+    PriceIntervals merge(Collection<Price> updates) {
+        Map<String, Price> updatesById = new LinkedHashMap<>();
+        List<Price> merged = new ArrayList<>(size() + updates.size());
+        long mergedBrandId = brandId;
+        long mergedProductId = productId;
+        for (Price update : updates) {
+            if (!isIndexable(update)) {
+                continue;
+            }
+            mergedBrandId = update.getBrandId();
+            mergedProductId = update.getProductId();
+            if (update.get_id() == null) {
+                merged.add(update);
+            } else {
+                updatesById.put(update.get_id(), update);
+            }
+        }
+        Set<String> replacedIds = new HashSet<>(updatesById.keySet());
+        for (int i = 0; i < size(); i++) {
+            String id = idOf(i);
+            if (id == null || !replacedIds.contains(id)) {
+                merged.add(priceAt(i));
+            }
+        }
+        merged.addAll(updatesById.values());
+        merged.sort(BY_START);
+        return new PriceIntervals(mergedBrandId, mergedProductId, merged);
+    }
+
+    /**
+     * Returns a copy of these intervals without the prices with the given identifiers.
+     *
+     * @param ids the identifiers of the prices to drop
+     * @return the remaining {@code PriceIntervals}
+     */
+    PriceIntervals without(Set<String> ids) {
+        List<Price> remaining = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            String id = idOf(i);
+            if (id == null || !ids.contains(id)) {
+                remaining.add(priceAt(i));
+            }
+        }
+        return remaining.size() == size() ? this : new PriceIntervals(brandId, productId, remaining);
+    }
+
+    /**
+     * Finds the price applying at the given instant: the covering interval with the highest priority,
+     * the latest start breaking ties.
+     *
+     * @param date the instant, in epoch milliseconds
+     * @return the winning {@link Price}, or {@code null} if no interval covers the instant
+     */
+    Price find(long date) {
+        int winner = winnerAt(date, lastStartingAtOrBefore(date));
+        return winner < 0 ? null : priceAt(winner);
+    }
+
+    /**
+     * Finds the price applying at the given instant along with the stretch it keeps applying for: until it
+     * ends or until a price that beats it starts, whichever comes first. Without a price, the stretch lasts
+     * until the next price starts.
+     *
+     * @param date the instant, in epoch milliseconds
+     * @return the {@link PriceSegment} starting at the instant
+     */
+    PriceSegment resolve(long date) {
+        int last = lastStartingAtOrBefore(date);
+        int winner = winnerAt(date, last);
+        if (winner < 0) {
+            return new PriceSegment(null, date, last + 1 < starts.length ? starts[last + 1] : Long.MAX_VALUE);
+        }
+        long validTo = ends[winner] + 1;
+        for (int i = last + 1; i < starts.length && starts[i] < validTo; i++) {
+            if (priorities[i] >= priorities[winner]) {
+                validTo = starts[i];
+            }
+        }
+        return new PriceSegment(priceAt(winner), date, validTo);
+    }
+
+    /**
+     * Walks backwards from the last interval starting at or before the instant, while an interval can still
+     * cover it, keeping the one with the highest priority. Being visited first, later starts win ties.
+     */
+    private int winnerAt(long date, int last) {
+        int winner = -1;
+        for (int i = last; i >= 0 && maxEnds[i] >= date; i--) {
+            if (ends[i] >= date && (winner < 0 || priorities[i] > priorities[winner])) {
+                winner = i;
+            }
+        }
+        return winner;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    PriceKey key() {
+        return new PriceKey(brandId, productId);
+    }
+
+    /**
+     * Builds the {@link Price} of the interval at the given position.
+     */
+    private Price priceAt(int i) {
+        return Price.builder()
+                ._id(idOf(i))
+                .brandId(brandId)
+                .productId(productId)
+                .startDate(PriceTimes.toLocalDateTime(starts[i]))
+                .endDate(PriceTimes.toLocalDateTime(ends[i]))
+                .priceList(priceLists[i] == NO_PRICE_LIST ? null : priceLists[i])
+                .priority(missingPriorities != null && missingPriorities[i] ? null : priorities[i])
+                .price(amountAt(i))
+                .currency(currencies[i] == NO_CURRENCY ? null : CurrencyTable.of(currencies[i]))
+                .build();
+    }
+
+    private BigDecimal amountAt(int i) {
+        return switch (scales[i]) {
+            case NO_AMOUNT -> null;
+            case IRREGULAR_AMOUNT -> irregularAmounts[i];
+            default -> BigDecimal.valueOf(unscaledAmounts[i], scales[i]);
+        };
+    }
+
+    private String idOf(int i) {
+        if (irregularIds != null && irregularIds[i] != null) {
+            return irregularIds[i] == NO_ID ? null : irregularIds[i];
+        }
+        return new ObjectId(ByteBuffer.allocate(12).putLong(idHighs[i]).putInt(idLows[i]).array()).toHexString();
+    }
+
+    /**
+     * Writes these intervals, column by column, in the format read by {@link #readFrom(ByteBuffer)}. Currencies
+     * are written as their ISO 4217 codes, since the indexes of the currency table are only valid in this JVM.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int size = size();
+        out.writeLong(brandId);
+        out.writeLong(productId);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(starts[i]);
+            out.writeLong(ends[i]);
+            out.writeInt(priorities[i]);
+            out.writeInt(priceLists[i]);
+            out.writeLong(unscaledAmounts[i]);
+            out.writeByte(scales[i]);
+            out.write(currencies[i] == NO_CURRENCY ? NO_CURRENCY_CODE : CurrencyTable.of(currencies[i]).getCurrencyCode().getBytes(StandardCharsets.US_ASCII));
+            out.writeLong(idHighs[i]);
+            out.writeInt(idLows[i]);
+        }
+        out.writeBoolean(irregularIds != null);
+        if (irregularIds != null) {
+            for (String id : irregularIds) {
+                if (id == null) {
+                    out.writeInt(REGULAR_ID);
+                } else if (id == NO_ID) {
+                    out.writeInt(MISSING_ID);
+                } else {
+                    byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+        out.writeBoolean(irregularAmounts != null);
+        if (irregularAmounts != null) {
+            for (BigDecimal amount : irregularAmounts) {
+                if (amount != null) {
+                    out.writeUTF(amount.toString());
+                }
+            }
+        }
+        out.writeBoolean(missingPriorities != null);
+        if (missingPriorities != null) {
+            for (boolean missing : missingPriorities) {
+                out.writeBoolean(missing);
+            }
+        }
+    }
+
+    /**
+     * Reads intervals written by {@link #writeTo(DataOutput)}.
+     *
+     * @param buffer the buffer positioned at the start of the intervals
+     * @return the {@code PriceIntervals} read
+     */
+    static PriceIntervals readFrom(ByteBuffer buffer) {
+        long brandId = buffer.getLong();
+        long productId = buffer.getLong();
+        int size = buffer.getInt();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        int[] priorities = new int[size];
+        int[] priceLists = new int[size];
+        long[] unscaledAmounts = new long[size];
+        byte[] scales = new byte[size];
+        short[] currencies = new short[size];
+        long[] idHighs = new long[size];
+        int[] idLows = new int[size];
+        byte[] currencyCode = new byte[NO_CURRENCY_CODE.length];
+        for (int i = 0; i < size; i++) {
+            starts[i] = buffer.getLong();
+            ends[i] = buffer.getLong();
+            priorities[i] = buffer.getInt();
+            priceLists[i] = buffer.getInt();
+            unscaledAmounts[i] = buffer.getLong();
+            scales[i] = buffer.get();
+            buffer.get(currencyCode);
+            currencies[i] = Arrays.equals(currencyCode, NO_CURRENCY_CODE)
+                    ? NO_CURRENCY
+                    : CurrencyTable.indexOf(Currency.getInstance(new String(currencyCode, StandardCharsets.US_ASCII)));
+            idHighs[i] = buffer.getLong();
+            idLows[i] = buffer.getInt();
+        }
+        String[] irregularIds = null;
+        if (buffer.get() != 0) {
+            irregularIds = new String[size];
+            for (int i = 0; i < size; i++) {
+                int length = buffer.getInt();
+                if (length == MISSING_ID) {
+                    irregularIds[i] = NO_ID;
+                } else if (length != REGULAR_ID) {
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    irregularIds[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+        }
+        BigDecimal[] irregularAmounts = null;
+        if (buffer.get() != 0) {
+            irregularAmounts = new BigDecimal[size];
+            for (int i = 0; i < size; i++) {
+                if (scales[i] == IRREGULAR_AMOUNT) {
+                    byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+                    buffer.get(bytes);
+                    irregularAmounts[i] = new BigDecimal(new String(bytes, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        boolean[] missingPriorities = null;
+        if (buffer.get() != 0) {
+            missingPriorities = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                missingPriorities[i] = buffer.get() != 0;
+            }
+        }
+        return new PriceIntervals(brandId, productId, starts, ends, priorities, priceLists, unscaledAmounts, scales, currencies,
+                idHighs, idLows, irregularIds, irregularAmounts, missingPriorities);
+    }
+
+    private int lastStartingAtOrBefore(long date) {
+        int low = 0;
+        int high = starts.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= date) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private static boolean fitsColumns(BigDecimal amount) {
+        return amount.scale() > IRREGULAR_AMOUNT && amount.scale() <= Byte.MAX_VALUE
+                && amount.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    private static boolean isIndexable(Price price) {
+        return price.getStartDate() != null && price.getEndDate() != null
+                && price.getBrandId() != null && price.getProductId() != null;
+    }
+
+    /**
+     * Returns the priority of a price for comparisons: a price without priority ranks below any other.
+     */
+    static int priorityOf(Price price) {
+        return price.getPriority() == null ? Integer.MIN_VALUE : price.getPriority();
+    }
+
+    /**
+     * Table of the currencies in use, so intervals refer to theirs with a {@code short} index. Currencies are
+     * only ever added, and there are a few hundred at most.
+     */
+    private static final class CurrencyTable {
+
+        private static final List<Currency> CURRENCIES = new CopyOnWriteArrayList<>();
+        private static final Map<Currency, Short> INDEXES = new ConcurrentHashMap<>();
+
+        static short indexOf(Currency currency) {
+            Short index = INDEXES.get(currency);
+            if (index != null) {
+                return index;
+            }
+            synchronized (CURRENCIES) {
+                return INDEXES.computeIfAbsent(currency, added -> {
+                    CURRENCIES.add(added);
+                    return (short) (CURRENCIES.size() - 1);
+                });
+            }
+        }
+
+        static Currency of(short index) {
+            return CURRENCIES.get(index);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+/**
+ * Identifies the timeline of prices of a single product of a brand.
+ *
+ * @param brandId   the ID of the brand
+ * @param productId the ID of the product
+ */
+public record PriceKey(long brandId, long productId) {
+
+    /**
+     * Builds the key a {@link Price} belongs to.
+     *
+     * @param price the {@link Price} entity
+     * @return the {@code PriceKey} of the price
+     */
+    public static PriceKey of(Price price) {
+        return new PriceKey(price.getBrandId(), price.getProductId());
+    }
+}
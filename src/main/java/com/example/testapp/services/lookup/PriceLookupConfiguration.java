@@ -0,0 +1,99 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Assembles the {@link PriceLookupEngine} used by the application: the engine selected with
+ * {@code prices.lookup.engine}, qualified as {@link #BASE_ENGINE}, decorated as configured under
+ * {@code prices.lookup}. From the outermost layer inwards: the known products filter, the cache, then the
+ * coalescing of concurrent lookups, so only cache misses are coalesced.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PriceLookupConfiguration {
+
+    public static final String BASE_ENGINE = "basePriceLookupEngine";
+
+    /**
+     * Builds the primary {@link PriceLookupEngine}.
+     *
+     * @param baseEngine       the engine selected with {@code prices.lookup.engine}
+     * @param knownProducts    the known products filter, if enabled
+     * @param pricesProperties the prices configuration
+     * @param meterRegistry    the registry the cache and coalescing statistics are published to
+     * @return the decorated {@link PriceLookupEngine}
+     */
+    @Bean
+    @Primary
+    public PriceLookupEngine priceLookupEngine(@Qualifier(BASE_ENGINE) PriceLookupEngine baseEngine,
+                                               ObjectProvider<KnownProducts> knownProducts,
+                                               PricesProperties pricesProperties,
+                                               MeterRegistry meterRegistry) {
+        PriceLookupEngine engine = baseEngine;
+        PricesProperties.Coalescing coalescing = pricesProperties.getLookup().getCoalescing();
+        if (coalescing.isEnabled()) {
+            CoalescingPriceLookupEngine coalescingEngine = new CoalescingPriceLookupEngine(engine, coalescing.getTimeout());
+            bindCoalescingMetrics(coalescingEngine, meterRegistry);
+            engine = coalescingEngine;
+        }
+        PricesProperties.Cache cache = pricesProperties.getLookup().getCache();
+        if (cache.isEnabled()) {
+            CachingPriceLookupEngine caching = new CachingPriceLookupEngine(engine, cache.getMaximumSize(), cache.getTimeToLive(), cache.getNegativeTimeToLive());
+            bindCacheMetrics(caching, meterRegistry);
+            engine = caching;
+        }
+        KnownProducts products = knownProducts.getIfAvailable();
+        if (products != null) {
+            engine = new KnownProductsPriceLookupEngine(engine, products);
+        }
+        return engine;
+    }
+
+    private static void bindCoalescingMetrics(CoalescingPriceLookupEngine coalescing, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("prices.lookup.coalesced", coalescing, CoalescingPriceLookupEngine::coalescedCount)
+                .description("Lookups waiting for a concurrent lookup of the same product")
+                .tag("outcome", "served")
+                .register(meterRegistry);
+        FunctionCounter.builder("prices.lookup.coalesced", coalescing, CoalescingPriceLookupEngine::timedOutCount)
+                .description("Lookups waiting for a concurrent lookup of the same product")
+                .tag("outcome", "timed_out")
+                .register(meterRegistry);
+        FunctionCounter.builder("prices.lookup.coalesced", coalescing, CoalescingPriceLookupEngine::cancelledCount)
+                .description("Lookups waiting for a concurrent lookup of the same product")
+                .tag("outcome", "cancelled")
+                .register(meterRegistry);
+        Gauge.builder("prices.lookup.in.flight", coalescing, CoalescingPriceLookupEngine::inFlightCount)
+                .description("Products being resolved")
+                .register(meterRegistry);
+    }
+
+    private static void bindCacheMetrics(CachingPriceLookupEngine caching, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("prices.lookup.cache.gets", caching, CachingPriceLookupEngine::hitCount)
+                .description("Lookups answered from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("prices.lookup.cache.gets", caching, CachingPriceLookupEngine::negativeHitCount)
+                .description("Lookups answered from the cache")
+                .tag("result", "negative_hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("prices.lookup.cache.gets", caching, CachingPriceLookupEngine::missCount)
+                .description("Lookups answered from the cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("prices.lookup.cache.evictions", caching, CachingPriceLookupEngine::evictionCount)
+                .description("Entries evicted from the cache")
+                .register(meterRegistry);
+        Gauge.builder("prices.lookup.cache.size", caching, CachingPriceLookupEngine::size)
+                .description("Entries in the cache")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Strategy in charge of resolving which {@link Price} applies to a product of a brand at a given date.
+ * The active implementation is selected through the {@code prices.lookup.engine} property.
+ */
+public interface PriceLookupEngine {
+
+    /**
+     * Resolves the price applying to the given brand and product at the given date. When several prices
+     * overlap, the one with the highest priority wins, as described by {@link Price#getPriority()}.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date and time for which the price is being queried
+     * @return the winning {@link Price}, or an empty {@code Optional} if no price applies at that date
+     */
+    Optional<Price> findPrice(long brandId, long productId, LocalDateTime date);
+
+    /**
+     * Resolves the price applying to the given brand and product at the given date, together with a window
+     * containing that date during which the answer does not change. The window is allowed to be narrower than
+     * the whole stretch the price applies for; the default one only spans the queried millisecond.
+     *
+     * @param brandId   the ID of the brand
+     * @param productId the ID of the product
+     * @param date      the date and time for which the price is being queried
+     * @return the {@link PriceSegment} containing the date, whose price is {@code null} if no price applies
+     */
+    default PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        long instant = PriceTimes.toEpochMilli(date);
+        return new PriceSegment(findPrice(brandId, productId, date).orElse(null), instant, instant + 1);
+    }
+
+    /**
+     * Resolves a batch of lookups. Engines able to answer several lookups at once, with fewer round trips than
+     * one per lookup, override the default implementation, which resolves them one by one.
+     *
+     * @param queries the lookups to resolve
+     * @return the {@link PriceSegment} of every lookup, in the same order as the queries
+     */
+    default List<PriceSegment> resolveAll(List<PriceQuery> queries) {
+        List<PriceSegment> segments = new ArrayList<>(queries.size());
+        for (PriceQuery query : queries) {
+            segments.add(resolve(query.brandId(), query.productId(), query.date()));
+        }
+        return segments;
+    }
+
+    /**
+     * Notifies the engine about prices that have just been persisted, so it can keep its lookup
+     * structures current.
+     *
+     * @param prices the persisted {@link Price} entities
+     */
+    void index(Iterable<Price> prices);
+
+    /**
+     * Notifies the engine about prices that have just been deleted, so it stops answering with them. Engines
+     * without state of their own have nothing to do.
+     *
+     * @param prices the deleted prices, as they were stored
+     */
+    default void remove(Iterable<Price> prices) {
+        // nothing kept about the deleted prices
+    }
+
+    /**
+     * Discards whatever the engine keeps about the stored prices and loads it again, for changes that cannot
+     * be attributed to specific products. Engines without state of their own have nothing to do.
+     */
+    default void reload() {
+        // nothing to reload
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.testapp.services.lookup;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single lookup of a batch: the price of a product of a brand at a date.
+ *
+ * @param brandId   the ID of the brand
+ * @param productId the ID of the product
+ * @param date      the date and time for which the price is being queried
+ */
+public record PriceQuery(long brandId, long productId, LocalDateTime date) {
+
+    public PriceKey key() {
+        return new PriceKey(brandId, productId);
+    }
+}
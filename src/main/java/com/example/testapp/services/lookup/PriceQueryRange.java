@@ -0,0 +1,22 @@
+package com.example.testapp.services.lookup;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dates a product is looked up at by the lookups of a batch, from the earliest to the latest.
+ *
+ * @param earliest the earliest date the product is looked up at
+ * @param latest   the latest date the product is looked up at
+ */
+public record PriceQueryRange(LocalDateTime earliest, LocalDateTime latest) {
+
+    /**
+     * Widens the range to include a date.
+     *
+     * @param date the date to include
+     * @return the range from the earliest to the latest of its dates and the given one
+     */
+    public PriceQueryRange including(LocalDateTime date) {
+        return new PriceQueryRange(date.isBefore(earliest) ? date : earliest, date.isAfter(latest) ? date : latest);
+    }
+}
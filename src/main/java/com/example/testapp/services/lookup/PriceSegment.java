@@ -0,0 +1,24 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+/**
+ * Stretch of a product timeline during which a single {@link Price} is the effective one, or during which no
+ * price applies at all.
+ *
+ * @param price     the effective {@link Price}, or {@code null} for a stretch without price
+ * @param validFrom the first instant of the segment, in epoch milliseconds (inclusive)
+ * @param validTo   the instant the segment ends at, in epoch milliseconds (exclusive)
+ */
+public record PriceSegment(Price price, long validFrom, long validTo) {
+
+    /**
+     * Tells whether the segment contains the given instant.
+     *
+     * @param instant the instant, in epoch milliseconds
+     * @return {@code true} if {@code validFrom <= instant < validTo}
+     */
+    public boolean contains(long instant) {
+        return validFrom <= instant && instant < validTo;
+    }
+}
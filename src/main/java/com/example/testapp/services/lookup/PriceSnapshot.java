@@ -0,0 +1,171 @@
+package com.example.testapp.services.lookup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the in-memory price intervals on local disk, so an instance can start serving lookups
+ * without scanning the whole {@code prices} collection.
+ *
+ * <p>The file holds a header (magic number, format version, creation time, change stream position and number
+ * of products), the {@link PriceIntervals} of every product, each preceded by its length, and a CRC-32 of
+ * everything before it. Snapshots are written to a temporary file and moved into place, so a reader never sees a partial one,
+ * and read through memory-mapped windows of the file, so loading costs little more than the page cache.</p>
+ */
+final class PriceSnapshot {
+
+    private static final int MAGIC = 0x50524353;
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    /**
+     * Contents of a snapshot.
+     *
+     * @param createdAt   the time the snapshot was taken; changes made before it are included
+     * @param resumeToken the position in the change stream of the last change included, or {@code null} if the
+     *                    change stream was not followed
+     * @param intervals   the intervals of every product
+     */
+    record Contents(Instant createdAt, String resumeToken, Map<PriceKey, PriceIntervals> intervals) {
+    }
+
+    private PriceSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the given intervals, replacing the file atomically.
+     *
+     * @param path        the snapshot file
+     * @param createdAt   the time the intervals were taken
+     * @param resumeToken the position in the change stream of the last change included in the intervals, or
+     *                    {@code null}
+     * @param intervals   the intervals of every product
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(Path path, Instant createdAt, String resumeToken, Map<PriceKey, PriceIntervals> intervals) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(createdAt.toEpochMilli());
+                byte[] token = resumeToken == null ? new byte[0] : resumeToken.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(token.length);
+                out.write(token);
+                out.writeInt(intervals.size());
+                ByteArrayOutputStream record = new ByteArrayOutputStream();
+                DataOutputStream recordOut = new DataOutputStream(record);
+                for (PriceIntervals productIntervals : intervals.values()) {
+                    record.reset();
+                    productIntervals.writeTo(recordOut);
+                    out.writeInt(record.size());
+                    record.writeTo(out);
+                }
+                out.flush();
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot, checking its format and checksum first.
+     *
+     * @param path the snapshot file
+     * @return the contents of the snapshot
+     * @throws IOException if the snapshot cannot be read, or is not a valid snapshot
+     */
+    static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long contentSize = channel.size() - Long.BYTES;
+            if (contentSize < HEADER_SIZE) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            CRC32 crc = new CRC32();
+            for (long position = 0; position < contentSize; position += WINDOW_SIZE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, contentSize - position)));
+            }
+            if (crc.getValue() != channel.map(FileChannel.MapMode.READ_ONLY, contentSize, Long.BYTES).getLong()) {
+                throw new IOException("Snapshot " + path + " does not match its checksum");
+            }
+            MappedReader reader = new MappedReader(channel, contentSize);
+            ByteBuffer header = reader.next(HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                throw new IOException("Snapshot " + path + " has an unknown format");
+            }
+            Instant createdAt = Instant.ofEpochMilli(header.getLong());
+            int tokenLength = header.getInt();
+            String resumeToken = null;
+            if (tokenLength > 0) {
+                ByteBuffer token = reader.next(tokenLength);
+                byte[] bytes = new byte[tokenLength];
+                token.get(bytes);
+                resumeToken = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int products = reader.next(Integer.BYTES).getInt();
+            Map<PriceKey, PriceIntervals> intervals = new HashMap<>(products * 4 / 3 + 1);
+            for (int i = 0; i < products; i++) {
+                int length = reader.next(Integer.BYTES).getInt();
+                PriceIntervals productIntervals = PriceIntervals.readFrom(reader.next(length));
+                intervals.put(productIntervals.key(), productIntervals);
+            }
+            return new Contents(createdAt, resumeToken, intervals);
+        }
+    }
+
+    /**
+     * Reads a file sequentially through memory-mapped windows, since a single mapping cannot exceed 2 GB.
+     */
+    private static final class MappedReader {
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        MappedReader(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        /**
+         * Returns a buffer over the next {@code length} bytes and moves past them.
+         */
+        ByteBuffer next(int length) throws IOException {
+            if (window == null || window.remaining() < length) {
+                long position = window == null ? 0 : windowStart + window.position();
+                if (position + length > size) {
+                    throw new IOException("Snapshot is truncated");
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, length), size - position));
+                windowStart = position;
+            }
+            ByteBuffer slice = window.slice(window.position(), length);
+            window.position(window.position() + length);
+            return slice;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sweep-line pass turning the overlapping prices of a product into its non-overlapping effective timeline.
+ *
+ * <p>Prices are consumed in ascending start order and segments are emitted in ascending order as soon as
+ * they are settled, so memory only grows with the number of prices active at the same time, not with the
+ * length of the timeline. At any instant the covering price with the highest priority wins, the latest
+ * start breaking ties. Adjacent stretches won by the same price are emitted as a single segment.</p>
+ */
+public final class PriceTimelineFlattener {
+
+    private static final Comparator<Interval> BY_RANK = Comparator.comparingInt(Interval::priority)
+            .thenComparingLong(Interval::start)
+            .reversed();
+
+    private static final Comparator<Interval> BY_END = Comparator.comparingLong(Interval::end);
+
+    private PriceTimelineFlattener() {
+    }
+
+    /**
+     * Flattens the prices of a single product.
+     *
+     * @param pricesByStart the prices of the product, sorted by ascending start date
+     * @param segments      receives the effective segments, sorted by ascending {@code validFrom}
+     */
+    public static void flatten(Iterator<Price> pricesByStart, Consumer<PriceSegment> segments) {
+        Sweep sweep = new Sweep(segments);
+        while (pricesByStart.hasNext()) {
+            sweep.add(pricesByStart.next());
+        }
+        sweep.finish();
+    }
+
+    /**
+     * Flattens the prices of a single product lazily: prices are only pulled from the given stream as far as
+     * needed to settle the next segment. Closing the returned stream closes the given one.
+     *
+     * @param pricesByStart the prices of the product, sorted by ascending start date
+     * @return the effective segments, sorted by ascending {@code validFrom}
+     */
+    public static Stream<PriceSegment> flatten(Stream<Price> pricesByStart) {
+        Iterator<Price> prices = pricesByStart.iterator();
+        ArrayDeque<PriceSegment> settled = new ArrayDeque<>();
+        Sweep sweep = new Sweep(settled::add);
+        Spliterator<PriceSegment> segments = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            private boolean finished;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super PriceSegment> action) {
+                while (settled.isEmpty() && !finished) {
+                    if (prices.hasNext()) {
+                        sweep.add(prices.next());
+                    } else {
+                        sweep.finish();
+                        finished = true;
+                    }
+                }
+                if (settled.isEmpty()) {
+                    return false;
+                }
+                action.accept(settled.poll());
+                return true;
+            }
+        };
+        return StreamSupport.stream(segments, false).onClose(pricesByStart::close);
+    }
+
+    /**
+     * Price interval with its exclusive end, in epoch milliseconds.
+     */
+    private record Interval(Price price, long start, long end, int priority) {
+    }
+
+    private static final class Sweep {
+
+        private final Consumer<PriceSegment> segments;
+        private final PriorityQueue<Interval> active = new PriorityQueue<>(BY_RANK);
+        private final PriorityQueue<Interval> pendingEnds = new PriorityQueue<>(BY_END);
+        private Price current;
+        private long currentFrom;
+
+        private Sweep(Consumer<PriceSegment> segments) {
+            this.segments = segments;
+        }
+
+        private void add(Price price) {
+            if (price.getStartDate() != null && price.getEndDate() != null) {
+                add(new Interval(price, PriceTimes.toEpochMilli(price.getStartDate()),
+                        PriceTimes.toEpochMilli(price.getEndDate()) + 1, PriceIntervals.priorityOf(price)));
+            }
+        }
+
+        private void add(Interval interval) {
+            advanceTo(interval.start());
+            active.add(interval);
+            pendingEnds.add(interval);
+            settle(interval.start());
+        }
+
+        private void finish() {
+            advanceTo(Long.MAX_VALUE);
+        }
+
+        /**
+         * Settles every interval end reached at or before the given instant.
+         */
+        private void advanceTo(long instant) {
+            while (!pendingEnds.isEmpty() && pendingEnds.peek().end() <= instant) {
+                long end = pendingEnds.poll().end();
+                while (!pendingEnds.isEmpty() && pendingEnds.peek().end() == end) {
+                    pendingEnds.poll();
+                }
+                settle(end);
+            }
+        }
+
+        /**
+         * Recomputes the winner at the given instant, closing the current segment if it changed. Ended
+         * intervals are only dropped from the active queue once they reach its head.
+         */
+        private void settle(long instant) {
+            while (!active.isEmpty() && active.peek().end() <= instant) {
+                active.poll();
+            }
+            Price winner = active.isEmpty() ? null : active.peek().price();
+            if (winner != current) {
+                if (current != null && currentFrom < instant) {
+                    segments.accept(new PriceSegment(current, currentFrom, instant));
+                }
+                current = winner;
+                currentFrom = instant;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.testapp.services.lookup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions between {@link LocalDateTime} and the epoch milliseconds used by the lookup structures.
+ * Dates are read as UTC and truncated to milliseconds, which is the precision MongoDB stores them with.
+ */
+public final class PriceTimes {
+
+    private PriceTimes() {
+    }
+
+    /**
+     * Converts a date to epoch milliseconds without allocating intermediate objects.
+     *
+     * @param date the date to convert
+     * @return the epoch milliseconds of the date read as UTC
+     */
+    public static long toEpochMilli(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000L + date.getNano() / 1_000_000;
+    }
+
+    /**
+     * Converts epoch milliseconds back to a date.
+     *
+     * @param epochMilli the epoch milliseconds to convert
+     * @return the {@link LocalDateTime} at UTC
+     */
+    public static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMilli, 1_000L),
+                (int) Math.floorMod(epochMilli, 1_000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
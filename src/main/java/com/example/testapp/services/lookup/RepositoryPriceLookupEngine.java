@@ -0,0 +1,91 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default {@link PriceLookupEngine} that resolves every lookup with a single round trip to MongoDB: a covered,
+ * limit-1 query for the price alone, or an aggregation when the window it applies for is needed as well.
+ */
+@Component
+@Qualifier(PriceLookupConfiguration.BASE_ENGINE)
+@ConditionalOnProperty(prefix = "prices.lookup", name = "engine", havingValue = "repository", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RepositoryPriceLookupEngine implements PriceLookupEngine {
+
+    private final PricesRepository pricesRepository;
+    private final DistributionSummary batchResultSize;
+
+    public RepositoryPriceLookupEngine(PricesRepository pricesRepository, MeterRegistry meterRegistry) {
+        this.pricesRepository = pricesRepository;
+        this.batchResultSize = DistributionSummary.builder("prices.repository.results")
+                .description("Prices returned by a query fetching the prices of several products")
+                .tag("query", "findPricesApplyingWithin")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findPrice(long brandId, long productId, LocalDateTime date) {
+        return pricesRepository.findEffectivePrice(brandId, productId, date);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The window starts at the queried date and ends when the winning price does, or earlier if a price
+     * that beats it starts in between. Both the price and that start date come from a single aggregation.</p>
+     */
+    @Override
+    public PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        EffectivePrice effective = pricesRepository.findEffectivePriceAndNextStart(brandId, productId, date);
+        Price price = effective.price();
+        long validTo = price == null ? Long.MAX_VALUE : PriceTimes.toEpochMilli(price.getEndDate()) + 1;
+        if (effective.nextStartDate() != null) {
+            validTo = Math.min(validTo, PriceTimes.toEpochMilli(effective.nextStartDate()));
+        }
+        return new PriceSegment(price, PriceTimes.toEpochMilli(date), validTo);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The prices of up to {@value PriceBatches#PRODUCTS_PER_QUERY} products are fetched with a single query,
+     * keeping those that may apply between the earliest and the latest dates queried for each product, along with
+     * the first start date of the prices after them, and the lookups are then resolved in memory.</p>
+     */
+    @Override
+    public List<PriceSegment> resolveAll(List<PriceQuery> queries) {
+        List<Price> prices = new ArrayList<>();
+        Map<PriceKey, LocalDateTime> nextStartDates = new HashMap<>();
+        for (Map<PriceKey, PriceQueryRange> ranges : PriceBatches.rangesByChunk(queries)) {
+            List<Price> chunk = pricesRepository.findPricesApplyingWithin(ranges);
+            batchResultSize.record(chunk.size());
+            prices.addAll(chunk);
+            nextStartDates.putAll(pricesRepository.findNextStartDates(ranges));
+        }
+        return PriceBatches.resolve(queries, prices, nextStartDates);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>Nothing is kept in memory, so there is nothing to update.</p>
+     */
+    @Override
+    public void index(Iterable<Price> prices) {
+        // every lookup goes to the database
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.model.EffectivePrice;
+import com.example.testapp.model.Price;
+import com.example.testapp.model.TimelineBackfill;
+import com.example.testapp.repositories.EffectivePricesRepository;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.repositories.TimelineBackfillsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link PriceLookupEngine} that resolves priorities when prices are written instead of when they are read.
+ *
+ * <p>Every time prices are saved, the timelines of the affected products are flattened into non-overlapping
+ * {@link EffectivePrice} segments stored in the {@code effective_prices} collection. A lookup is then a single
+ * range-containment query, with no sorting nor tie-breaking. Until a backfill of every product has completed, as
+ * recorded by a {@link TimelineBackfill} marker, the timelines are backfilled from the stored prices at startup.</p>
+ *
+ * <p>The rebuilds of a product are serialized, and each one takes its revision before reading the prices, so the
+ * highest revision is always built from the most recent read and never dropped in favour of a staler one.</p>
+ *
+ * <p>The timelines are shared by every instance but maintained by a single one. Without the change stream, that is
+ * the instance saving the prices. With it, every instance is notified of every change, and only the holder of the
+ * {@link TimelineWriterLease} rebuilds the timelines. The others remember the products they were notified about
+ * for twice the lease, and rebuild them when they take the lease over, in case its previous holder left before
+ * applying their changes.</p>
+ */
+@Slf4j
+@Component
+@Qualifier(PriceLookupConfiguration.BASE_ENGINE)
+@ConditionalOnProperty(prefix = "prices.lookup", name = "engine", havingValue = "timeline")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TimelinePriceLookupEngine implements PriceLookupEngine, InitializingBean {
+
+    private final PricesRepository pricesRepository;
+    private final EffectivePricesRepository effectivePricesRepository;
+    private final TimelineBackfillsRepository timelineBackfillsRepository;
+    private final TimelineWriterLease writerLease;
+    private final long skippedRetention;
+    private final AtomicLong lastRevision = new AtomicLong();
+    private final ReentrantLock[] productLocks = new ReentrantLock[LOCK_STRIPES];
+    private final ConcurrentMap<PriceKey, Long> skipped = new ConcurrentHashMap<>();
+    private boolean writing;
+
+    static final String BACKFILL_ID = "effective_prices";
+    private static final int LOCK_STRIPES = 64;
+
+    public TimelinePriceLookupEngine(PricesRepository pricesRepository, EffectivePricesRepository effectivePricesRepository,
+                                     TimelineBackfillsRepository timelineBackfillsRepository, ObjectProvider<TimelineWriterLease> writerLease,
+                                     PricesProperties pricesProperties) {
+        this.pricesRepository = pricesRepository;
+        this.effectivePricesRepository = effectivePricesRepository;
+        this.timelineBackfillsRepository = timelineBackfillsRepository;
+        this.writerLease = writerLease.getIfAvailable();
+        this.skippedRetention = pricesProperties.getChangeStream().getWriterLease().multipliedBy(2).toNanos();
+        for (int i = 0; i < productLocks.length; i++) {
+            productLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Backfills the timelines of every product unless a previous backfill has completed, or another instance
+     * maintains them. A backfill interrupted halfway is started over, rebuilding the timelines it had already written.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (timelineBackfillsRepository.existsById(BACKFILL_ID) || !isWriter()) {
+            return;
+        }
+        int products = 0;
+        try (Stream<Price> prices = pricesRepository.streamAllOrderedByProduct()) {
+            Iterator<Price> iterator = prices.iterator();
+            List<Price> productPrices = new ArrayList<>();
+            PriceKey productKey = null;
+            while (iterator.hasNext()) {
+                Price price = iterator.next();
+                PriceKey key = PriceKey.of(price);
+                if (!key.equals(productKey) && productKey != null) {
+                    rebuild(productKey, () -> productPrices);
+                    productPrices.clear();
+                    products++;
+                }
+                productKey = key;
+                productPrices.add(price);
+            }
+            if (productKey != null) {
+                rebuild(productKey, () -> productPrices);
+                products++;
+            }
+        }
+        timelineBackfillsRepository.save(TimelineBackfill.builder()
+                ._id(BACKFILL_ID)
+                .products(products)
+                .completedAt(Instant.now())
+                .build());
+        log.info("Backfilled the effective price timelines of {} products", products);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<Price> findPrice(long brandId, long productId, LocalDateTime date) {
+        return effectivePricesRepository.findContaining(brandId, productId, date)
+                .map(EffectivePrice::getPrice);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The window is the whole stored segment, or the gap up to the next segment when no price applies.</p>
+     */
+    @Override
+    public PriceSegment resolve(long brandId, long productId, LocalDateTime date) {
+        Optional<EffectivePrice> segment = effectivePricesRepository.findContaining(brandId, productId, date);
+        if (segment.isPresent()) {
+            return new PriceSegment(segment.get().getPrice(),
+                    PriceTimes.toEpochMilli(segment.get().getValidFrom()),
+                    PriceTimes.toEpochMilli(segment.get().getValidTo()));
+        }
+        long validTo = effectivePricesRepository.findFirstByBrandIdAndProductIdAndValidFromGreaterThanOrderByValidFromAsc(brandId, productId, date)
+                .map(next -> PriceTimes.toEpochMilli(next.getValidFrom()))
+                .orElse(Long.MAX_VALUE);
+        return new PriceSegment(null, PriceTimes.toEpochMilli(date), validTo);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The whole timeline of every affected product is rebuilt from the stored prices, by the instance
+     * maintaining the timelines.</p>
+     */
+    @Override
+    public void index(Iterable<Price> prices) {
+        Set<PriceKey> keys = new LinkedHashSet<>();
+        for (Price price : prices) {
+            if (price.getBrandId() != null && price.getProductId() != null) {
+                keys.add(PriceKey.of(price));
+            }
+        }
+        if (!isWriter()) {
+            long now = System.nanoTime();
+            keys.forEach(key -> skipped.put(key, now));
+            skipped.values().removeIf(notifiedAt -> now - notifiedAt > skippedRetention);
+            return;
+        }
+        keys.forEach(this::rebuild);
+    }
+
+    /**
+     * {@inheritDoc }
+     * <p>The timelines of the affected products are rebuilt from the prices still stored.</p>
+     */
+    @Override
+    public void remove(Iterable<Price> prices) {
+        index(prices);
+    }
+
+    /**
+     * Tells whether this instance maintains the timelines, rebuilding the products it was notified about meanwhile
+     * when it has just taken them over.
+     */
+    private synchronized boolean isWriter() {
+        if (writerLease == null) {
+            return true;
+        }
+        boolean held = writerLease.isHeld();
+        if (held && !writing) {
+            writing = true;
+            List<PriceKey> takenOver = List.copyOf(skipped.keySet());
+            skipped.keySet().removeAll(takenOver);
+            log.info("Took over the effective price timelines, rebuilding {} recently changed products", takenOver.size());
+            takenOver.forEach(this::rebuild);
+        }
+        writing = held;
+        return held;
+    }
+
+    private void rebuild(PriceKey key) {
+        rebuild(key, () -> pricesRepository.findByBrandIdAndProductIdOrderByStartDateAsc(key.brandId(), key.productId()));
+    }
+
+    /**
+     * Writes a new revision of the timeline of a product and drops the previous ones. The revision is taken before the
+     * prices are read, under a lock of the product, so a rebuild never overwrites a more recent read.
+     *
+     * @param key           the product the prices belong to
+     * @param pricesByStart reads the prices of the product, sorted by start date
+     */
+    private void rebuild(PriceKey key, Supplier<List<Price>> pricesByStart) {
+        ReentrantLock lock = productLocks[Math.floorMod(key.hashCode(), productLocks.length)];
+        lock.lock();
+        try {
+            long revision = lastRevision.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+            write(key, pricesByStart.get(), revision);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(PriceKey key, List<Price> pricesByStart, long revision) {
+        List<EffectivePrice> segments = new ArrayList<>();
+        PriceTimelineFlattener.flatten(pricesByStart.iterator(), segment -> segments.add(EffectivePrice.builder()
+                .brandId(key.brandId())
+                .productId(key.productId())
+                .validFrom(PriceTimes.toLocalDateTime(segment.validFrom()))
+                .validTo(PriceTimes.toLocalDateTime(segment.validTo()))
+                .revision(revision)
+                .price(segment.price())
+                .build()));
+        effectivePricesRepository.saveAll(segments);
+        effectivePricesRepository.deleteByBrandIdAndProductIdAndRevisionLessThan(key.brandId(), key.productId(), revision);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.model.WriterLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Elects the single instance maintaining the shared {@code effective_prices} timelines of the
+ * {@link TimelinePriceLookupEngine} when every instance follows the change stream, so the timelines are not
+ * rebuilt once per instance for every change.
+ *
+ * <p>The role is a {@link WriterLease} held for {@code prices.change-stream.writer-lease}, renewed by its holder
+ * while it applies changes, and taken over by another instance once expired. An instance considers itself the
+ * holder for a third of the lease at most without renewing it, so two instances never do.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "prices.change-stream", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TimelineWriterLease {
+
+    static final String LEASE_ID = "effective_prices";
+
+    private final MongoOperations mongoOperations;
+    private final Duration duration;
+    private final String holder = UUID.randomUUID().toString();
+    private volatile boolean held;
+    private volatile long nextCheck = System.nanoTime();
+
+    public TimelineWriterLease(MongoOperations mongoOperations, PricesProperties pricesProperties) {
+        this.mongoOperations = mongoOperations;
+        this.duration = pricesProperties.getChangeStream().getWriterLease();
+    }
+
+    /**
+     * Tells whether this instance holds the lease, acquiring or renewing it when it was last checked a third of
+     * the lease ago or more.
+     *
+     * @return {@code true} if this instance is the one to maintain the timelines
+     */
+    public synchronized boolean isHeld() {
+        long now = System.nanoTime();
+        if (now - nextCheck < 0) {
+            return held;
+        }
+        held = acquire();
+        nextCheck = now + duration.toNanos() / 3;
+        return held;
+    }
+
+    private boolean acquire() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("holder").is(holder), Criteria.where("expiresAt").lt(now)));
+        try {
+            mongoOperations.upsert(query, new Update().set("holder", holder).set("expiresAt", now.plus(duration)), WriterLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        } catch (DataAccessException e) {
+            log.warn("Could not renew the lease on the effective price timelines: {}", e.getMessage());
+            return false;
+        }
+    }
+}
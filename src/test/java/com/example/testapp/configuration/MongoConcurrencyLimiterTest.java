@@ -0,0 +1,107 @@
+package com.example.testapp.configuration;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoConcurrencyLimiterTest {
+
+    @Mock
+    private PricesRepository pricesRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private MongoConcurrencyLimiter limiter;
+    private PricesRepository limitedRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(pricesRepository.findEffectivePrice(anyLong(), anyLong(), any())).thenReturn(Optional.of(PriceMock.getPrice()));
+        when(pricesRepository.streamAllOrderedByProduct()).thenAnswer(invocation -> Stream.of(PriceMock.getPrice()));
+        when(mongoTemplate.findAll(Price.class)).thenReturn(List.of(PriceMock.getPrice()));
+        limiter = new MongoConcurrencyLimiter(1, Duration.ofMillis(50));
+        limitedRepository = (PricesRepository) limiter.postProcessAfterInitialization(pricesRepository, "pricesRepository");
+    }
+
+    @Test
+    void whenCallReturns_shouldReleaseItsPermit() {
+        limitedRepository.findEffectivePrice(1L, 35643L, null);
+
+        assertEquals(1, limiter.availablePermits());
+    }
+
+    @Test
+    void whenStreamIsOpen_shouldHoldPermitUntilClosed() {
+        try (Stream<Price> prices = limitedRepository.streamAllOrderedByProduct()) {
+            assertEquals(0, limiter.availablePermits());
+            assertThrows(DataAccessResourceFailureException.class, () -> limitedRepository.findEffectivePrice(1L, 35643L, null));
+        }
+
+        assertEquals(1, limiter.availablePermits());
+    }
+
+    @Test
+    void whenTemplateCalledWhileStreamIsOpen_shouldWaitForThePermit() {
+        MongoOperations limitedTemplate = (MongoOperations) limiter.postProcessAfterInitialization(mongoTemplate, "mongoTemplate");
+
+        try (Stream<Price> prices = limitedRepository.streamAllOrderedByProduct()) {
+            assertThrows(DataAccessResourceFailureException.class, () -> limitedTemplate.findAll(Price.class));
+        }
+
+        assertEquals(1, limitedTemplate.findAll(Price.class).size());
+        assertEquals(1, limiter.availablePermits());
+    }
+
+    @Test
+    void whenBulkWriteExecuted_shouldHoldPermitMeanwhile() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Price.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            assertEquals(0, limiter.availablePermits());
+            return BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of());
+        });
+        MongoOperations limitedTemplate = (MongoOperations) limiter.postProcessAfterInitialization(mongoTemplate, "mongoTemplate");
+
+        limitedTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Price.class)
+                .insert(List.of(PriceMock.getPrice()))
+                .execute();
+
+        verify(bulkOperations).execute();
+        assertEquals(1, limiter.availablePermits());
+    }
+
+    @Test
+    void whenBeanIsNotRepository_shouldLeaveItUnwrapped() {
+        Object bean = new Object();
+
+        assertSame(bean, limiter.postProcessAfterInitialization(bean, "bean"));
+    }
+}
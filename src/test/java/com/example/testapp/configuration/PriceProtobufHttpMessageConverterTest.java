@@ -0,0 +1,52 @@
+package com.example.testapp.configuration;
+
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.mocks.PriceDtoMock;
+import com.example.testapp.protobuf.PriceQueryResultsMessage;
+import com.example.testapp.services.converters.PriceEncoding;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceProtobufHttpMessageConverterTest {
+
+    private static final Type RESULTS_TYPE = ResolvableType.forClassWithGenerics(List.class, PriceQueryResultDto.class).getType();
+    private static final LocalDateTime DATE = LocalDateTime.parse("2020-06-14T10:00:00");
+
+    private final PriceProtobufHttpMessageConverter converter = new PriceProtobufHttpMessageConverter();
+
+    @Test
+    void whenBatchResults_shouldOnlyWriteThemAsProtobuf() {
+        assertTrue(converter.canWrite(RESULTS_TYPE, List.class, PriceEncoding.PROTOBUF.mediaType()));
+        assertFalse(converter.canWrite(RESULTS_TYPE, List.class, PriceEncoding.JSON.mediaType()));
+        assertFalse(converter.canWrite(ResolvableType.forClassWithGenerics(List.class, String.class).getType(), List.class,
+                PriceEncoding.PROTOBUF.mediaType()));
+        assertFalse(converter.canRead(RESULTS_TYPE, null, PriceEncoding.PROTOBUF.mediaType()));
+    }
+
+    @Test
+    void whenWriteBatchResults_shouldWriteEveryResultInOrder() throws Exception {
+        List<PriceQueryResultDto> results = List.of(
+                PriceQueryResultDto.builder().brandId(1L).productId(35455L).date(DATE).found(true).price(PriceDtoMock.getPriceDto()).build(),
+                PriceQueryResultDto.builder().brandId(1L).productId(99999L).date(DATE).found(false).build());
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(results, RESULTS_TYPE, PriceEncoding.PROTOBUF.mediaType(), output);
+
+        PriceQueryResultsMessage message = PriceQueryResultsMessage.parseFrom(output.getBodyAsBytes());
+        assertEquals(2, message.getResultsCount());
+        assertTrue(message.getResults(0).getFound());
+        assertEquals(PriceDtoMock.getPriceDto().getFinalPrice(), message.getResults(0).getPrice().getFinalPrice());
+        assertFalse(message.getResults(1).getFound());
+        assertFalse(message.getResults(1).hasPrice());
+        assertEquals(99999L, message.getResults(1).getProductId());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.exceptions.PriceBatchBodyTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchBodyLimitAdviceTest {
+
+    private static final int MAX_BODY_BYTES = 8;
+
+    private BatchBodyLimitAdvice advice;
+
+    @BeforeEach
+    void setUp() {
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getBatch().setMaxBodySize(DataSize.ofBytes(MAX_BODY_BYTES));
+        advice = new BatchBodyLimitAdvice(pricesProperties);
+    }
+
+    @Test
+    void whenStreamedBodyWithinMaxBodySize_shouldReadItWhole() throws Exception {
+        byte[] body = new byte[MAX_BODY_BYTES];
+
+        InputStream read = advice.beforeBodyRead(streamed(body), null, null, MappingJackson2HttpMessageConverter.class).getBody();
+
+        assertArrayEquals(body, read.readAllBytes());
+    }
+
+    @Test
+    void whenStreamedBodyGoesPastMaxBodySize_shouldThrowPriceBatchBodyTooLargeException() throws Exception {
+        InputStream read = advice.beforeBodyRead(streamed(new byte[MAX_BODY_BYTES + 1]), null, null, MappingJackson2HttpMessageConverter.class).getBody();
+
+        assertThrows(PriceBatchBodyTooLargeException.class, read::readAllBytes);
+    }
+
+    /**
+     * Body without {@code Content-Length}, as when it is sent chunked.
+     */
+    private static HttpInputMessage streamed(byte[] body) {
+        return new HttpInputMessage() {
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+        };
+    }
+}
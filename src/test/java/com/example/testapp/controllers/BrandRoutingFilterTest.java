@@ -0,0 +1,150 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import com.example.testapp.services.cluster.ClusterClient;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BrandRoutingFilterTest {
+
+    private static final String SELF = "http://localhost:1";
+    private static final String QUERY = "date=2020-06-14T10:00:00&productId=35455&brandId=";
+    private static final String ETAG = "\"0123456789abcdef01234567\"";
+    private static final String BODY = "{\"price\":35.5}";
+
+    private HttpServer owner;
+    private String ownerUrl;
+    private final AtomicReference<String> forwardedBy = new AtomicReference<>();
+    private final AtomicReference<String> forwardedQuery = new AtomicReference<>();
+    private BrandPartitioner partitioner;
+    private long ownedBrandId;
+    private long otherBrandId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext(InditexConstants.PRICES_URL, exchange -> {
+            forwardedBy.set(exchange.getRequestHeaders().getFirst(InditexConstants.CLUSTER_FORWARDED_BY_HEADER));
+            forwardedQuery.set(exchange.getRequestURI().getQuery());
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.getResponseHeaders().add(HttpHeaders.ETAG, ETAG);
+            exchange.sendResponseHeaders(HttpStatus.OK.value(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        owner.start();
+        ownerUrl = "http://localhost:" + owner.getAddress().getPort();
+        partitioner = BrandPartitioner.of(SELF, List.of(SELF, ownerUrl), 64, 16);
+        ownedBrandId = LongStream.iterate(1, id -> id + 1).filter(partitioner::owns).findFirst().orElseThrow();
+        otherBrandId = LongStream.iterate(1, id -> id + 1).filter(id -> !partitioner.owns(id)).findFirst().orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    void whenBrandOwned_shouldContinueTheChain() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter("forward").doFilter(lookup(ownedBrandId), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+
+    @Test
+    void whenBrandOwnedByAnotherMember_shouldForwardToItAndRelayItsResponse() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter("forward").doFilter(lookup(otherBrandId), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(SELF, forwardedBy.get());
+        assertEquals(QUERY + otherBrandId, forwardedQuery.get());
+    }
+
+    @Test
+    void whenRoutingByRedirect_shouldRedirectToTheOwner() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(BrandRoutingFilter.REDIRECT).doFilter(lookup(otherBrandId), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(HttpStatus.TEMPORARY_REDIRECT.value(), response.getStatus());
+        assertEquals(ownerUrl + InditexConstants.PRICES_URL + "?" + QUERY + otherBrandId, response.getHeader(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    void whenForwardedLookupOfBrandOwnedByAnotherMember_shouldNotForwardItAgain() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = lookup(otherBrandId);
+        request.addHeader(InditexConstants.CLUSTER_FORWARDED_BY_HEADER, ownerUrl);
+
+        filter("forward").doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertNull(forwardedBy.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+    }
+
+    @Test
+    void whenOwnerUnreachable_shouldAnswerBadGateway() throws Exception {
+        owner.stop(0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter("forward").doFilter(lookup(otherBrandId), response, new MockFilterChain());
+
+        assertEquals(HttpStatus.BAD_GATEWAY.value(), response.getStatus());
+    }
+
+    private BrandRoutingFilter filter(String routing) {
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getCluster().setEnabled(true);
+        pricesProperties.getCluster().setSelf(SELF);
+        pricesProperties.getCluster().setRouting(routing);
+        return new BrandRoutingFilter(partitioner, new ClusterClient(pricesProperties), pricesProperties, new SimpleMeterRegistry());
+    }
+
+    private static MockHttpServletRequest lookup(long brandId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", InditexConstants.PRICES_URL);
+        request.setServletPath(InditexConstants.PRICES_URL);
+        request.setQueryString(QUERY + brandId);
+        request.addParameter("date", "2020-06-14T10:00:00");
+        request.addParameter("productId", "35455");
+        request.addParameter("brandId", String.valueOf(brandId));
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.services.PricesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.Stream;
+
+import static com.example.testapp.constants.InditexConstants.PRICES_EXPORT_PATH;
+import static com.example.testapp.constants.InditexConstants.PRICES_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "prices.export.timeout=PT30S",
+        "prices.warm-up.enabled=false",
+        "prices.mongo.ensure-indexes=false",
+        "prices.mongo.explain-lookup=false"
+})
+class PriceControllerStreamingTimeoutTest {
+
+    private static final int CONTAINER_ASYNC_TIMEOUT_MILLIS = 500;
+    private static final int PRICES = 4;
+    private static final long DELAY_PER_PRICE_MILLIS = 800;
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private PricesService pricesService;
+
+    @TestConfiguration
+    static class ShortContainerAsyncTimeout {
+
+        @Bean
+        TomcatConnectorCustomizer shortAsyncTimeout() {
+            return connector -> connector.setAsyncTimeout(CONTAINER_ASYNC_TIMEOUT_MILLIS);
+        }
+    }
+
+    @Test
+    void whenExportTakesLongerThanTheContainerAsyncTimeout_shouldStreamEveryPrice() throws Exception {
+        when(pricesService.exportPrices(null)).thenReturn(Stream.generate(PriceMock::getPrice)
+                .limit(PRICES)
+                .peek(price -> pause()));
+
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + PRICES_URL + PRICES_EXPORT_PATH)).build(),
+                HttpResponse.BodyHandlers.ofLines());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(PRICES, response.body().filter(line -> !line.isBlank()).count());
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(DELAY_PER_PRICE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.testapp.controllers;
 
+import com.example.testapp.configuration.PricesProperties;
 import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
 import com.example.testapp.exceptions.GlobalExceptionHandler;
+import com.example.testapp.exceptions.InvalidPriceRangeException;
 import com.example.testapp.mocks.PriceDtoMock;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
 import com.example.testapp.services.PricesService;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.RenderedPrice;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -11,19 +19,34 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -34,48 +57,58 @@ class PriceControllerTest {
     private static final String PRODUCT_ID = "productId";
     private static final String PRODUCT_ID_VALUE = "35643";
     private static final String DATE = "date";
+    private static final String ETAG = "\"5d41402abc4b2a76b9719d91\"";
+    private static final String FROM = "from";
+    private static final String TO = "to";
+    private static final int MAX_BODY_BYTES = 64;
     private static final String DATE_VALUE = LocalDateTime.now().toLocalDate().atStartOfDay().toString();
 
     @Mock
     private PricesService pricesService;
     private MockMvc mockMvc;
     private ObjectWriter ow;
+    private PricesProperties pricesProperties;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        ow = mapper.writer();
+        pricesProperties = new PricesProperties();
+        pricesProperties.getBatch().setMaxBodySize(DataSize.ofBytes(MAX_BODY_BYTES));
+
         mockMvc = MockMvcBuilders.standaloneSetup(PriceController.builder()
                         .pricesService(pricesService)
+                        .objectMapper(mapper)
+                        .pricesProperties(pricesProperties)
                         .build())
-                .setControllerAdvice(new GlobalExceptionHandler())
+                .setControllerAdvice(new GlobalExceptionHandler(), new BatchBodyLimitAdvice(pricesProperties))
                 .defaultResponseCharacterEncoding(StandardCharsets.UTF_8)
                 .build();
-
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        ow = mapper.writer();
     }
 
     @Test
     void whenGetPriceByDateBrandIdAndProductId_shouldReturnOK() throws Exception {
-        when(pricesService.getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong()))
-                .thenReturn(PriceDtoMock.getPriceDto());
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON)))
+                .thenReturn(rendered(null));
 
         mockMvc.perform(get(InditexConstants.PRICES_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .param(BRAND_ID, BRAND_ID_VALUE)
                         .param(PRODUCT_ID, PRODUCT_ID_VALUE)
                         .param(DATE, DATE_VALUE))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(pricesService).getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+        verify(pricesService).getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON));
     }
 
     @Test
     void whenGetPriceByDateWithValidParams_shouldReturnPriceDto() throws Exception {
-        when(pricesService.getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong()))
-                .thenReturn(PriceDtoMock.getPriceDto());
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON)))
+                .thenReturn(rendered(null));
 
         mockMvc.perform(get(InditexConstants.PRICES_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -84,7 +117,154 @@ class PriceControllerTest {
                         .param(DATE, DATE_VALUE))
                 .andExpect(content().json(ow.writeValueAsString(PriceDtoMock.getPriceDto())));
 
-        verify(pricesService).getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+        verify(pricesService).getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON));
+    }
+
+    @Test
+    void whenGetPriceByDate_shouldAllowCachingUntilPriceMayChange() throws Exception {
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON)))
+                .thenReturn(rendered(LocalDateTime.parse(DATE_VALUE).plusMinutes(2)));
+
+        mockMvc.perform(get(InditexConstants.PRICES_URL)
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(DATE, DATE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=120, public"));
+    }
+
+    @Test
+    void whenGetPriceByDateApplyingForGood_shouldCapCachingToMaxAge() throws Exception {
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON)))
+                .thenReturn(rendered(null));
+
+        mockMvc.perform(get(InditexConstants.PRICES_URL)
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(DATE, DATE_VALUE))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"));
+    }
+
+    @Test
+    void whenGetPriceByDateMatchingETag_shouldReturnNotModifiedWithoutBody() throws Exception {
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.JSON)))
+                .thenReturn(rendered(null));
+
+        mockMvc.perform(get(InditexConstants.PRICES_URL)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(DATE, DATE_VALUE))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void whenGetPriceByDatePreferringCbor_shouldReturnCborRendering() throws Exception {
+        byte[] cbor = {(byte) 0xbf, (byte) 0xff};
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), eq(PriceEncoding.CBOR)))
+                .thenReturn(new RenderedPrice(cbor, ETAG, null));
+
+        mockMvc.perform(get(InditexConstants.PRICES_URL)
+                        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor")
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(DATE, DATE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().bytes(cbor));
+    }
+
+    @Test
+    void whenGetPriceHistory_shouldStreamSegmentsAsNdjson() throws Exception {
+        PriceDto segment = PriceDtoMock.getPriceDto();
+        when(pricesService.getPriceHistory(any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), anyLong()))
+                .thenReturn(Stream.of(segment, segment));
+
+        MvcResult result = mockMvc.perform(get(InditexConstants.PRICES_URL + InditexConstants.PRICES_HISTORY_PATH)
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(FROM, DATE_VALUE)
+                        .param(TO, DATE_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = ow.writeValueAsString(segment) + "\n";
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    void whenGetPriceHistoryWithInvalidRange_shouldReturnBadRequest() throws Exception {
+        LocalDateTime from = LocalDateTime.parse(DATE_VALUE);
+        when(pricesService.getPriceHistory(any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), anyLong()))
+                .thenThrow(new InvalidPriceRangeException(from, from.minusDays(1)));
+
+        mockMvc.perform(get(InditexConstants.PRICES_URL + InditexConstants.PRICES_HISTORY_PATH)
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(FROM, DATE_VALUE)
+                        .param(TO, from.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void whenExportPrices_shouldStreamPricesAsNdjson() throws Exception {
+        Price price = PriceMock.getPrice();
+        when(pricesService.exportPrices(1L)).thenReturn(Stream.of(price));
+
+        MvcResult result = mockMvc.perform(get(InditexConstants.PRICES_URL + InditexConstants.PRICES_EXPORT_PATH)
+                        .param(BRAND_ID, BRAND_ID_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(ow.writeValueAsString(price) + "\n"));
+    }
+
+    @Test
+    void whenExportPricesAcceptingGzip_shouldCompressBody() throws Exception {
+        Price price = PriceMock.getPrice();
+        when(pricesService.exportPrices(null)).thenReturn(Stream.of(price, price));
+
+        MvcResult result = mockMvc.perform(get(InditexConstants.PRICES_URL + InditexConstants.PRICES_EXPORT_PATH)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        String line = ow.writeValueAsString(price) + "\n";
+        try (GZIPInputStream decompressed = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(line + line, new String(decompressed.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void whenQueryPricesWithBodyOverMaxBodySize_shouldReturnPayloadTooLargeWithoutLookups() throws Exception {
+        PriceQueryDto query = new PriceQueryDto(1L, 35643L, LocalDateTime.parse(DATE_VALUE));
+
+        mockMvc.perform(post(InditexConstants.PRICES_URL + InditexConstants.PRICES_QUERY_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ow.writeValueAsString(List.of(query, query, query))))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(pricesService, never()).getPrices(anyList());
+    }
+
+    private RenderedPrice rendered(LocalDateTime validUntil) throws Exception {
+        return new RenderedPrice(ow.writeValueAsBytes(PriceDtoMock.getPriceDto()), ETAG, validUntil);
+    }
 }
@@ -0,0 +1,275 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.exceptions.InvalidPriceRangeException;
+import com.example.testapp.exceptions.PriceNotFoundException;
+import com.example.testapp.mocks.PriceDtoMock;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.protobuf.ExportPricesRequest;
+import com.example.testapp.protobuf.GetPriceRequest;
+import com.example.testapp.protobuf.LookupRequest;
+import com.example.testapp.protobuf.LookupResponse;
+import com.example.testapp.protobuf.PriceHistoryRequest;
+import com.example.testapp.protobuf.PriceLookupServiceGrpc;
+import com.example.testapp.protobuf.PriceMessage;
+import com.example.testapp.protobuf.StoredPriceMessage;
+import com.example.testapp.services.PricesService;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import com.example.testapp.services.cluster.ClusterClient;
+import com.example.testapp.services.converters.PriceDtoToProtobufMapper;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.RenderedPrice;
+import com.example.testapp.services.lookup.PriceTimes;
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PriceGrpcServiceTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final long UNKNOWN_PRODUCT_ID = 99999L;
+    private static final LocalDateTime DATE = LocalDateTime.parse("2020-06-14T10:00:00");
+
+    @Mock
+    private PricesService pricesService;
+
+    @Mock
+    private ObjectProvider<ClusterClient> clusterClient;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(new PriceGrpcService(pricesService, BrandPartitioner.SINGLE_NODE, clusterClient))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        PriceMessage price = PriceDtoToProtobufMapper.toMessage(PriceDtoMock.getPriceDto());
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID, PriceEncoding.PROTOBUF))
+                .thenReturn(new RenderedPrice(price.toByteArray(), "\"5d41402abc4b2a76b9719d91\"", null));
+        when(pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, UNKNOWN_PRODUCT_ID, PriceEncoding.PROTOBUF))
+                .thenThrow(new PriceNotFoundException(DATE, BRAND_ID, UNKNOWN_PRODUCT_ID));
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void whenGetPrice_shouldReturnTheProtobufRendering() {
+        PriceMessage price = PriceLookupServiceGrpc.newBlockingStub(channel).getPrice(getPrice(PRODUCT_ID));
+
+        assertEquals(PriceDtoMock.getPriceDto().getFinalPrice(), price.getFinalPrice());
+        assertEquals(PriceDtoMock.getPriceDto().getProductId(), price.getProductId());
+    }
+
+    @Test
+    void whenGetPriceNotFound_shouldFailWithNotFound() {
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> PriceLookupServiceGrpc.newBlockingStub(channel).getPrice(getPrice(UNKNOWN_PRODUCT_ID)));
+
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+    }
+
+    @Test
+    void whenGetPriceWithInvalidIds_shouldFailWithInvalidArgument() {
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> PriceLookupServiceGrpc.newBlockingStub(channel).getPrice(getPrice(0)));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        verifyNoInteractions(pricesService);
+    }
+
+    @Test
+    void whenLookupStream_shouldAnswerEveryLookupInOrder() throws Exception {
+        List<LookupResponse> responses = new ArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<LookupRequest> requests = PriceLookupServiceGrpc.newStub(channel).lookupStream(new StreamObserver<>() {
+
+            @Override
+            public void onNext(LookupResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        });
+
+        requests.onNext(lookup(1, PRODUCT_ID));
+        requests.onNext(lookup(2, UNKNOWN_PRODUCT_ID));
+        requests.onNext(lookup(3, PRODUCT_ID));
+        requests.onCompleted();
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1L, 2L, 3L), responses.stream().map(LookupResponse::getId).toList());
+        assertTrue(responses.get(0).getFound());
+        assertEquals(PriceDtoMock.getPriceDto().getFinalPrice(), responses.get(0).getPrice().getFinalPrice());
+        assertFalse(responses.get(1).getFound());
+        assertFalse(responses.get(1).hasPrice());
+        assertTrue(responses.get(2).getFound());
+    }
+
+    @Test
+    void whenGetPriceHistory_shouldStreamEveryPrice() {
+        when(pricesService.getPriceHistory(any(), any(), eq(BRAND_ID), eq(PRODUCT_ID)))
+                .thenReturn(Stream.of(PriceDtoMock.getPriceDto(), PriceDtoMock.getPriceDto()));
+
+        Iterator<PriceMessage> history = PriceLookupServiceGrpc.newBlockingStub(channel).getPriceHistory(PriceHistoryRequest.newBuilder()
+                .setBrandId(BRAND_ID)
+                .setProductId(PRODUCT_ID)
+                .setFrom(PriceTimes.toEpochMilli(DATE))
+                .setTo(PriceTimes.toEpochMilli(DATE.plusDays(1)))
+                .build());
+
+        List<PriceMessage> prices = new ArrayList<>();
+        history.forEachRemaining(prices::add);
+        assertEquals(2, prices.size());
+    }
+
+    @Test
+    void whenGetPriceHistoryWithInvalidRange_shouldFailWithInvalidArgument() {
+        when(pricesService.getPriceHistory(any(), any(), eq(BRAND_ID), eq(PRODUCT_ID)))
+                .thenThrow(new InvalidPriceRangeException(DATE, DATE.minusDays(1)));
+
+        Iterator<PriceMessage> history = PriceLookupServiceGrpc.newBlockingStub(channel).getPriceHistory(PriceHistoryRequest.newBuilder()
+                .setBrandId(BRAND_ID)
+                .setProductId(PRODUCT_ID)
+                .setFrom(PriceTimes.toEpochMilli(DATE))
+                .setTo(PriceTimes.toEpochMilli(DATE.minusDays(1)))
+                .build());
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, history::hasNext);
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+    }
+
+    @Test
+    void whenExportPrices_shouldStreamTheStoredPricesAndCloseTheCursor() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Price price = PriceMock.getPrice();
+        when(pricesService.exportPrices(BRAND_ID)).thenReturn(Stream.of(price).onClose(() -> closed.set(true)));
+
+        Iterator<StoredPriceMessage> export = PriceLookupServiceGrpc.newBlockingStub(channel)
+                .exportPrices(ExportPricesRequest.newBuilder().setBrandId(BRAND_ID).build());
+
+        List<StoredPriceMessage> prices = new ArrayList<>();
+        export.forEachRemaining(prices::add);
+        assertEquals(1, prices.size());
+        assertEquals(price.getPrice().toPlainString(), prices.get(0).getPrice());
+        assertEquals(price.getCurrency().getCurrencyCode(), prices.get(0).getCurrency());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void whenGetPriceOfBrandOwnedByAnotherMember_shouldRelayTheRenderingOfTheOwner() throws Exception {
+        byte[] rendered = PriceDtoToProtobufMapper.toMessage(PriceDtoMock.getPriceDto()).toByteArray();
+        AtomicReference<String> forwardedQuery = new AtomicReference<>();
+        AtomicReference<String> forwardedAccept = new AtomicReference<>();
+        HttpServer owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext(InditexConstants.PRICES_URL, exchange -> {
+            forwardedQuery.set(exchange.getRequestURI().getQuery());
+            forwardedAccept.set(exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT));
+            exchange.sendResponseHeaders(HttpStatus.OK.value(), rendered.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(rendered);
+            }
+        });
+        owner.start();
+        String self = "http://localhost:1";
+        String ownerUrl = "http://localhost:" + owner.getAddress().getPort();
+        BrandPartitioner partitioner = BrandPartitioner.of(self, List.of(self, ownerUrl), 64, 16);
+        long otherBrandId = LongStream.iterate(1, id -> id + 1).filter(id -> !partitioner.owns(id)).findFirst().orElseThrow();
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getCluster().setSelf(self);
+        when(clusterClient.getIfAvailable()).thenReturn(new ClusterClient(pricesProperties));
+        String name = InProcessServerBuilder.generateName();
+        Server member = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(new PriceGrpcService(pricesService, partitioner, clusterClient))
+                .build()
+                .start();
+        ManagedChannel memberChannel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        try {
+            PriceMessage price = PriceLookupServiceGrpc.newBlockingStub(memberChannel).getPrice(GetPriceRequest.newBuilder()
+                    .setBrandId(otherBrandId)
+                    .setProductId(PRODUCT_ID)
+                    .setDate(PriceTimes.toEpochMilli(DATE))
+                    .build());
+
+            assertEquals(PriceDtoMock.getPriceDto().getFinalPrice(), price.getFinalPrice());
+            assertEquals("date=2020-06-14T10:00:00&productId=" + PRODUCT_ID + "&brandId=" + otherBrandId, forwardedQuery.get());
+            assertEquals(InditexConstants.APPLICATION_PROTOBUF_VALUE, forwardedAccept.get());
+            verifyNoInteractions(pricesService);
+        } finally {
+            memberChannel.shutdownNow();
+            member.shutdownNow();
+            owner.stop(0);
+        }
+    }
+
+    private static GetPriceRequest getPrice(long productId) {
+        return GetPriceRequest.newBuilder()
+                .setBrandId(BRAND_ID)
+                .setProductId(productId)
+                .setDate(PriceTimes.toEpochMilli(DATE))
+                .build();
+    }
+
+    private static LookupRequest lookup(long id, long productId) {
+        return LookupRequest.newBuilder()
+                .setId(id)
+                .setBrandId(BRAND_ID)
+                .setProductId(productId)
+                .setDate(PriceTimes.toEpochMilli(DATE))
+                .build();
+    }
+}
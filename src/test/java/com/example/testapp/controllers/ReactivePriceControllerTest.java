@@ -0,0 +1,124 @@
+package com.example.testapp.controllers;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.exceptions.PriceBatchTooLargeException;
+import com.example.testapp.exceptions.PriceNotFoundException;
+import com.example.testapp.exceptions.ReactiveGlobalExceptionHandler;
+import com.example.testapp.mocks.PriceDtoMock;
+import com.example.testapp.services.ReactivePricesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactivePriceControllerTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.now().toLocalDate().atStartOfDay();
+
+    @Mock
+    private ReactivePricesService reactivePricesService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        webTestClient = WebTestClient.bindToController(ReactivePriceController.builder()
+                        .reactivePricesService(reactivePricesService)
+                        .build())
+                .controllerAdvice(new ReactiveGlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void whenGetPriceByDateWithValidParams_shouldReturnPriceDto() {
+        when(reactivePricesService.getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong()))
+                .thenReturn(Mono.just(PriceDtoMock.getPriceDto()));
+
+        webTestClient.get()
+                .uri(uri -> uri.path(InditexConstants.PRICES_URL)
+                        .queryParam("brandId", BRAND_ID)
+                        .queryParam("productId", PRODUCT_ID)
+                        .queryParam("date", DATE)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.finalPrice").isEqualTo(PriceDtoMock.getPriceDto().getFinalPrice());
+    }
+
+    @Test
+    void whenGetPriceByDateWithoutPrice_shouldReturnNotFound() {
+        when(reactivePricesService.getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong()))
+                .thenReturn(Mono.error(new PriceNotFoundException(DATE, BRAND_ID, PRODUCT_ID)));
+
+        webTestClient.get()
+                .uri(uri -> uri.path(InditexConstants.PRICES_URL)
+                        .queryParam("brandId", BRAND_ID)
+                        .queryParam("productId", PRODUCT_ID)
+                        .queryParam("date", DATE)
+                        .build())
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.path").isEqualTo(InditexConstants.PRICES_URL);
+    }
+
+    @Test
+    void whenGetPriceByDateWithoutBrandId_shouldReturnBadRequest() {
+        webTestClient.get()
+                .uri(uri -> uri.path(InditexConstants.PRICES_URL)
+                        .queryParam("productId", PRODUCT_ID)
+                        .queryParam("date", DATE)
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void whenQueryPricesExceedsMaxBatchSize_shouldReturnPayloadTooLarge() {
+        when(reactivePricesService.getPrices(anyList())).thenReturn(Mono.error(new PriceBatchTooLargeException(2, 1)));
+
+        webTestClient.post()
+                .uri(InditexConstants.PRICES_URL + InditexConstants.PRICES_QUERY_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+
+    @Test
+    void whenQueryPricesWithBodyOverMaxBodySize_shouldReturnPayloadTooLarge() {
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getBatch().setMaxBodySize(DataSize.ofBytes(1));
+        webTestClient = WebTestClient.bindToController(ReactivePriceController.builder()
+                        .reactivePricesService(reactivePricesService)
+                        .build())
+                .controllerAdvice(new ReactiveGlobalExceptionHandler())
+                .webFilter(new ReactiveBatchBodyLimitFilter(pricesProperties))
+                .build();
+
+        webTestClient.post()
+                .uri(InditexConstants.PRICES_URL + InditexConstants.PRICES_QUERY_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isEqualTo(413);
+
+        verify(reactivePricesService, never()).getPrices(anyList());
+    }
+}
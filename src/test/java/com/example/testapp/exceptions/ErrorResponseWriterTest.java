@@ -0,0 +1,61 @@
+package com.example.testapp.exceptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ErrorResponseWriterTest {
+
+    private static final String PATH = "/prices";
+    private static final String MESSAGE = "No price found for \"date\": 2020-06-14T10:00";
+
+    private final ErrorResponseWriter writer = new ErrorResponseWriter();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void whenWrite_shouldProduceErrorResponseJson() throws Exception {
+        JsonNode body = mapper.readTree(writer.write(HttpStatus.NOT_FOUND, MESSAGE, PATH));
+
+        assertEquals(404, body.get("status").asInt());
+        assertEquals(MESSAGE, body.get("message").asText());
+        assertEquals(PATH, body.get("path").asText());
+        assertNotNull(LocalDateTime.parse(body.get("timestamp").asText()));
+    }
+
+    @Test
+    void whenWriteWithoutMessage_shouldWriteNullMessage() throws Exception {
+        JsonNode body = mapper.readTree(writer.write(HttpStatus.BAD_REQUEST, null, PATH));
+
+        assertTrue(body.get("message").isNull());
+    }
+
+    @Test
+    void whenWriteTemplate_shouldProduceErrorResponseJsonWithFixedMessage() throws Exception {
+        ErrorResponseWriter.Template template = writer.template(HttpStatus.INTERNAL_SERVER_ERROR, MESSAGE);
+
+        JsonNode body = mapper.readTree(template.write(PATH));
+
+        assertEquals(500, body.get("status").asInt());
+        assertEquals(MESSAGE, body.get("message").asText());
+        assertEquals(PATH, body.get("path").asText());
+    }
+
+    @Test
+    void whenWriteFormatTemplate_shouldProduceTheFormattedMessage() throws Exception {
+        ErrorResponseWriter.FormatTemplate template = writer.formatTemplate(HttpStatus.NOT_FOUND, "No \"price\" for date: %s id: %d");
+        LocalDateTime date = LocalDateTime.parse("2020-06-14T10:00:00");
+
+        JsonNode body = mapper.readTree(template.write(PATH, date, 1L));
+
+        assertEquals(404, body.get("status").asInt());
+        assertEquals(String.format("No \"price\" for date: %s id: %d", date, 1L), body.get("message").asText());
+        assertEquals(PATH, body.get("path").asText());
+    }
+}
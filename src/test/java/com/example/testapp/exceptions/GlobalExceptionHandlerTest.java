@@ -2,6 +2,7 @@ package com.example.testapp.exceptions;
 
 import com.example.testapp.mocks.PriceDtoMock;
 import com.example.testapp.services.PricesService;
+import com.example.testapp.services.converters.PriceEncoding;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -27,6 +28,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -159,7 +161,7 @@ class GlobalExceptionHandlerTest {
     void whenGetPriceByDateThrowsDataAccessResourceFailureException_shouldReturnInternalServerError() throws Exception {
         doThrow(new DataAccessResourceFailureException(ERROR_MESSAGE))
                 .when(pricesService)
-                .getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+                .getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
 
         mockMvc.perform(get(PRICES_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -168,14 +170,14 @@ class GlobalExceptionHandlerTest {
                         .param(DATE, DATE_VALUE))
                 .andExpect(status().isInternalServerError());
 
-        verify(pricesService).getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+        verify(pricesService).getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
     }
 
     @Test
     void whenGetPriceByDateThrowsNoSuchElementException_shouldReturnInternalServerError() throws Exception {
         doThrow(new NoSuchElementException(ERROR_MESSAGE))
                 .when(pricesService)
-                .getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+                .getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
 
         mockMvc.perform(get(PRICES_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -184,14 +186,30 @@ class GlobalExceptionHandlerTest {
                         .param(DATE, DATE_VALUE))
                 .andExpect(status().isNotFound());
 
-        verify(pricesService).getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+        verify(pricesService).getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
+    }
+
+    @Test
+    void whenGetPriceByDateThrowsPriceNotFoundException_shouldReturnNotFoundWithItsMessage() throws Exception {
+        PriceNotFoundException exception = new PriceNotFoundException(LocalDateTime.parse(DATE_VALUE), 1L, 35643L);
+        doThrow(exception)
+                .when(pricesService)
+                .getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
+
+        mockMvc.perform(get(PRICES_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .param(BRAND_ID, BRAND_ID_VALUE)
+                        .param(PRODUCT_ID, PRODUCT_ID_VALUE)
+                        .param(DATE, DATE_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(exception.getMessage()));
     }
 
     @Test
     void whenGetPriceByDateWithValidParamsThrowsException_shouldReturnInternalServerError() throws Exception {
         doThrow(new RuntimeException(ERROR_MESSAGE))
                 .when(pricesService)
-                .getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+                .getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
 
         mockMvc.perform(get(PRICES_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -200,7 +218,7 @@ class GlobalExceptionHandlerTest {
                         .param(DATE, DATE_VALUE))
                 .andExpect(status().isInternalServerError());
 
-        verify(pricesService).getPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong());
+        verify(pricesService).getRenderedPriceByBrandIdAndProductIdAndDate(any(LocalDateTime.class), anyLong(), anyLong(), any(PriceEncoding.class));
     }
 
 }
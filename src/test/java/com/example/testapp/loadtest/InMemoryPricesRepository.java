@@ -0,0 +1,199 @@
+package com.example.testapp.loadtest;
+
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.lookup.EffectivePrice;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link PricesRepository} keeping the prices in memory, standing in for MongoDB when measuring the rest of the
+ * application. Queries answer like their MongoDB counterparts: lookups pick the highest priority, then the latest
+ * start, among the prices of the product covering the date.
+ *
+ * <p>The prices of every product are kept in an immutable list sorted by start date, replaced as a whole on
+ * writes, so reads never lock.</p>
+ */
+public class InMemoryPricesRepository implements PricesRepository {
+
+    private static final Comparator<Price> BY_START_DATE = Comparator.comparing(Price::getStartDate);
+    private static final Comparator<Price> BY_PRECEDENCE = Comparator.comparing(Price::getPriority)
+            .thenComparing(Price::getStartDate);
+
+    private final Map<PriceKey, List<Price>> pricesByProduct = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Price> findEffectivePrice(long brandId, long productId, LocalDateTime date) {
+        return covering(brandId, productId, date).max(BY_PRECEDENCE);
+    }
+
+    @Override
+    public EffectivePrice findEffectivePriceAndNextStart(long brandId, long productId, LocalDateTime date) {
+        Price effective = findEffectivePrice(brandId, productId, date).orElse(null);
+        LocalDateTime nextStartDate = productPrices(brandId, productId).stream()
+                .filter(price -> price.getStartDate().isAfter(date))
+                .filter(price -> effective == null
+                        || price.getPriority() >= effective.getPriority() && !price.getStartDate().isAfter(effective.getEndDate()))
+                .map(Price::getStartDate)
+                .findFirst()
+                .orElse(null);
+        return new EffectivePrice(effective, nextStartDate);
+    }
+
+    @Override
+    public List<Price> findPricesApplyingWithin(Map<PriceKey, PriceQueryRange> ranges) {
+        List<Price> prices = new ArrayList<>();
+        ranges.forEach((key, range) -> productPrices(key.brandId(), key.productId()).stream()
+                .filter(price -> !price.getEndDate().isBefore(range.earliest()) && !price.getStartDate().isAfter(range.latest()))
+                .forEach(prices::add));
+        return prices;
+    }
+
+    @Override
+    public Map<PriceKey, LocalDateTime> findNextStartDates(Map<PriceKey, PriceQueryRange> ranges) {
+        Map<PriceKey, LocalDateTime> nextStartDates = new HashMap<>();
+        ranges.forEach((key, range) -> productPrices(key.brandId(), key.productId()).stream()
+                .map(Price::getStartDate)
+                .filter(startDate -> startDate.isAfter(range.latest()))
+                .min(Comparator.naturalOrder())
+                .ifPresent(startDate -> nextStartDates.put(key, startDate)));
+        return nextStartDates;
+    }
+
+    @Override
+    public List<Price> findByBrandIdAndProductIdOrderByStartDateAsc(long brandId, long productId) {
+        return productPrices(brandId, productId);
+    }
+
+    @Override
+    public Stream<Price> streamByBrandIdAndProductIdOverlapping(long brandId, long productId, LocalDateTime from, LocalDateTime to) {
+        return productPrices(brandId, productId).stream()
+                .filter(price -> !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from));
+    }
+
+    @Override
+    public Stream<Price> streamAllOrderedByProduct() {
+        return pricesByProduct.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingLong(PriceKey::brandId).thenComparingLong(PriceKey::productId)))
+                .flatMap(entry -> entry.getValue().stream());
+    }
+
+    @Override
+    public Stream<Price> streamProductKeys() {
+        return streamAllOrderedByProduct();
+    }
+
+    @Override
+    public Stream<Price> streamCreatedAfter(ObjectId id) {
+        return streamAllOrderedByProduct()
+                .filter(price -> ObjectId.isValid(price.get_id()) && new ObjectId(price.get_id()).compareTo(id) > 0);
+    }
+
+    @Override
+    public Stream<Price> streamPrices(Long brandId, int batchSize) {
+        return streamAllOrderedByProduct()
+                .filter(price -> brandId == null || brandId.equals(price.getBrandId()));
+    }
+
+    @Override
+    public Document explainEffectivePrice(long brandId, long productId, LocalDateTime date) {
+        throw new UnsupportedOperationException("Explain is only available on MongoDB");
+    }
+
+    @Override
+    public <S extends Price> S save(S price) {
+        if (price.get_id() == null) {
+            price.set_id(ObjectId.get().toHexString());
+        }
+        pricesByProduct.compute(PriceKey.of(price), (key, prices) -> {
+            List<Price> updated = new ArrayList<>(prices == null ? List.of() : prices);
+            updated.removeIf(stored -> stored.get_id().equals(price.get_id()));
+            updated.add(price);
+            updated.sort(BY_START_DATE);
+            return List.copyOf(updated);
+        });
+        return price;
+    }
+
+    @Override
+    public <S extends Price> Iterable<S> saveAll(Iterable<S> prices) {
+        List<S> saved = new ArrayList<>();
+        prices.forEach(price -> saved.add(save(price)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return false;
+    }
+
+    @Override
+    public Iterable<Price> findAll() {
+        return streamAllOrderedByProduct().toList();
+    }
+
+    @Override
+    public Iterable<Price> findAllById(Iterable<Long> ids) {
+        return List.of();
+    }
+
+    @Override
+    public long count() {
+        return pricesByProduct.values().stream().mapToLong(List::size).sum();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+    }
+
+    @Override
+    public void delete(Price price) {
+        pricesByProduct.computeIfPresent(PriceKey.of(price), (key, prices) -> {
+            List<Price> remaining = prices.stream()
+                    .filter(stored -> !stored.get_id().equals(price.get_id()))
+                    .toList();
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Price> prices) {
+        StreamSupport.stream(prices.spliterator(), false).forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        pricesByProduct.clear();
+    }
+
+    private List<Price> productPrices(long brandId, long productId) {
+        return pricesByProduct.getOrDefault(new PriceKey(brandId, productId), List.of());
+    }
+
+    private Stream<Price> covering(long brandId, long productId, LocalDateTime date) {
+        return productPrices(brandId, productId).stream()
+                .filter(price -> !price.getStartDate().isAfter(date) && !price.getEndDate().isBefore(date));
+    }
+}
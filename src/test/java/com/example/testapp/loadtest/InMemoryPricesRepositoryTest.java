@@ -0,0 +1,74 @@
+package com.example.testapp.loadtest;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryPricesRepositoryTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.now();
+
+    private InMemoryPricesRepository pricesRepository;
+
+    @BeforeEach
+    void setUp() {
+        pricesRepository = new InMemoryPricesRepository();
+        pricesRepository.saveAll(PriceMock.getListWithMultipleItems());
+    }
+
+    @Test
+    void whenFindEffectivePriceWithOverlappingPrices_shouldReturnPriceWithHigherPriority() {
+        Optional<Price> result = pricesRepository.findEffectivePrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertTrue(result.isPresent());
+        assertEquals(PriceMock.getPrice().getPrice(), result.get().getPrice());
+    }
+
+    @Test
+    void whenFindEffectivePriceOutsideEveryPrice_shouldReturnEmpty() {
+        assertTrue(pricesRepository.findEffectivePrice(BRAND_ID, PRODUCT_ID, DATE.plusYears(1)).isEmpty());
+    }
+
+    @Test
+    void whenSaveWithExistingId_shouldReplacePrice() {
+        pricesRepository.save(PriceMock.getPrice().toBuilder().priority(-1).build());
+
+        Optional<Price> result = pricesRepository.findEffectivePrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertEquals(2, pricesRepository.count());
+        assertTrue(result.isPresent());
+        assertEquals(PriceMock.getPriceLowerPriority().getPrice(), result.get().getPrice());
+    }
+
+    @Test
+    void whenSaveWithoutId_shouldAssignOne() {
+        Price saved = pricesRepository.save(PriceMock.getPrice().toBuilder()._id(null).build());
+
+        assertNotNull(saved.get_id());
+        assertEquals(3, pricesRepository.count());
+    }
+
+    @Test
+    void whenGeneratingCatalog_shouldCoverEveryProductOverTheWholePeriod() {
+        SyntheticCatalog catalog = new SyntheticCatalog(2, 3, 4, 42L);
+        InMemoryPricesRepository catalogRepository = new InMemoryPricesRepository();
+
+        List<Price> prices = catalog.prices();
+        catalogRepository.saveAll(prices);
+
+        assertEquals(2 * 3 * 4, prices.size());
+        assertTrue(catalogRepository.findEffectivePrice(2L, 3L, SyntheticCatalog.START).isPresent());
+        assertTrue(catalogRepository.findEffectivePrice(1L, 1L, SyntheticCatalog.END).isPresent());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.testapp.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sends HTTP requests at a fixed arrival rate, whatever the response times, the way independent clients do:
+ * an open workload model. Unlike a fixed number of clients each waiting for its response before sending the next
+ * request, a slow server does not slow the load down, so queueing shows in the latencies.
+ *
+ * <p>Latencies are measured from the time each request was due to be sent, not from the time it actually was,
+ * so a stalled sender does not hide the delay (coordinated omission), and recorded in an HdrHistogram.</p>
+ */
+@Slf4j
+public class OpenModelLoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient httpClient;
+    private final double requestsPerSecond;
+
+    public OpenModelLoadGenerator(HttpClient httpClient, double requestsPerSecond) {
+        this.httpClient = httpClient;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Sends requests for the given duration, then waits for their responses.
+     *
+     * @param name     the name of the run, used in the report
+     * @param duration how long to keep sending requests
+     * @param requests the supplier of the request to send every time
+     * @return the report of the run
+     */
+    public LoadReport run(String name, Duration duration, Supplier<HttpRequest> requests) {
+        Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        LongAdder errors = new LongAdder();
+        LongAdder completed = new LongAdder();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+        for (long due = start; due < end; due = start + ++sent * intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long dueTime = due;
+            httpClient.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies.recordValue(Math.min(System.nanoTime() - dueTime, MAX_LATENCY_NANOS));
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.increment();
+                        }
+                        completed.increment();
+                    });
+        }
+        while (completed.sum() < sent) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        LoadReport report = new LoadReport(name, sent, errors.sum(), Duration.ofNanos(System.nanoTime() - start), latencies);
+        log.info("{}", report);
+        return report;
+    }
+
+    /**
+     * Outcome of a load run.
+     *
+     * @param name      the name of the run
+     * @param requests  the number of requests sent
+     * @param errors    the number of requests failed or answered with an error status
+     * @param elapsed   the time from the first request sent to the last response received
+     * @param latencies the latencies of every request, in nanoseconds
+     */
+    public record LoadReport(String name, long requests, long errors, Duration elapsed, Histogram latencies) {
+
+        public double throughput() {
+            return requests * 1e9 / elapsed.toNanos();
+        }
+
+        public double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d requests, %d errors, %.0f req/s, latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                    name, requests, errors, throughput(), percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                    latencies.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.testapp.loadtest;
+
+import com.example.testapp.constants.InditexConstants;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Full-stack load test of the prices API: the application runs on a random port with an
+ * {@link InMemoryPricesRepository} seeded with a {@link SyntheticCatalog} instead of MongoDB, and is driven over
+ * HTTP at a fixed arrival rate by an {@link OpenModelLoadGenerator}. Throughput and latency percentiles are
+ * logged, so the numbers measure the application alone and can be compared between machines and commits.
+ *
+ * <p>Tagged {@code loadtest} and left out of the default build. The catalog size, arrival rate and durations are
+ * set under {@code loadtest.*} in {@code application-loadtest.properties} and can be overridden with system
+ * properties.</p>
+ */
+@Tag("loadtest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PricesLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SyntheticCatalog catalog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.rate}")
+    private double rate;
+
+    @Value("${loadtest.warm-up}")
+    private Duration warmUp;
+
+    @Value("${loadtest.duration}")
+    private Duration duration;
+
+    @Value("${loadtest.post-batch-size}")
+    private int postBatchSize;
+
+    private OpenModelLoadGenerator loadGenerator;
+
+    private final SplittableRandom random = new SplittableRandom(0);
+
+    @BeforeEach
+    void setUp() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        loadGenerator = new OpenModelLoadGenerator(httpClient, rate);
+    }
+
+    @Test
+    void whenGettingPricesAtArrivalRate_shouldAnswerEveryRequest() {
+        Supplier<HttpRequest> requests = () -> HttpRequest.newBuilder(uri(String.format("?date=%s&brandId=%d&productId=%d",
+                        catalog.date(random), catalog.brandId(random), catalog.productId(random))))
+                .GET()
+                .build();
+
+        loadGenerator.run("GET /prices warm-up", warmUp, requests);
+        OpenModelLoadGenerator.LoadReport report = loadGenerator.run("GET /prices", duration, requests);
+
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.errors());
+    }
+
+    @Test
+    void whenPostingPricesAtArrivalRate_shouldAnswerEveryRequest() {
+        Supplier<HttpRequest> requests = () -> HttpRequest.newBuilder(uri(""))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(Stream.generate(() -> catalog.newPrice(random))
+                        .limit(postBatchSize)
+                        .toList())))
+                .build();
+
+        loadGenerator.run("POST /prices warm-up", warmUp, requests);
+        OpenModelLoadGenerator.LoadReport report = loadGenerator.run("POST /prices", duration, requests);
+
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.errors());
+    }
+
+    private URI uri(String query) {
+        return URI.create("http://localhost:" + port + InditexConstants.PRICES_URL + query);
+    }
+
+    private byte[] json(List<Price> prices) {
+        try {
+            return objectMapper.writeValueAsBytes(prices);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class InMemoryCatalogConfiguration {
+
+        @Bean
+        SyntheticCatalog syntheticCatalog(@Value("${loadtest.catalog.brands}") int brands,
+                                          @Value("${loadtest.catalog.products-per-brand}") int productsPerBrand,
+                                          @Value("${loadtest.catalog.prices-per-product}") int pricesPerProduct,
+                                          @Value("${loadtest.catalog.seed}") long seed) {
+            return new SyntheticCatalog(brands, productsPerBrand, pricesPerProduct, seed);
+        }
+
+        @Bean
+        @Primary
+        PricesRepository inMemoryPricesRepository(SyntheticCatalog catalog) {
+            InMemoryPricesRepository pricesRepository = new InMemoryPricesRepository();
+            pricesRepository.saveAll(catalog.prices());
+            return pricesRepository;
+        }
+    }
+}
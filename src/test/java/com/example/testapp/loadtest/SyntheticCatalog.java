@@ -0,0 +1,98 @@
+package com.example.testapp.loadtest;
+
+import com.example.testapp.model.Price;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic catalog of prices for load tests. Every product has a base price, with priority 0, covering the
+ * whole catalog period, and promotions, with priority 1, over random windows of a few days within it, so any
+ * lookup within the period finds a price and some of them have to pick among overlapping prices.
+ *
+ * @param brands            the number of brands, with IDs starting at 1
+ * @param productsPerBrand  the number of products of every brand, with IDs starting at 1
+ * @param pricesPerProduct  the number of prices of every product, the base price included
+ * @param seed              the seed of the random windows and amounts, the same seed giving the same catalog
+ */
+public record SyntheticCatalog(int brands, int productsPerBrand, int pricesPerProduct, long seed) {
+
+    static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+    static final LocalDateTime END = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+
+    private static final long PERIOD_MINUTES = ChronoUnit.MINUTES.between(START, END);
+    private static final Currency CURRENCY = Currency.getInstance("EUR");
+
+    /**
+     * Builds every price of the catalog.
+     *
+     * @return the prices, grouped by product
+     */
+    public List<Price> prices() {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Price> prices = new ArrayList<>(brands * productsPerBrand * pricesPerProduct);
+        for (long brandId = 1; brandId <= brands; brandId++) {
+            for (long productId = 1; productId <= productsPerBrand; productId++) {
+                prices.add(price(random, brandId, productId, 0, START, END));
+                for (int promotion = 1; promotion < pricesPerProduct; promotion++) {
+                    LocalDateTime start = START.plusMinutes(random.nextLong(PERIOD_MINUTES));
+                    LocalDateTime end = start.plusHours(random.nextInt(1, 24 * 7));
+                    prices.add(price(random, brandId, productId, 1, start, end.isAfter(END) ? END : end));
+                }
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Picks a random brand ID of the catalog.
+     */
+    public long brandId(SplittableRandom random) {
+        return random.nextLong(1, brands + 1L);
+    }
+
+    /**
+     * Picks a random product ID of the catalog.
+     */
+    public long productId(SplittableRandom random) {
+        return random.nextLong(1, productsPerBrand + 1L);
+    }
+
+    /**
+     * Picks a random date within the catalog period, to the second.
+     */
+    public LocalDateTime date(SplittableRandom random) {
+        return START.plusSeconds(random.nextLong(PERIOD_MINUTES * 60));
+    }
+
+    /**
+     * Builds a new price of a random product of the catalog over a random window, with no ID so it is assigned
+     * when stored.
+     */
+    public Price newPrice(SplittableRandom random) {
+        LocalDateTime start = date(random);
+        Price price = price(random, brandId(random), productId(random), 1, start, start.plusDays(1));
+        price.set_id(null);
+        return price;
+    }
+
+    private static Price price(SplittableRandom random, long brandId, long productId, int priority, LocalDateTime start, LocalDateTime end) {
+        return Price.builder()
+                ._id(ObjectId.get().toHexString())
+                .brandId(brandId)
+                .productId(productId)
+                .startDate(start)
+                .endDate(end)
+                .priceList(priority + 1)
+                .priority(priority)
+                .price(BigDecimal.valueOf(random.nextInt(100, 100_000), 2))
+                .currency(CURRENCY)
+                .build();
+    }
+}
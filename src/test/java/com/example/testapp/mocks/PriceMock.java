@@ -11,6 +11,7 @@ import java.util.List;
 public class PriceMock {
 
     private static final String ID = "66c26f01f1fc951335aa8d2d";
+    private static final String ID_2 = "66c26f01f1fc951335aa8d2c";
     private static final long BRAND_ID = 1L;
     private static final long PRODUCT_ID = 35643L;
     private static final LocalDateTime START_DATE = LocalDateTime.now().minusMonths(1).toLocalDate().atStartOfDay();
@@ -38,6 +39,7 @@ public class PriceMock {
 
     public static Price getPriceLowerPriority() {
         return getPrice().toBuilder()
+                ._id(ID_2)
                 .priority(LOWER_PRIORITY)
                 .price(PRICE_2)
                 .build();
@@ -47,5 +49,16 @@ public class PriceMock {
         return Arrays.asList(getPrice(), getPriceLowerPriority());
     }
 
-
+    public static Price getPrice(int priority, String startDate, String endDate, String price) {
+        return Price.builder()
+                .brandId(BRAND_ID)
+                .productId(PRODUCT_ID)
+                .startDate(LocalDateTime.parse(startDate))
+                .endDate(LocalDateTime.parse(endDate))
+                .priceList(PRICE_LIST)
+                .priority(priority)
+                .price(new BigDecimal(price))
+                .currency(CURRENCY)
+                .build();
+    }
 }
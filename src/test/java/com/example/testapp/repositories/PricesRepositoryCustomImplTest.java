@@ -0,0 +1,200 @@
+package com.example.testapp.repositories;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.EffectivePrice;
+import com.example.testapp.services.lookup.PriceKey;
+import com.example.testapp.services.lookup.PriceQueryRange;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PricesRepositoryCustomImplTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.now();
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    private PricesRepositoryCustomImpl pricesRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pricesRepository = new PricesRepositoryCustomImpl(mongoOperations);
+    }
+
+    @Test
+    void whenFindEffectivePrice_shouldReturnFoundPrice() {
+        Price price = PriceMock.getPrice();
+        when(mongoOperations.findOne(any(Query.class), eq(Price.class))).thenReturn(price);
+
+        Optional<Price> result = pricesRepository.findEffectivePrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertTrue(result.isPresent());
+        assertEquals(price, result.get());
+    }
+
+    @Test
+    void whenFindEffectivePrice_shouldSortByDescendingPriorityAndLimitToOneResult() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        pricesRepository.findEffectivePrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        verify(mongoOperations).findOne(query.capture(), eq(Price.class));
+        assertEquals(1, query.getValue().getLimit());
+        assertEquals(new Document("priority", -1).append("startDate", -1), query.getValue().getSortObject());
+    }
+
+    @Test
+    void whenFindEffectivePrice_shouldProjectOutDocumentId() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        pricesRepository.findEffectivePrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        verify(mongoOperations).findOne(query.capture(), eq(Price.class));
+        Document fields = query.getValue().getFieldsObject();
+        assertEquals(0, fields.get("_id"));
+        assertEquals(1, fields.get("price"));
+        assertEquals(1, fields.get("currency"));
+    }
+
+    @Test
+    void whenFindEffectivePriceAndNextStart_shouldRunSingleFacetAggregation() {
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Price.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        EffectivePrice result = pricesRepository.findEffectivePriceAndNextStart(BRAND_ID, PRODUCT_ID, DATE);
+
+        verify(mongoOperations).aggregate(aggregation.capture(), eq(Price.class), eq(Document.class));
+        List<Document> stages = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("brandId", BRAND_ID).append("productId", PRODUCT_ID).append("endDate", new Document("$gte", DATE)),
+                stages.get(0).get("$match"));
+        assertEquals(Set.of("effective", "nextStarts"), stages.get(2).get("$facet", Document.class).keySet());
+        assertNull(result.price());
+        assertNull(result.nextStartDate());
+    }
+
+    @Test
+    void whenFindEffectivePriceAndNextStart_shouldOnlyKeepStartsThatMayBeatTheEffectivePrice() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoOperations.getConverter()).thenReturn(converter);
+        Price price = PriceMock.getPrice();
+        LocalDateTime beatingStart = price.getEndDate().minusDays(2);
+        Document result = new Document("effective", List.of(write(converter, price)))
+                .append("nextStarts", List.of(
+                        write(converter, Price.builder().priority(price.getPriority() - 1).startDate(price.getEndDate().minusDays(3)).build()),
+                        write(converter, Price.builder().priority(price.getPriority()).startDate(beatingStart).build()),
+                        write(converter, Price.builder().priority(price.getPriority() + 1).startDate(price.getEndDate().plusDays(1)).build())));
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Price.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+
+        EffectivePrice effective = pricesRepository.findEffectivePriceAndNextStart(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertEquals(price.getPrice(), effective.price().getPrice());
+        assertEquals(beatingStart, effective.nextStartDate());
+    }
+
+    @Test
+    void whenFindPricesApplyingWithin_shouldQueryEveryProductWithSingleOrQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Map<PriceKey, PriceQueryRange> ranges = new LinkedHashMap<>();
+        ranges.put(new PriceKey(BRAND_ID, PRODUCT_ID), new PriceQueryRange(DATE, DATE.plusDays(1)));
+        ranges.put(new PriceKey(BRAND_ID, PRODUCT_ID + 1), new PriceQueryRange(DATE.minusDays(1), DATE.minusDays(1)));
+
+        pricesRepository.findPricesApplyingWithin(ranges);
+
+        verify(mongoOperations).find(query.capture(), eq(Price.class));
+        List<?> branches = (List<?>) query.getValue().getQueryObject().get("$or");
+        assertEquals(2, branches.size());
+        assertEquals(new Document("brandId", BRAND_ID).append("productId", PRODUCT_ID)
+                        .append("startDate", new Document("$lte", DATE.plusDays(1)))
+                        .append("endDate", new Document("$gte", DATE)),
+                branches.get(0));
+    }
+
+    @Test
+    void whenFindPricesApplyingWithinWithoutProducts_shouldNotQuery() {
+        assertTrue(pricesRepository.findPricesApplyingWithin(Map.of()).isEmpty());
+        verifyNoInteractions(mongoOperations);
+    }
+
+    @Test
+    void whenFindNextStartDates_shouldReturnOneStartDatePerProduct() {
+        Price next = PriceMock.getPrice();
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Price.class), eq(Price.class)))
+                .thenReturn(new AggregationResults<>(List.of(next), new Document()));
+
+        Map<PriceKey, LocalDateTime> nextStartDates = pricesRepository.findNextStartDates(
+                Map.of(PriceKey.of(next), new PriceQueryRange(DATE, DATE)));
+
+        assertEquals(Map.of(PriceKey.of(next), next.getStartDate()), nextStartDates);
+    }
+
+    @Test
+    void whenStreamPrices_shouldFilterByBrandAndReadInIndexOrderWithCursorBatchSize() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoOperations.stream(any(Query.class), eq(Price.class))).thenReturn(Stream.of(PriceMock.getPrice()));
+
+        List<Price> result = pricesRepository.streamPrices(BRAND_ID, 250).toList();
+
+        verify(mongoOperations).stream(query.capture(), eq(Price.class));
+        assertEquals(1, result.size());
+        assertEquals(new Document("brandId", BRAND_ID), query.getValue().getQueryObject());
+        assertEquals(new Document("brandId", 1).append("productId", 1).append("startDate", 1), query.getValue().getSortObject());
+        assertEquals(250, query.getValue().getMeta().getCursorBatchSize());
+    }
+
+    @Test
+    void whenStreamPricesWithoutBrand_shouldReadWholeCollection() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoOperations.stream(any(Query.class), eq(Price.class))).thenReturn(Stream.empty());
+
+        pricesRepository.streamPrices(null, 250);
+
+        verify(mongoOperations).stream(query.capture(), eq(Price.class));
+        assertTrue(query.getValue().getQueryObject().isEmpty());
+    }
+
+    private static Document write(MappingMongoConverter converter, Price price) {
+        Document document = new Document();
+        converter.write(price, document);
+        return document;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.testapp.services;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceIngestionReportDto;
+import com.example.testapp.model.Price;
+import com.example.testapp.services.lookup.PriceLookupEngine;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PricesIngestionServiceImplTest {
+
+    private static final String PRICE = "{\"brand_id\": 1, \"start_date\": \"2020-06-14T00:00:00\", \"end_date\": \"2020-12-31T23:59:59\", " +
+            "\"price_list\": 1, \"product_id\": 35455, \"priority\": 0, \"price\": 35.50, \"curr\": \"EUR\"}";
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private PriceLookupEngine priceLookupEngine;
+
+    private final AtomicInteger batchSize = new AtomicInteger();
+
+    private PricesIngestionServiceImpl pricesIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoOperations.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Price.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            batchSize.set(invocation.<List<?>>getArgument(0).size());
+            return bulkOperations;
+        });
+        when(bulkOperations.execute()).thenAnswer(invocation ->
+                BulkWriteResult.acknowledged(batchSize.get(), 0, 0, 0, List.of(), List.of()));
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getIngestion().setBatchSize(2);
+        pricesProperties.getIngestion().setMaxInFlightBatches(1);
+        pricesIngestionService = new PricesIngestionServiceImpl(mongoOperations, priceLookupEngine,
+                Jackson2ObjectMapperBuilder.json().build(), pricesProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pricesIngestionService.destroy();
+    }
+
+    @Test
+    void whenIngestNdjson_shouldInsertInBatchesAndIndexThem() throws IOException {
+        PriceIngestionReportDto report = pricesIngestionService.ingest(body(PRICE + "\n" + PRICE + "\n" + PRICE + "\n"));
+
+        assertEquals(3, report.getInserted());
+        assertEquals(0, report.getFailed());
+        verify(bulkOperations, times(2)).execute();
+        verify(priceLookupEngine, times(2)).index(any());
+    }
+
+    @Test
+    void whenIngestJsonArray_shouldInsertEveryElement() throws IOException {
+        PriceIngestionReportDto report = pricesIngestionService.ingest(body("[" + PRICE + "," + PRICE + "]"));
+
+        assertEquals(2, report.getInserted());
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void whenIngestUnreadablePrice_shouldCountItAsFailedAndContinue() throws IOException {
+        PriceIngestionReportDto report = pricesIngestionService.ingest(body(PRICE + "\n{\"brand_id\": \"none\"}\n" + PRICE));
+
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getFailed());
+    }
+
+    @Test
+    void whenIngestMalformedJson_shouldStoreThePricesReadAndReportTheError() throws IOException {
+        PriceIngestionReportDto report = pricesIngestionService.ingest(body(PRICE + "\n" + PRICE + "\n" + PRICE + "\n{\"brand_id\": 1,"));
+
+        assertEquals(3, report.getInserted());
+        assertNotNull(report.getError());
+        verify(priceLookupEngine, times(2)).index(any());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,27 +1,48 @@
 package com.example.testapp.services;
 
+import com.example.testapp.configuration.PricesProperties;
 import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.dtos.PriceQueryResultDto;
+import com.example.testapp.exceptions.InvalidPriceRangeException;
+import com.example.testapp.exceptions.PriceBatchTooLargeException;
+import com.example.testapp.exceptions.PriceNotFoundException;
 import com.example.testapp.mocks.PriceDtoMock;
 import com.example.testapp.mocks.PriceMock;
 import com.example.testapp.model.Price;
 import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.converters.PriceEncoding;
+import com.example.testapp.services.converters.PriceJsonRenderer;
 import com.example.testapp.services.converters.PriceToPriceDtoMapper;
+import com.example.testapp.services.converters.RenderedPrice;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.testapp.services.lookup.EffectivePrice;
+import com.example.testapp.services.lookup.RepositoryPriceLookupEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 class PricesServiceImplTest {
@@ -34,18 +55,26 @@ class PricesServiceImplTest {
     private PricesRepository pricesRepository;
 
 
-    @InjectMocks
     private PricesServiceImpl pricesService;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private ObjectMapper objectMapper;
+
+    private PriceJsonRenderer priceJsonRenderer;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        pricesService = new PricesServiceImpl(pricesRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        priceJsonRenderer = new PriceJsonRenderer(objectMapper, new PricesProperties(), meterRegistry);
+        pricesService = new PricesServiceImpl(pricesRepository, new RepositoryPriceLookupEngine(pricesRepository, meterRegistry), priceJsonRenderer, new PricesProperties(), meterRegistry);
     }
 
     @Test
     void whenFindByBrandIdAndProductIdAndDate_shouldReturnPriceDto() {
-        when(pricesRepository.findByBrandIdAndProductIdAndDate(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(Collections.singletonList(PriceMock.getPrice()));
+        when(pricesRepository.findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(Optional.of(PriceMock.getPrice()));
 
         try (MockedStatic<PriceToPriceDtoMapper> priceToPriceDtoMapper = mockStatic(PriceToPriceDtoMapper.class)) {
             priceToPriceDtoMapper
@@ -54,38 +83,123 @@ class PricesServiceImplTest {
 
             PriceDto result = pricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID);
 
-            verify(pricesRepository).findByBrandIdAndProductIdAndDate(anyLong(), anyLong(), any(LocalDateTime.class));
+            verify(pricesRepository).findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class));
             priceToPriceDtoMapper.verify(() -> PriceToPriceDtoMapper.toDto(any(Price.class)));
             assertEquals(PriceDtoMock.getPriceDto(), result);
         }
     }
 
     @Test
-    void whenFindByBrandIdAndProductIdAndDateReturnsMultipleItems_shouldReturnPriceDtoWithLowerPriority() {
-        when(pricesRepository.findByBrandIdAndProductIdAndDate(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(PriceMock.getListWithMultipleItems());
-
-        try (MockedStatic<PriceToPriceDtoMapper> priceToPriceDtoMapper = mockStatic(PriceToPriceDtoMapper.class)) {
-            priceToPriceDtoMapper
-                    .when(() -> PriceToPriceDtoMapper.toDto(any(Price.class)))
-                    .thenReturn(PriceDtoMock.getPriceDtoWithLowerPriority());
+    void whenFindByBrandIdAndProductIdAndDateWithOverlappingPrices_shouldReturnPriceDtoWithHigherPriority() {
+        when(pricesRepository.findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(Optional.of(PriceMock.getPrice()));
 
-            PriceDto result = pricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID);
+        PriceDto result = pricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID);
 
-            assertEquals(PriceDtoMock.getPriceDtoWithLowerPriority(), result);
-            verify(pricesRepository).findByBrandIdAndProductIdAndDate(anyLong(), anyLong(), any(LocalDateTime.class));
-        }
+        assertEquals(PriceDtoMock.getPriceDto(), result);
+        verify(pricesRepository).findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class));
     }
 
     @Test
-    void whenFindByBrandIdAndProductIdAndDateReturnsNoItems_shouldThrowNoSuchElementException() {
-        when(pricesRepository.findByBrandIdAndProductIdAndDate(anyLong(), anyLong(), nullable(LocalDateTime.class))).thenReturn(Collections.emptyList());
+    void whenFindByBrandIdAndProductIdAndDateReturnsNoItems_shouldThrowPriceNotFoundException() {
+        when(pricesRepository.findEffectivePrice(anyLong(), anyLong(), nullable(LocalDateTime.class))).thenReturn(Optional.empty());
 
-        NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> pricesService.getPriceByBrandIdAndProductIdAndDate(null, BRAND_ID, PRODUCT_ID));
+        PriceNotFoundException exception = assertThrows(PriceNotFoundException.class, () -> pricesService.getPriceByBrandIdAndProductIdAndDate(null, BRAND_ID, PRODUCT_ID));
 
-        verify(pricesRepository).findByBrandIdAndProductIdAndDate(anyLong(), anyLong(), nullable(LocalDateTime.class));
+        verify(pricesRepository).findEffectivePrice(anyLong(), anyLong(), nullable(LocalDateTime.class));
         assertEquals(NO_SUCH_ELEMENT_EXCEPTION_MESSAGE, exception.getMessage());
     }
 
+    @Test
+    void whenGetPriceJson_shouldReturnSerializedPriceDto() throws Exception {
+        when(pricesRepository.findEffectivePriceAndNextStart(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(new EffectivePrice(PriceMock.getPrice(), null));
+
+        RenderedPrice result = pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID, PriceEncoding.JSON);
+
+        LocalDateTime validUntil = PriceMock.getPrice().getEndDate().plus(1, ChronoUnit.MILLIS);
+        assertArrayEquals(objectMapper.writeValueAsBytes(PriceDtoMock.getPriceDto().toBuilder().validUntil(validUntil).build()), result.body());
+        assertEquals(validUntil, result.validUntil());
+    }
+
+    @Test
+    void whenGetPriceJsonReturnsNoItems_shouldThrowPriceNotFoundException() {
+        when(pricesRepository.findEffectivePriceAndNextStart(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(new EffectivePrice(null, null));
+
+        assertThrows(PriceNotFoundException.class, () -> pricesService.getRenderedPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID, PriceEncoding.JSON));
+    }
+
+    @Test
+    void whenFindByBrandIdAndProductIdAndDate_shouldRecordLookupByOutcome() {
+        when(pricesRepository.findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(PriceMock.getPrice()))
+                .thenReturn(Optional.empty());
+
+        pricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID);
+        assertThrows(PriceNotFoundException.class, () -> pricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID));
+
+        assertEquals(1, meterRegistry.get("prices.lookup").tag("outcome", "found").timer().count());
+        assertEquals(1, meterRegistry.get("prices.lookup").tag("outcome", "not_found").timer().count());
+        assertEquals(1, meterRegistry.get("prices.mapper").timer().count());
+    }
+
+    @Test
+    void whenGetPrices_shouldResolveWholeBatchWithSingleQuery() {
+        when(pricesRepository.findPricesApplyingWithin(anyMap())).thenReturn(PriceMock.getListWithMultipleItems());
+        List<PriceQueryDto> queries = List.of(
+                new PriceQueryDto(BRAND_ID, PriceMock.getPrice().getProductId(), DATE),
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID, DATE));
+
+        List<PriceQueryResultDto> results = pricesService.getPrices(queries);
+
+        verify(pricesRepository).findPricesApplyingWithin(anyMap());
+        verify(pricesRepository, never()).findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isFound());
+        assertEquals(PriceDtoMock.getPriceDto(), results.get(0).getPrice());
+        assertFalse(results.get(1).isFound());
+        assertNull(results.get(1).getPrice());
+        assertEquals(PRODUCT_ID, results.get(1).getProductId());
+    }
+
+    @Test
+    void whenGetPricesExceedsMaxBatchSize_shouldThrowPriceBatchTooLargeException() {
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getBatch().setMaxSize(1);
+        pricesService = new PricesServiceImpl(pricesRepository, new RepositoryPriceLookupEngine(pricesRepository, meterRegistry), priceJsonRenderer, pricesProperties, meterRegistry);
+        List<PriceQueryDto> queries = List.of(
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID, DATE),
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID, DATE));
+
+        assertThrows(PriceBatchTooLargeException.class, () -> pricesService.getPrices(queries));
+        verifyNoInteractions(pricesRepository);
+    }
+
+    @Test
+    void whenGetPriceHistory_shouldStreamEffectiveSegmentsClippedToRange() {
+        Price base = PriceMock.getPrice(0, "2020-06-14T00:00:00", "2020-12-31T23:59:59", "35.50");
+        Price promotion = PriceMock.getPrice(1, "2020-06-14T15:00:00", "2020-06-14T18:30:00", "25.45");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(pricesRepository.streamByBrandIdAndProductIdOverlapping(anyLong(), anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Stream.of(base, promotion).onClose(() -> closed.set(true)));
+
+        List<PriceDto> history;
+        try (Stream<PriceDto> segments = pricesService.getPriceHistory(LocalDateTime.parse("2020-06-14T10:00:00"),
+                LocalDateTime.parse("2020-06-15T10:00:00"), BRAND_ID, PRODUCT_ID)) {
+            history = segments.toList();
+        }
+
+        assertEquals(3, history.size());
+        assertSegment(history.get(0), "35.50€", "2020-06-14T10:00:00", "2020-06-14T14:59:59.999");
+        assertSegment(history.get(1), "25.45€", "2020-06-14T15:00:00", "2020-06-14T18:30:00");
+        assertSegment(history.get(2), "35.50€", "2020-06-14T18:30:00.001", "2020-06-15T10:00:00");
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void whenGetPriceHistoryWithRangeEndingBeforeItStarts_shouldThrowInvalidPriceRangeException() {
+        assertThrows(InvalidPriceRangeException.class, () -> pricesService.getPriceHistory(DATE, DATE.minusDays(1), BRAND_ID, PRODUCT_ID));
+        verifyNoInteractions(pricesRepository);
+    }
+
     @Test
     void whenAddPrices_shouldExecutePricesRepositorySaveAll() {
         when(pricesRepository.saveAll(any(List.class))).thenReturn(Collections.emptyList());
@@ -95,5 +209,9 @@ class PricesServiceImplTest {
         verify(pricesRepository).saveAll(any(List.class));
     }
 
-
+    private static void assertSegment(PriceDto segment, String finalPrice, String startDate, String endDate) {
+        assertEquals(finalPrice, segment.getFinalPrice());
+        assertEquals(LocalDateTime.parse(startDate), segment.getStartDate());
+        assertEquals(LocalDateTime.parse(endDate), segment.getEndDate());
+    }
 }
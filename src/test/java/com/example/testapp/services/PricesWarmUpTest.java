@@ -0,0 +1,70 @@
+package com.example.testapp.services;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+class PricesWarmUpTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2020, 6, 14, 10, 0);
+
+    @Mock
+    private PricesRepository pricesRepository;
+
+    @TempDir
+    private Path directory;
+
+    private PricesWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        warmUp = new PricesWarmUp(pricesRepository, new PricesProperties(), BrandPartitioner.SINGLE_NODE);
+    }
+
+    @Test
+    void whenSyntheticLookups_shouldLookUpStoredProductsAndSomeUnknownProducts() {
+        when(pricesRepository.streamProductKeys())
+                .thenReturn(Stream.generate(PriceMock::getPrice).limit(10));
+
+        List<String> lookups = warmUp.syntheticLookups(DATE);
+
+        assertEquals(10, lookups.size());
+        assertEquals("date=2020-06-14T10:00&productId=35643&brandId=1", lookups.get(0));
+        assertEquals("date=2020-06-14T10:00&productId=" + PricesWarmUp.UNKNOWN_PRODUCT_ID + "&brandId=1", lookups.get(9));
+    }
+
+    @Test
+    void whenRecordedLookups_shouldReadEveryLine() throws IOException {
+        Path file = Files.write(directory.resolve("lookups.csv"), List.of("1,35455,2020-06-14T10:00:00", "", "2, 35456, 2020-06-15T21:00:00"));
+
+        List<String> lookups = PricesWarmUp.recordedLookups(file, BrandPartitioner.SINGLE_NODE);
+
+        assertEquals(List.of("date=2020-06-14T10:00&productId=35455&brandId=1", "date=2020-06-15T21:00&productId=35456&brandId=2"), lookups);
+    }
+
+    @Test
+    void whenRecordedLookupsHasInvalidLine_shouldThrowIOException() throws IOException {
+        Path file = Files.write(directory.resolve("lookups.csv"), Collections.singletonList("1,35455"));
+
+        assertThrows(IOException.class, () -> PricesWarmUp.recordedLookups(file, BrandPartitioner.SINGLE_NODE));
+    }
+}
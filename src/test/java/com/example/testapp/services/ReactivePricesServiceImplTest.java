@@ -0,0 +1,101 @@
+package com.example.testapp.services;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceQueryDto;
+import com.example.testapp.exceptions.PriceBatchTooLargeException;
+import com.example.testapp.exceptions.PriceNotFoundException;
+import com.example.testapp.mocks.PriceDtoMock;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.repositories.ReactivePricesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReactivePricesServiceImplTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.now();
+
+    @Mock
+    private ReactivePricesRepository reactivePricesRepository;
+
+    private ReactivePricesServiceImpl reactivePricesService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reactivePricesService = new ReactivePricesServiceImpl(reactivePricesRepository, new PricesProperties());
+    }
+
+    @Test
+    void whenGetPriceByBrandIdAndProductIdAndDate_shouldEmitPriceDto() {
+        when(reactivePricesRepository.findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(PriceMock.getPrice()));
+
+        StepVerifier.create(reactivePricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID))
+                .expectNext(PriceDtoMock.getPriceDto())
+                .verifyComplete();
+    }
+
+    @Test
+    void whenGetPriceByBrandIdAndProductIdAndDateReturnsNoItems_shouldFailWithPriceNotFoundException() {
+        when(reactivePricesRepository.findEffectivePrice(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(reactivePricesService.getPriceByBrandIdAndProductIdAndDate(DATE, BRAND_ID, PRODUCT_ID))
+                .verifyError(PriceNotFoundException.class);
+    }
+
+    @Test
+    void whenGetPrices_shouldResolveWholeBatchWithSingleQuery() {
+        when(reactivePricesRepository.findPricesApplyingWithin(anyMap()))
+                .thenReturn(Flux.fromIterable(PriceMock.getListWithMultipleItems()));
+        when(reactivePricesRepository.findNextStartDates(anyMap())).thenReturn(Mono.just(Map.of()));
+        List<PriceQueryDto> queries = List.of(
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID, DATE),
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID + 1, DATE));
+
+        StepVerifier.create(reactivePricesService.getPrices(queries))
+                .assertNext(results -> {
+                    assertEquals(2, results.size());
+                    assertTrue(results.get(0).isFound());
+                    assertEquals(PriceDtoMock.getPriceDto(), results.get(0).getPrice());
+                    assertFalse(results.get(1).isFound());
+                })
+                .verifyComplete();
+        verify(reactivePricesRepository).findPricesApplyingWithin(anyMap());
+    }
+
+    @Test
+    void whenGetPricesExceedsMaxBatchSize_shouldFailWithPriceBatchTooLargeException() {
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getBatch().setMaxSize(1);
+        reactivePricesService = new ReactivePricesServiceImpl(reactivePricesRepository, pricesProperties);
+        List<PriceQueryDto> queries = List.of(
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID, DATE),
+                new PriceQueryDto(BRAND_ID, PRODUCT_ID, DATE));
+
+        StepVerifier.create(reactivePricesService.getPrices(queries))
+                .verifyError(PriceBatchTooLargeException.class);
+        verifyNoInteractions(reactivePricesRepository);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.testapp.services.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrandPartitionerTest {
+
+    private static final String NODE_1 = "http://localhost:8081";
+    private static final String NODE_2 = "http://localhost:8082";
+    private static final String NODE_3 = "http://localhost:8083";
+    private static final List<String> MEMBERS = List.of(NODE_1, NODE_2, NODE_3);
+    private static final int PARTITIONS = 256;
+    private static final int VIRTUAL_NODES = 64;
+
+    @Test
+    void whenSingleNode_shouldOwnEveryBrand() {
+        assertTrue(BrandPartitioner.SINGLE_NODE.owns(1L));
+        assertTrue(BrandPartitioner.SINGLE_NODE.owns(Long.MIN_VALUE));
+        assertEquals(1, BrandPartitioner.SINGLE_NODE.ownedPartitions());
+    }
+
+    @Test
+    void whenMembersShareTheMemberList_shouldEachBrandBeOwnedByExactlyOneOfThem() {
+        List<BrandPartitioner> nodes = MEMBERS.stream()
+                .map(self -> BrandPartitioner.of(self, MEMBERS, PARTITIONS, VIRTUAL_NODES))
+                .toList();
+
+        for (long brandId = 0; brandId < 1_000; brandId++) {
+            long id = brandId;
+            assertEquals(1, nodes.stream().filter(node -> node.owns(id)).count());
+            assertEquals(nodes.get(0).ownerOf(id), nodes.get(2).ownerOf(id));
+        }
+        assertEquals(PARTITIONS, nodes.stream().mapToInt(BrandPartitioner::ownedPartitions).sum());
+        nodes.forEach(node -> assertTrue(node.ownedPartitions() > PARTITIONS / 6));
+    }
+
+    @Test
+    void whenMemberListedInAnotherOrderOrWithTrailingSlash_shouldAssignTheSameOwners() {
+        BrandPartitioner partitioner = BrandPartitioner.of(NODE_1, MEMBERS, PARTITIONS, VIRTUAL_NODES);
+        BrandPartitioner reordered = BrandPartitioner.of(NODE_1 + "/", List.of(NODE_3, NODE_2 + "/", NODE_1), PARTITIONS, VIRTUAL_NODES);
+
+        for (long brandId = 0; brandId < 1_000; brandId++) {
+            assertEquals(partitioner.ownerOf(brandId), reordered.ownerOf(brandId));
+        }
+    }
+
+    @Test
+    void whenMemberAdded_shouldOnlyMovePartitionsToIt() {
+        BrandPartitioner before = BrandPartitioner.of(NODE_1, List.of(NODE_1, NODE_2), PARTITIONS, VIRTUAL_NODES);
+        BrandPartitioner after = BrandPartitioner.of(NODE_1, MEMBERS, PARTITIONS, VIRTUAL_NODES);
+
+        for (long brandId = 0; brandId < 1_000; brandId++) {
+            String owner = after.ownerOf(brandId);
+            assertTrue(owner.equals(before.ownerOf(brandId)) || owner.equals(NODE_3));
+        }
+    }
+
+    @Test
+    void whenSelfIsNotAMember_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BrandPartitioner.of("http://localhost:9090", MEMBERS, PARTITIONS, VIRTUAL_NODES));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.testapp.services.converters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceEncodingTest {
+
+    @Test
+    void whenNoAcceptHeader_shouldNegotiateJson() {
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate(null));
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate(""));
+    }
+
+    @Test
+    void whenAcceptingAnything_shouldNegotiateJson() {
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate("*/*"));
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate("application/*"));
+    }
+
+    @Test
+    void whenAcceptingBinaryEncoding_shouldNegotiateIt() {
+        assertEquals(PriceEncoding.CBOR, PriceEncoding.negotiate("application/cbor"));
+        assertEquals(PriceEncoding.SMILE, PriceEncoding.negotiate("application/x-jackson-smile"));
+        assertEquals(PriceEncoding.PROTOBUF, PriceEncoding.negotiate("application/x-protobuf, application/json;q=0.9"));
+    }
+
+    @Test
+    void whenAcceptingSeveralEncodings_shouldNegotiateThePreferredOne() {
+        assertEquals(PriceEncoding.SMILE, PriceEncoding.negotiate("application/json;q=0.5, application/x-jackson-smile;q=0.8"));
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate("application/cbor;q=0, */*;q=0.1"));
+    }
+
+    @Test
+    void whenAcceptHeaderInvalidOrUnmatched_shouldNegotiateJson() {
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate("not a media type"));
+        assertEquals(PriceEncoding.JSON, PriceEncoding.negotiate("text/html"));
+    }
+}
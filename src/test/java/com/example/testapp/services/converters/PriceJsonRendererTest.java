@@ -0,0 +1,125 @@
+package com.example.testapp.services.converters;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.dtos.PriceDto;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.protobuf.PriceMessage;
+import com.example.testapp.services.lookup.PriceSegment;
+import com.example.testapp.services.lookup.PriceTimes;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PriceJsonRendererTest {
+
+    private static final LocalDateTime VALID_FROM = LocalDateTime.parse("2020-06-14T10:00:00");
+    private static final LocalDateTime VALID_UNTIL = LocalDateTime.parse("2020-06-14T15:00:00");
+
+    private ObjectMapper objectMapper;
+
+    private PriceJsonRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        renderer = new PriceJsonRenderer(objectMapper, new PricesProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenRender_shouldReturnSameBytesAsSerializedPriceDtoWithValidity() throws Exception {
+        Price price = PriceMock.getPrice();
+
+        RenderedPrice result = renderer.render(segment(price, VALID_UNTIL));
+
+        PriceDto priceDto = PriceToPriceDtoMapper.toDto(price);
+        priceDto.setValidUntil(VALID_UNTIL);
+        assertArrayEquals(objectMapper.writeValueAsBytes(priceDto), result.body());
+        assertEquals(VALID_UNTIL, result.validUntil());
+    }
+
+    @Test
+    void whenRenderOpenEndedSegment_shouldLeaveValidityOut() throws Exception {
+        Price price = PriceMock.getPrice();
+
+        RenderedPrice result = renderer.render(new PriceSegment(price, PriceTimes.toEpochMilli(VALID_FROM), Long.MAX_VALUE));
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(PriceToPriceDtoMapper.toDto(price)), result.body());
+        assertFalse(new String(result.body()).contains("validUntil"));
+        assertNull(result.validUntil());
+    }
+
+    @Test
+    void whenRenderSameSegmentTwice_shouldReuseRenderedBytes() {
+        PriceSegment segment = segment(PriceMock.getPrice(), VALID_UNTIL);
+
+        assertSame(renderer.render(segment), renderer.render(segment));
+    }
+
+    @Test
+    void whenRenderEqualSegmentInstances_shouldRenderEachInstanceWithSameETag() {
+        RenderedPrice first = renderer.render(segment(PriceMock.getPrice(), VALID_UNTIL));
+        RenderedPrice second = renderer.render(segment(PriceMock.getPrice(), VALID_UNTIL));
+
+        assertNotSame(first, second);
+        assertEquals(first.eTag(), second.eTag());
+    }
+
+    @Test
+    void whenRenderSegmentsWithDifferentValidity_shouldTagThemDifferently() {
+        Price price = PriceMock.getPrice();
+
+        assertNotEquals(renderer.render(segment(price, VALID_UNTIL)).eTag(), renderer.render(segment(price, VALID_UNTIL.plusHours(1))).eTag());
+    }
+
+    @Test
+    void whenRenderInCborOrSmile_shouldEncodeSameFieldsAsJson() throws Exception {
+        PriceSegment segment = segment(PriceMock.getPrice(), VALID_UNTIL);
+
+        JsonNode json = objectMapper.readTree(renderer.render(segment).body());
+
+        assertEquals(json, objectMapper.copyWith(new CBORFactory()).readTree(renderer.render(segment, PriceEncoding.CBOR).body()));
+        assertEquals(json, objectMapper.copyWith(new SmileFactory()).readTree(renderer.render(segment, PriceEncoding.SMILE).body()));
+    }
+
+    @Test
+    void whenRenderInProtobuf_shouldEncodeDatesAsEpochMillis() throws Exception {
+        Price price = PriceMock.getPrice();
+
+        RenderedPrice result = renderer.render(segment(price, VALID_UNTIL), PriceEncoding.PROTOBUF);
+
+        PriceMessage message = PriceMessage.parseFrom(result.body());
+        assertEquals(price.getBrandId(), message.getBrandId());
+        assertEquals(price.getProductId(), message.getProductId());
+        assertEquals(PriceTimes.toEpochMilli(price.getStartDate()), message.getStartDate());
+        assertEquals(PriceToPriceDtoMapper.toDto(price).getFinalPrice(), message.getFinalPrice());
+        assertEquals(PriceTimes.toEpochMilli(VALID_UNTIL), message.getValidUntil());
+    }
+
+    @Test
+    void whenRenderSameSegmentInSeveralEncodings_shouldTagEachEncodingDifferently() {
+        PriceSegment segment = segment(PriceMock.getPrice(), VALID_UNTIL);
+
+        assertNotEquals(renderer.render(segment).eTag(), renderer.render(segment, PriceEncoding.CBOR).eTag());
+        assertSame(renderer.render(segment, PriceEncoding.CBOR), renderer.render(segment, PriceEncoding.CBOR));
+    }
+
+    private static PriceSegment segment(Price price, LocalDateTime validUntil) {
+        return new PriceSegment(price, PriceTimes.toEpochMilli(VALID_FROM), PriceTimes.toEpochMilli(validUntil));
+    }
+}
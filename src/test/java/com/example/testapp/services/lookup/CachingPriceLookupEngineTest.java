@@ -0,0 +1,116 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingPriceLookupEngineTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.of(2020, 6, 14, 10, 0);
+
+    @Mock
+    private PriceLookupEngine delegate;
+
+    private CachingPriceLookupEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Price price = PriceMock.getPrice();
+        when(delegate.resolve(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> new PriceSegment(price,
+                        PriceTimes.toEpochMilli(invocation.getArgument(2)),
+                        PriceTimes.toEpochMilli(invocation.<LocalDateTime>getArgument(2).plusHours(1))));
+        engine = new CachingPriceLookupEngine(delegate, 10, Duration.ofMinutes(1), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void whenFindPriceInsideCachedWindow_shouldNotCallDelegate() {
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE.plusMinutes(30));
+
+        verify(delegate, times(1)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(1, engine.hitCount());
+        assertEquals(1, engine.missCount());
+    }
+
+    @Test
+    void whenFindPriceOutsideCachedWindow_shouldCallDelegate() {
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE.plusHours(2));
+
+        verify(delegate, times(2)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(2, engine.missCount());
+    }
+
+    @Test
+    void whenFindPriceWithoutResult_shouldCacheItAsNegativeEntry() {
+        when(delegate.resolve(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(new PriceSegment(null, 0, Long.MAX_VALUE));
+
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID, DATE).isEmpty());
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID, DATE).isEmpty());
+
+        verify(delegate, times(1)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(1, engine.negativeHitCount());
+    }
+
+    @Test
+    void whenResolveAll_shouldOnlyPassCacheMissesToDelegate() {
+        when(delegate.resolveAll(anyList())).thenReturn(List.of(new PriceSegment(null, 0, Long.MAX_VALUE)));
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+        PriceQuery missed = new PriceQuery(BRAND_ID, PRODUCT_ID + 1, DATE);
+
+        List<PriceSegment> segments = engine.resolveAll(List.of(new PriceQuery(BRAND_ID, PRODUCT_ID, DATE), missed));
+
+        verify(delegate).resolveAll(List.of(missed));
+        assertEquals(PriceMock.getPrice().getPrice(), segments.get(0).price().getPrice());
+        assertNull(segments.get(1).price());
+        assertEquals(1, engine.hitCount());
+    }
+
+    @Test
+    void whenIndexPrices_shouldInvalidateTheirProducts() {
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        engine.index(List.of(PriceMock.getPrice()));
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        verify(delegate).index(any());
+        verify(delegate, times(2)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void whenPricesIndexedDuringLookup_shouldNotCacheTheResolvedSegment() {
+        Price price = PriceMock.getPrice();
+        when(delegate.resolve(anyLong(), anyLong(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            engine.index(List.of(price));
+            return new PriceSegment(price, 0, Long.MAX_VALUE);
+        });
+
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+        engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        verify(delegate, times(2)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(0, engine.size());
+    }
+}
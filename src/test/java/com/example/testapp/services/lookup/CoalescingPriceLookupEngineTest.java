@@ -0,0 +1,193 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.exceptions.PriceLookupInterruptedException;
+import com.example.testapp.exceptions.PriceLookupTimeoutException;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoalescingPriceLookupEngineTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.of(2020, 6, 14, 10, 0);
+    private static final int WAITERS = 8;
+
+    @Mock
+    private PriceLookupEngine delegate;
+
+    private final CountDownLatch resolving = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorService executor;
+
+    private CoalescingPriceLookupEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(WAITERS + 1);
+        engine = new CoalescingPriceLookupEngine(delegate, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void whenResolveConcurrently_shouldShareSingleResolution() throws Exception {
+        PriceSegment segment = blockingSegment(DATE.plusHours(1));
+
+        Future<PriceSegment> leader = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+        List<Future<PriceSegment>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE.plusMinutes(30))));
+        }
+        awaitWaiters();
+        release.countDown();
+
+        assertSame(segment, leader.get(5, TimeUnit.SECONDS));
+        for (Future<PriceSegment> waiter : waiters) {
+            assertSame(segment, waiter.get(5, TimeUnit.SECONDS));
+        }
+        verify(delegate, times(1)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(WAITERS, engine.coalescedCount());
+        assertEquals(0, engine.inFlightCount());
+    }
+
+    @Test
+    void whenWaiterDateIsOutsideSharedSegment_shouldResolveItsOwn() throws Exception {
+        blockingSegment(DATE.plusHours(1));
+
+        Future<PriceSegment> leader = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+        Future<PriceSegment> waiter = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE.plusHours(2)));
+        awaitWaiters();
+        release.countDown();
+
+        leader.get(5, TimeUnit.SECONDS);
+        assertTrue(waiter.get(5, TimeUnit.SECONDS).contains(PriceTimes.toEpochMilli(DATE.plusHours(2))));
+        verify(delegate, times(2)).resolve(anyLong(), anyLong(), any(LocalDateTime.class));
+        assertEquals(0, engine.coalescedCount());
+    }
+
+    @Test
+    void whenWaiterTimesOut_shouldFailOnlyThatWaiter() throws Exception {
+        engine = new CoalescingPriceLookupEngine(delegate, Duration.ofMillis(50));
+        PriceSegment segment = blockingSegment(DATE.plusHours(1));
+
+        Future<PriceSegment> leader = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+
+        assertThrows(PriceLookupTimeoutException.class, () -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        release.countDown();
+        assertSame(segment, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, engine.timedOutCount());
+    }
+
+    @Test
+    void whenWaiterInterrupted_shouldFailOnlyThatWaiterWithPriceLookupInterruptedException() throws Exception {
+        PriceSegment segment = blockingSegment(DATE.plusHours(1));
+
+        Future<PriceSegment> leader = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+        Thread.currentThread().interrupt();
+
+        assertThrows(PriceLookupInterruptedException.class, () -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        assertTrue(Thread.interrupted());
+        release.countDown();
+        assertSame(segment, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, engine.cancelledCount());
+    }
+
+    @Test
+    void whenSharedResolutionFails_shouldRethrowToEveryWaiter() throws Exception {
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("unavailable");
+        when(delegate.resolve(anyLong(), anyLong(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            resolving.countDown();
+            release.await();
+            throw failure;
+        });
+
+        Future<PriceSegment> leader = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+        Future<PriceSegment> waiter = executor.submit(() -> engine.resolve(BRAND_ID, PRODUCT_ID, DATE));
+        awaitWaiters();
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(DataAccessResourceFailureException.class,
+                assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(0, engine.inFlightCount());
+    }
+
+    @Test
+    void whenPricesIndexed_shouldDetachResolutionInFlight() throws Exception {
+        blockingSegment(DATE.plusHours(1));
+        Price price = PriceMock.getPrice();
+
+        Future<PriceSegment> leader = executor.submit(() -> engine.resolve(price.getBrandId(), price.getProductId(), DATE));
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+        engine.index(List.of(price));
+
+        assertEquals(0, engine.inFlightCount());
+        verify(delegate).index(List.of(price));
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Makes the delegate block until released, answering with a segment from the queried date to the given one.
+     */
+    private PriceSegment blockingSegment(LocalDateTime validTo) {
+        PriceSegment segment = new PriceSegment(PriceMock.getPrice(), PriceTimes.toEpochMilli(DATE), PriceTimes.toEpochMilli(validTo));
+        when(delegate.resolve(anyLong(), anyLong(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            LocalDateTime date = invocation.getArgument(2);
+            if (!segment.contains(PriceTimes.toEpochMilli(date))) {
+                return new PriceSegment(null, PriceTimes.toEpochMilli(date), Long.MAX_VALUE);
+            }
+            resolving.countDown();
+            release.await();
+            return segment;
+        });
+        return segment;
+    }
+
+    /**
+     * Gives the submitted waiters time to join the resolution in flight.
+     */
+    private static void awaitWaiters() throws InterruptedException {
+        Thread.sleep(100);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryPriceLookupEngineTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final LocalDateTime DATE = LocalDateTime.now();
+
+    @Mock
+    private PricesRepository pricesRepository;
+
+    private InMemoryPriceLookupEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(pricesRepository.findAll()).thenReturn(PriceMock.getListWithMultipleItems());
+        engine = new InMemoryPriceLookupEngine(pricesRepository, new PricesProperties(), BrandPartitioner.SINGLE_NODE, new PriceChangeStreamPosition(), new SimpleMeterRegistry());
+        engine.afterPropertiesSet();
+    }
+
+    @Test
+    void whenFindPriceWithOverlappingPrices_shouldReturnPriceWithHigherPriority() {
+        Optional<Price> result = engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertTrue(result.isPresent());
+        assertEquals(PriceMock.getPrice().getPrice(), result.get().getPrice());
+    }
+
+    @Test
+    void whenRemoveWinningPrice_shouldFallBackToLowerPriority() {
+        engine.remove(List.of(PriceMock.getPrice()));
+
+        Optional<Price> result = engine.findPrice(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertTrue(result.isPresent());
+        assertEquals(PriceMock.getPriceLowerPriority().getPrice(), result.get().getPrice());
+    }
+
+    @Test
+    void whenReloadAfterPricesDeleted_shouldForgetThem() {
+        when(pricesRepository.findAll()).thenReturn(Collections.emptyList());
+
+        engine.reload();
+
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID, DATE).isEmpty());
+    }
+
+    @Test
+    void whenPriceIndexedDuringReload_shouldKeepItOnceReloaded() {
+        Price promotion = PriceMock.getPrice().toBuilder()
+                ._id("66c26f01f1fc951335aa8d2e")
+                .priority(2)
+                .price(BigDecimal.ONE)
+                .build();
+        when(pricesRepository.findAll()).thenAnswer(invocation -> {
+            engine.index(List.of(promotion));
+            return PriceMock.getListWithMultipleItems();
+        });
+
+        engine.reload();
+
+        assertEquals(BigDecimal.ONE, engine.findPrice(BRAND_ID, PRODUCT_ID, DATE).orElseThrow().getPrice());
+    }
+
+    @Test
+    void whenStartingWithSnapshot_shouldServeItWithoutLoadingEveryPrice(@TempDir Path directory) {
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getLookup().getSnapshot().setEnabled(true);
+        pricesProperties.getLookup().getSnapshot().setReconcile(false);
+        pricesProperties.getLookup().getSnapshot().setPath(directory.resolve("prices.snapshot"));
+        InMemoryPriceLookupEngine first = new InMemoryPriceLookupEngine(pricesRepository, pricesProperties, BrandPartitioner.SINGLE_NODE, new PriceChangeStreamPosition(), new SimpleMeterRegistry());
+        first.afterPropertiesSet();
+        first.destroy();
+        when(pricesRepository.streamCreatedAfter(any(ObjectId.class))).thenReturn(Stream.empty());
+
+        InMemoryPriceLookupEngine restarted = new InMemoryPriceLookupEngine(pricesRepository, pricesProperties, BrandPartitioner.SINGLE_NODE, new PriceChangeStreamPosition(), new SimpleMeterRegistry());
+        restarted.afterPropertiesSet();
+
+        verify(pricesRepository, times(2)).findAll();
+        verify(pricesRepository).streamCreatedAfter(any(ObjectId.class));
+        assertEquals(PriceMock.getPrice().getPrice(), restarted.findPrice(BRAND_ID, PRODUCT_ID, DATE).orElseThrow().getPrice());
+    }
+
+    @Test
+    void whenStartingWithSnapshotAndChangeStream_shouldResumeTheStreamFromTheSnapshot(@TempDir Path directory) {
+        String resumeToken = "{\"_data\": \"8265A1B2C3000000012B022C0100296E5A1004\"}";
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getChangeStream().setEnabled(true);
+        pricesProperties.getLookup().getSnapshot().setEnabled(true);
+        pricesProperties.getLookup().getSnapshot().setPath(directory.resolve("prices.snapshot"));
+        PriceChangeStreamPosition firstPosition = new PriceChangeStreamPosition();
+        InMemoryPriceLookupEngine first = new InMemoryPriceLookupEngine(pricesRepository, pricesProperties, BrandPartitioner.SINGLE_NODE, firstPosition, new SimpleMeterRegistry());
+        first.afterPropertiesSet();
+        firstPosition.applied(resumeToken);
+        first.destroy();
+        firstPosition.applied("{\"_data\": \"newer\"}");
+        when(pricesRepository.streamCreatedAfter(any(ObjectId.class))).thenReturn(Stream.empty());
+
+        PriceChangeStreamPosition position = new PriceChangeStreamPosition();
+        InMemoryPriceLookupEngine restarted = new InMemoryPriceLookupEngine(pricesRepository, pricesProperties, BrandPartitioner.SINGLE_NODE, position, new SimpleMeterRegistry());
+        restarted.afterPropertiesSet();
+
+        assertEquals(resumeToken, position.takeRestored());
+        verify(pricesRepository, times(2)).findAll();
+    }
+
+    @Test
+    void whenFindPriceOutsideEveryInterval_shouldReturnEmpty() {
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID, DATE.plusYears(1)).isEmpty());
+    }
+
+    @Test
+    void whenFindPriceForUnknownProduct_shouldReturnEmpty() {
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID + 1, DATE).isEmpty());
+    }
+
+    @Test
+    void whenFindPriceAtIntervalBoundaries_shouldIncludeStartAndEndDates() {
+        Price price = PriceMock.getPrice();
+
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID, price.getStartDate()).isPresent());
+        assertTrue(engine.findPrice(BRAND_ID, PRODUCT_ID, price.getEndDate()).isPresent());
+    }
+
+    @Test
+    void whenIndexHigherPriorityPrice_shouldReturnItFromThenOn() {
+        Price promotion = PriceMock.getPrice().toBuilder()
+                ._id("66c26f01f1fc951335aa8d2e")
+                .startDate(DATE.minusHours(1))
+                .endDate(DATE.plusHours(1))
+                .priority(2)
+                .price(BigDecimal.ONE)
+                .build();
+
+        engine.index(List.of(promotion));
+
+        assertEquals(BigDecimal.ONE, engine.findPrice(BRAND_ID, PRODUCT_ID, DATE).orElseThrow().getPrice());
+        assertEquals(PriceMock.getPrice().getPrice(), engine.findPrice(BRAND_ID, PRODUCT_ID, DATE.plusHours(2)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void whenResolveBeforeHigherPriorityPriceStarts_shouldEndWindowWhenItStarts() {
+        Price promotion = PriceMock.getPrice().toBuilder()
+                ._id("66c26f01f1fc951335aa8d2e")
+                .startDate(DATE.plusHours(1))
+                .endDate(DATE.plusHours(2))
+                .priority(2)
+                .build();
+        engine.index(List.of(promotion));
+
+        PriceSegment segment = engine.resolve(BRAND_ID, PRODUCT_ID, DATE);
+
+        assertEquals(PriceMock.getPrice().getPrice(), segment.price().getPrice());
+        assertEquals(PriceTimes.toEpochMilli(promotion.getStartDate()), segment.validTo());
+    }
+
+    @Test
+    void whenResolveOutsideEveryInterval_shouldReturnSegmentWithoutPrice() {
+        PriceSegment segment = engine.resolve(BRAND_ID, PRODUCT_ID, DATE.minusYears(1));
+
+        assertEquals(null, segment.price());
+        assertEquals(PriceTimes.toEpochMilli(PriceMock.getPrice().getStartDate()), segment.validTo());
+    }
+
+    @Test
+    void whenIndexPriceWithExistingId_shouldReplaceIt() {
+        Price updated = PriceMock.getPrice().toBuilder()
+                .price(BigDecimal.TEN)
+                .build();
+
+        engine.index(Collections.singletonList(updated));
+
+        assertEquals(BigDecimal.TEN, engine.findPrice(BRAND_ID, PRODUCT_ID, DATE).orElseThrow().getPrice());
+    }
+
+    @Test
+    void whenResolveAllWithBrandOwnedByAnotherMember_shouldResolveItAgainstTheDatabase() {
+        List<String> members = List.of("http://localhost:8081", "http://localhost:8082");
+        String self = BrandPartitioner.of(members.get(0), members, 64, 16).owns(BRAND_ID) ? members.get(1) : members.get(0);
+        InMemoryPriceLookupEngine member = new InMemoryPriceLookupEngine(pricesRepository, new PricesProperties(),
+                BrandPartitioner.of(self, members, 64, 16), new PriceChangeStreamPosition(), new SimpleMeterRegistry());
+        member.afterPropertiesSet();
+        when(pricesRepository.findPricesApplyingWithin(anyMap())).thenReturn(PriceMock.getListWithMultipleItems());
+
+        List<PriceSegment> segments = member.resolveAll(List.of(new PriceQuery(BRAND_ID, PRODUCT_ID, DATE)));
+
+        assertEquals(PriceMock.getPrice().getPrice(), segments.get(0).price().getPrice());
+        verify(pricesRepository).findPricesApplyingWithin(anyMap());
+    }
+}
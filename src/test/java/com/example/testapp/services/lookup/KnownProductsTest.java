@@ -0,0 +1,115 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.services.cluster.BrandPartitioner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class KnownProductsTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+    private static final long UNKNOWN_PRODUCT_ID = 99999L;
+
+    @Mock
+    private PricesRepository pricesRepository;
+
+    private KnownProducts knownProducts;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getChangeStream().setEnabled(true);
+        knownProducts = new KnownProducts(pricesRepository, pricesProperties, BrandPartitioner.SINGLE_NODE);
+    }
+
+    @Test
+    void whenNotLoaded_shouldReportEveryProductAsKnown() {
+        assertTrue(knownProducts.mightContain(BRAND_ID, UNKNOWN_PRODUCT_ID));
+    }
+
+    @Test
+    void whenLoaded_shouldRejectUnknownProducts() {
+        when(pricesRepository.streamProductKeys()).thenReturn(Stream.of(PriceMock.getPrice()));
+
+        knownProducts.reload();
+
+        assertTrue(knownProducts.mightContain(BRAND_ID, PRODUCT_ID));
+        assertFalse(knownProducts.mightContain(BRAND_ID, UNKNOWN_PRODUCT_ID));
+        assertFalse(knownProducts.mightContain(BRAND_ID + 1, PRODUCT_ID));
+    }
+
+    @Test
+    void whenChangeStreamNotFollowed_shouldReportEveryProductAsKnown() {
+        when(pricesRepository.streamProductKeys()).thenReturn(Stream.of(PriceMock.getPrice()));
+        KnownProducts unfed = new KnownProducts(pricesRepository, new PricesProperties(), BrandPartitioner.SINGLE_NODE);
+
+        unfed.reload();
+
+        assertTrue(unfed.mightContain(BRAND_ID, UNKNOWN_PRODUCT_ID));
+    }
+
+    @Test
+    void whenPricesAdded_shouldReportTheirProductsAsKnown() {
+        when(pricesRepository.streamProductKeys()).thenReturn(Stream.empty());
+        knownProducts.reload();
+        Price price = PriceMock.getPrice().toBuilder().productId(UNKNOWN_PRODUCT_ID).build();
+
+        knownProducts.addAll(List.of(price));
+
+        assertTrue(knownProducts.mightContain(BRAND_ID, UNKNOWN_PRODUCT_ID));
+    }
+
+    @Test
+    void whenPriceAddedWhileReloadSwapsFilters_shouldKeepProductKnown() throws InterruptedException {
+        CountDownLatch adding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getChangeStream().setEnabled(true);
+        PricesProperties.KnownProducts properties = spy(pricesProperties.getLookup().getKnownProducts());
+        pricesProperties.getLookup().setKnownProducts(properties);
+        Price added = PriceMock.getPrice().toBuilder().brandId(BRAND_ID + 1).build();
+        Thread writer = new Thread(() -> knownProducts.addAll(List.of(added)), "writer");
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == writer) {
+                adding.countDown();
+                release.await();
+            }
+            return invocation.callRealMethod();
+        }).when(properties).getExpectedProductsPerBrand();
+        when(pricesRepository.streamProductKeys()).thenReturn(Stream.of(PriceMock.getPrice())).thenAnswer(invocation -> {
+            writer.start();
+            adding.await();
+            return Stream.of(PriceMock.getPrice());
+        });
+        knownProducts = new KnownProducts(pricesRepository, pricesProperties, BrandPartitioner.SINGLE_NODE);
+        knownProducts.reload();
+        Thread reload = new Thread(knownProducts::reload, "reload");
+
+        reload.start();
+        while (reload.isAlive() && reload.getState() != Thread.State.BLOCKED) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        reload.join();
+        writer.join();
+
+        assertTrue(knownProducts.mightContain(BRAND_ID + 1, PRODUCT_ID));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import com.example.testapp.repositories.ChangeStreamTokensRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the listener against a single-node replica set, which is how the MongoDB container starts.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PriceChangeStreamListenerTest {
+
+    private static final String NODE_ID = "test-node";
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Container
+    private static final MongoDBContainer MONGO_DB = new MongoDBContainer("mongo:7.0");
+
+    @Mock
+    private PriceLookupEngine priceLookupEngine;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private ChangeStreamTokensRepository changeStreamTokensRepository;
+    private PriceChangeStreamListener listener;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        MockitoAnnotations.openMocks(this);
+        mongoClient = MongoClients.create(MONGO_DB.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "prices-change-stream-test");
+        mongoTemplate.getDb().drop();
+        changeStreamTokensRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(ChangeStreamTokensRepository.class);
+        PricesProperties pricesProperties = new PricesProperties();
+        pricesProperties.getChangeStream().setNodeId(NODE_ID);
+        pricesProperties.getChangeStream().setTokenSaveInterval(Duration.ZERO);
+        pricesProperties.getChangeStream().setMaxAwaitTime(Duration.ofMillis(100));
+        listener = new PriceChangeStreamListener(mongoTemplate, priceLookupEngine, changeStreamTokensRepository, new PriceChangeStreamPosition(), pricesProperties);
+        listener.start();
+        awaitStoredPosition();
+        clearInvocations(priceLookupEngine);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+        mongoClient.close();
+    }
+
+    @Test
+    void whenPriceInserted_shouldIndexIt() {
+        mongoTemplate.insert(PriceMock.getPrice());
+
+        verify(priceLookupEngine, timeout(TIMEOUT_MILLIS)).index(argThat(prices -> containsProduct(prices, PriceMock.getPrice())));
+    }
+
+    @Test
+    void whenPriceDeleted_shouldRemoveItWithoutReloading() {
+        Price price = mongoTemplate.insert(PriceMock.getPrice());
+
+        mongoTemplate.remove(price);
+
+        verify(priceLookupEngine, timeout(TIMEOUT_MILLIS)).remove(argThat(prices -> containsProduct(prices, price)));
+        verify(priceLookupEngine, never()).reload();
+    }
+
+    @Test
+    void whenRestarted_shouldResumeFromStoredPosition() {
+        listener.stop();
+        mongoTemplate.insert(PriceMock.getPrice());
+
+        listener.start();
+
+        verify(priceLookupEngine, timeout(TIMEOUT_MILLIS)).index(argThat(prices -> containsProduct(prices, PriceMock.getPrice())));
+    }
+
+    @Test
+    void whenStartedWithoutPosition_shouldApplyChangesMadeDuringReload() {
+        listener.stop();
+        changeStreamTokensRepository.deleteAll();
+        doAnswer(invocation -> mongoTemplate.insert(PriceMock.getPrice())).when(priceLookupEngine).reload();
+
+        listener.start();
+
+        verify(priceLookupEngine, timeout(TIMEOUT_MILLIS)).index(argThat(prices -> containsProduct(prices, PriceMock.getPrice())));
+    }
+
+    private void awaitStoredPosition() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (changeStreamTokensRepository.count() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "The change stream position was never stored");
+            Thread.sleep(50);
+        }
+    }
+
+    private static boolean containsProduct(Iterable<Price> prices, Price expected) {
+        return StreamSupport.stream(prices.spliterator(), false)
+                .anyMatch(price -> expected.getProductId().equals(price.getProductId()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PriceIntervalsTest {
+
+    private static final long DATE = PriceTimes.toEpochMilli(PriceMock.getPrice().getStartDate()) + 1;
+
+    @Test
+    void whenFind_shouldRestoreEveryFieldOfWinningPrice() {
+        Price price = PriceMock.getPrice();
+
+        Price result = PriceIntervals.of(PriceMock.getListWithMultipleItems()).find(DATE);
+
+        assertEquals(price.get_id(), result.get_id());
+        assertEquals(price.getBrandId(), result.getBrandId());
+        assertEquals(price.getProductId(), result.getProductId());
+        assertEquals(price.getStartDate(), result.getStartDate());
+        assertEquals(price.getEndDate(), result.getEndDate());
+        assertEquals(price.getPriceList(), result.getPriceList());
+        assertEquals(price.getPriority(), result.getPriority());
+        assertEquals(price.getPrice(), result.getPrice());
+        assertEquals(price.getCurrency(), result.getCurrency());
+    }
+
+    @Test
+    void whenFindPriceWithIrregularIdAndMissingFields_shouldRestoreThem() {
+        Price price = PriceMock.getPrice().toBuilder()
+                ._id("price-1")
+                .priceList(null)
+                .priority(null)
+                .price(new BigDecimal("12.500"))
+                .currency(null)
+                .build();
+
+        Price result = PriceIntervals.of(List.of(price)).find(DATE);
+
+        assertEquals("price-1", result.get_id());
+        assertNull(result.getPriceList());
+        assertNull(result.getPriority());
+        assertEquals(new BigDecimal("12.500"), result.getPrice());
+        assertNull(result.getCurrency());
+    }
+
+    @Test
+    void whenFindPriceWithAmountOutOfColumnsAndLowestPriority_shouldRestoreThem() throws IOException {
+        BigDecimal amount = new BigDecimal("123456789012345678901234567890.5");
+        Price price = PriceMock.getPrice().toBuilder()
+                .priority(Integer.MIN_VALUE)
+                .price(amount)
+                .build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PriceIntervals.of(List.of(price)).writeTo(new DataOutputStream(bytes));
+
+        Price result = PriceIntervals.readFrom(ByteBuffer.wrap(bytes.toByteArray())).find(DATE);
+
+        assertEquals(amount, result.getPrice());
+        assertEquals(Integer.MIN_VALUE, result.getPriority());
+    }
+
+    @Test
+    void whenMergePriceWithExistingId_shouldReplaceIt() {
+        PriceIntervals intervals = PriceIntervals.of(PriceMock.getListWithMultipleItems());
+
+        PriceIntervals merged = intervals.merge(List.of(PriceMock.getPrice().toBuilder().price(BigDecimal.ONE).build()));
+
+        assertEquals(2, merged.size());
+        assertEquals(BigDecimal.ONE, merged.find(DATE).getPrice());
+    }
+
+    @Test
+    void whenWithoutWinningPriceId_shouldFallBackToLowerPriority() {
+        PriceIntervals intervals = PriceIntervals.of(PriceMock.getListWithMultipleItems());
+
+        PriceIntervals remaining = intervals.without(Set.of(PriceMock.getPrice().get_id()));
+
+        assertEquals(1, remaining.size());
+        assertEquals(PriceMock.getPriceLowerPriority().getPrice(), remaining.find(DATE).getPrice());
+    }
+}
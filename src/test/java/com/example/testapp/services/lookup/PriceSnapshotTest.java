@@ -0,0 +1,74 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.mocks.PriceMock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceSnapshotTest {
+
+    private static final long DATE = PriceTimes.toEpochMilli(PriceMock.getPrice().getStartDate()) + 1;
+    private static final Instant CREATED_AT = Instant.ofEpochMilli(1_700_000_000_000L);
+    private static final String RESUME_TOKEN = "{\"_data\": \"8265A1B2C3000000012B022C0100296E5A1004\"}";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void whenReadWrittenSnapshot_shouldRestoreIntervals() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        PriceIntervals intervals = PriceIntervals.of(PriceMock.getListWithMultipleItems());
+        PriceSnapshot.write(path, CREATED_AT, RESUME_TOKEN, Map.of(intervals.key(), intervals));
+
+        PriceSnapshot.Contents contents = PriceSnapshot.read(path);
+
+        assertEquals(CREATED_AT, contents.createdAt());
+        assertEquals(RESUME_TOKEN, contents.resumeToken());
+        assertEquals(1, contents.intervals().size());
+        PriceIntervals restored = contents.intervals().get(intervals.key());
+        assertEquals(2, restored.size());
+        assertEquals(PriceMock.getPrice().get_id(), restored.find(DATE).get_id());
+        assertEquals(PriceMock.getPrice().getCurrency(), restored.find(DATE).getCurrency());
+    }
+
+    @Test
+    void whenReadCorruptedSnapshot_shouldThrowIOException() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        PriceIntervals intervals = PriceIntervals.of(PriceMock.getListWithMultipleItems());
+        PriceSnapshot.write(path, CREATED_AT, null, Map.of(intervals.key(), intervals));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> PriceSnapshot.read(path));
+    }
+
+    @Test
+    void whenReadTruncatedSnapshot_shouldThrowIOException() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        Files.write(path, new byte[4]);
+
+        assertThrows(IOException.class, () -> PriceSnapshot.read(path));
+    }
+
+    @Test
+    void whenReadSnapshotWithoutResumeToken_shouldRestoreNoToken() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        PriceIntervals intervals = PriceIntervals.of(PriceMock.getListWithMultipleItems());
+        PriceSnapshot.write(path, CREATED_AT, null, Map.of(intervals.key(), intervals));
+
+        PriceSnapshot.Contents contents = PriceSnapshot.read(path);
+
+        assertNull(contents.resumeToken());
+        assertEquals(1, contents.intervals().size());
+    }
+}
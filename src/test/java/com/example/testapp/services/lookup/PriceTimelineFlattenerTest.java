@@ -0,0 +1,98 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.Price;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceTimelineFlattenerTest {
+
+    private static final Price BASE = PriceMock.getPrice(0, "2020-06-14T00:00:00", "2020-12-31T23:59:59", "35.50");
+    private static final Price AFTERNOON = PriceMock.getPrice(1, "2020-06-14T15:00:00", "2020-06-14T18:30:00", "25.45");
+    private static final Price MORNING = PriceMock.getPrice(1, "2020-06-15T00:00:00", "2020-06-15T11:00:00", "30.50");
+    private static final Price EVENING = PriceMock.getPrice(1, "2020-06-15T16:00:00", "2020-12-31T23:59:59", "38.95");
+
+    @Test
+    void whenFlattenOverlappingPrices_shouldEmitHigherPriorityPriceWhileItApplies() {
+        List<PriceSegment> segments = flatten(BASE, AFTERNOON, MORNING, EVENING);
+
+        assertEquals(6, segments.size());
+        assertSegment(segments.get(0), BASE, "2020-06-14T00:00:00", "2020-06-14T15:00:00");
+        assertSegment(segments.get(1), AFTERNOON, "2020-06-14T15:00:00", "2020-06-14T18:30:00.001");
+        assertSegment(segments.get(2), BASE, "2020-06-14T18:30:00.001", "2020-06-15T00:00:00");
+        assertSegment(segments.get(3), MORNING, "2020-06-15T00:00:00", "2020-06-15T11:00:00.001");
+        assertSegment(segments.get(4), BASE, "2020-06-15T11:00:00.001", "2020-06-15T16:00:00");
+        assertSegment(segments.get(5), EVENING, "2020-06-15T16:00:00", "2020-12-31T23:59:59.001");
+    }
+
+    @Test
+    void whenFlattenLowerPriorityPriceInsideHigherOne_shouldEmitSingleSegment() {
+        Price lower = PriceMock.getPrice(-1, "2020-07-01T00:00:00", "2020-07-31T00:00:00", "10.00");
+
+        List<PriceSegment> segments = flatten(BASE, lower);
+
+        assertEquals(1, segments.size());
+        assertSegment(segments.get(0), BASE, "2020-06-14T00:00:00", "2020-12-31T23:59:59.001");
+    }
+
+    @Test
+    void whenFlattenDisjointPrices_shouldLeaveGapBetweenSegments() {
+        List<PriceSegment> segments = flatten(AFTERNOON, MORNING);
+
+        assertEquals(2, segments.size());
+        assertTrue(segments.get(0).validTo() < segments.get(1).validFrom());
+    }
+
+    @Test
+    void whenFlattenPricesWithSamePriority_shouldPreferLatestStart() {
+        Price later = PriceMock.getPrice(0, "2020-08-01T00:00:00", "2020-08-31T00:00:00", "20.00");
+
+        List<PriceSegment> segments = flatten(BASE, later);
+
+        assertEquals(3, segments.size());
+        assertSame(later, segments.get(1).price());
+    }
+
+    @Test
+    void whenFlattenStream_shouldEmitSameSegmentsLazilyAndCloseSource() {
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Price> prices = Stream.of(BASE, AFTERNOON, MORNING, EVENING)
+                .peek(price -> pulled.incrementAndGet())
+                .onClose(() -> closed.set(true));
+
+        try (Stream<PriceSegment> segments = PriceTimelineFlattener.flatten(prices)) {
+            Iterator<PriceSegment> iterator = segments.iterator();
+            assertSegment(iterator.next(), BASE, "2020-06-14T00:00:00", "2020-06-14T15:00:00");
+            assertEquals(2, pulled.get());
+            List<PriceSegment> rest = new ArrayList<>();
+            iterator.forEachRemaining(rest::add);
+            assertEquals(5, rest.size());
+            assertSegment(rest.get(4), EVENING, "2020-06-15T16:00:00", "2020-12-31T23:59:59.001");
+        }
+        assertTrue(closed.get());
+    }
+
+    private static List<PriceSegment> flatten(Price... pricesByStart) {
+        List<PriceSegment> segments = new ArrayList<>();
+        PriceTimelineFlattener.flatten(List.of(pricesByStart).iterator(), segments::add);
+        return segments;
+    }
+
+    private static void assertSegment(PriceSegment segment, Price price, String validFrom, String validTo) {
+        assertSame(price, segment.price());
+        assertEquals(LocalDateTime.parse(validFrom), PriceTimes.toLocalDateTime(segment.validFrom()));
+        assertEquals(LocalDateTime.parse(validTo), PriceTimes.toLocalDateTime(segment.validTo()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.testapp.services.lookup;
+
+import com.example.testapp.configuration.PricesProperties;
+import com.example.testapp.mocks.PriceMock;
+import com.example.testapp.model.TimelineBackfill;
+import com.example.testapp.repositories.EffectivePricesRepository;
+import com.example.testapp.repositories.PricesRepository;
+import com.example.testapp.repositories.TimelineBackfillsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimelinePriceLookupEngineTest {
+
+    private static final long BRAND_ID = 1L;
+    private static final long PRODUCT_ID = 35643L;
+
+    @Mock
+    private PricesRepository pricesRepository;
+
+    @Mock
+    private EffectivePricesRepository effectivePricesRepository;
+
+    @Mock
+    private TimelineBackfillsRepository timelineBackfillsRepository;
+
+    @Mock
+    private ObjectProvider<TimelineWriterLease> writerLeaseProvider;
+
+    @Mock
+    private TimelineWriterLease writerLease;
+
+    private TimelinePriceLookupEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(pricesRepository.findByBrandIdAndProductIdOrderByStartDateAsc(BRAND_ID, PRODUCT_ID)).thenReturn(PriceMock.getListWithMultipleItems());
+        engine = new TimelinePriceLookupEngine(pricesRepository, effectivePricesRepository, timelineBackfillsRepository,
+                writerLeaseProvider, new PricesProperties());
+    }
+
+    @Test
+    void whenBackfillHasCompleted_shouldNotBackfillAgain() {
+        when(timelineBackfillsRepository.existsById(TimelinePriceLookupEngine.BACKFILL_ID)).thenReturn(true);
+
+        engine.afterPropertiesSet();
+
+        verify(pricesRepository, never()).streamAllOrderedByProduct();
+    }
+
+    @Test
+    void whenBackfillHasNotCompleted_shouldBackfillAndRecordIt() {
+        when(pricesRepository.streamAllOrderedByProduct()).thenReturn(PriceMock.getListWithMultipleItems().stream());
+
+        engine.afterPropertiesSet();
+
+        InOrder inOrder = inOrder(effectivePricesRepository, timelineBackfillsRepository);
+        inOrder.verify(effectivePricesRepository).saveAll(anyIterable());
+        inOrder.verify(effectivePricesRepository).deleteByBrandIdAndProductIdAndRevisionLessThan(anyLong(), anyLong(), anyLong());
+        ArgumentCaptor<TimelineBackfill> backfill = ArgumentCaptor.forClass(TimelineBackfill.class);
+        inOrder.verify(timelineBackfillsRepository).save(backfill.capture());
+        assertEquals(TimelinePriceLookupEngine.BACKFILL_ID, backfill.getValue().get_id());
+        assertEquals(1L, backfill.getValue().getProducts());
+    }
+
+    @Test
+    void whenIndexedTwice_shouldDropRevisionsOlderThanTheLastRead() {
+        engine.index(List.of(PriceMock.getPrice()));
+        engine.index(List.of(PriceMock.getPrice()));
+
+        ArgumentCaptor<Long> revisions = ArgumentCaptor.forClass(Long.class);
+        verify(effectivePricesRepository, times(2)).deleteByBrandIdAndProductIdAndRevisionLessThan(eq(BRAND_ID), eq(PRODUCT_ID), revisions.capture());
+        assertTrue(revisions.getAllValues().get(1) > revisions.getAllValues().get(0));
+    }
+
+    @Test
+    void whenWriterLeaseHeldByAnotherInstance_shouldNotRebuildUntilTakenOver() {
+        when(writerLeaseProvider.getIfAvailable()).thenReturn(writerLease);
+        TimelinePriceLookupEngine follower = new TimelinePriceLookupEngine(pricesRepository, effectivePricesRepository,
+                timelineBackfillsRepository, writerLeaseProvider, new PricesProperties());
+        when(writerLease.isHeld()).thenReturn(false);
+
+        follower.index(List.of(PriceMock.getPrice()));
+
+        verify(effectivePricesRepository, never()).saveAll(anyIterable());
+
+        when(writerLease.isHeld()).thenReturn(true);
+
+        follower.index(List.of());
+
+        verify(pricesRepository).findByBrandIdAndProductIdOrderByStartDateAsc(BRAND_ID, PRODUCT_ID);
+        verify(effectivePricesRepository).saveAll(anyIterable());
+    }
+}